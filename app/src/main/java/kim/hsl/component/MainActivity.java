@@ -5,7 +5,6 @@ import android.os.Bundle;
 
 import androidx.annotation.Nullable;
 
-import kim.hsl.route_core.Router;
 import kim.hsl.router_annotation.Route;
 
 @Route(path = "/app/MainActivity")
@@ -15,7 +14,8 @@ public class MainActivity extends Activity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // 初始化路由表
-        Router.init(getApplication());
+        // 路由表已由 RouterInitProvider 在后台线程中自动初始化 , 不需要在此处同步初始化
+        // 初始化完成之前调用 Router.init(getApplication()) 或发起跳转 , 只会等待 Router.setInitTimeout 设置的时间 ( 默认 3 秒 ) ,
+        // 超时后不再等待 , 此时路由表可能尚未加载完成
     }
 }
@@ -9,6 +9,9 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
+import kim.hsl.router_annotation.Route;
+
+@Route(path = "/library3/FirstFragment")
 public class FirstFragment extends Fragment {
 
     @Override
@@ -0,0 +1,171 @@
+package kim.hsl.route_core;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+import kim.hsl.router_annotation.Extra;
+
+import static org.junit.Assert.*;
+
+/**
+ * @Extra 注入性能测试
+ *
+ * androidTest 使用 router-compiler 注解处理器 , 为 InjectActivity 生成注入器和 Router_Extra_benchmark 注册表 ,
+ * 通过 Router.inject 测试生成的注入器在 24 个参数的界面上的 getIntent 调用次数 , 耗时 , 内存分配字节数
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExtraInjectBenchmark {
+    private static final String TAG = "ExtraInjectBenchmark";
+
+    private static final int EXTRA_COUNT = 24;
+    private static final int ITERATIONS = 10_000;
+
+    /**
+     * 注入目标界面 , 只创建实例不启动 , 记录 getIntent 调用次数
+     */
+    public static class InjectActivity extends Activity {
+        @Extra String s0;
+        @Extra String s1;
+        @Extra String s2;
+        @Extra String s3;
+        @Extra String s4;
+        @Extra String s5;
+        @Extra String s6;
+        @Extra String s7;
+        @Extra int i0;
+        @Extra int i1;
+        @Extra int i2;
+        @Extra int i3;
+        @Extra int i4;
+        @Extra int i5;
+        @Extra int i6;
+        @Extra int i7;
+        @Extra long l0;
+        @Extra long l1;
+        @Extra long l2;
+        @Extra long l3;
+        @Extra long l4;
+        @Extra long l5;
+        @Extra long l6;
+        @Extra long l7;
+
+        int getIntentCount;
+
+        @Override
+        public Intent getIntent() {
+            getIntentCount++;
+            return super.getIntent();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        Application application = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        Router.init(application);
+    }
+
+    @Test
+    public void generatedInjectorReadsIntentOnce() {
+        // 注入器来自生成的 Router_Extra_benchmark 注册表
+        assertNotNull(Warehouse.extrasIndex.get(InjectActivity.class));
+
+        Intent template = new Intent();
+        for (int i = 0; i < EXTRA_COUNT / 3; i++) {
+            template.putExtra("s" + i, "value" + i);
+            template.putExtra("i" + i, i);
+            template.putExtra("l" + i, (long) i);
+        }
+
+        // 预热 , 第一次注入时创建并缓存注入器
+        measure(template);
+        Result result = measure(template);
+        Log.i(TAG, "生成的注入器 : " + result);
+
+        // 每次注入只调用一次 getIntent , 所有字段从同一个 extras Bundle 中读取
+        assertEquals(ITERATIONS, result.getIntentCalls);
+        InjectActivity activity = result.last;
+        assertEquals("value0", activity.s0);
+        assertEquals("value7", activity.s7);
+        assertEquals(7, activity.i7);
+        assertEquals(7L, activity.l7);
+    }
+
+    /**
+     * 非空的 extras 只在第一次读取时反序列化 , 为了模拟真实的界面启动 ,
+     * 每次注入都使用一个新的 Intent
+     */
+    private static Result measure(final Intent template) {
+        final ArrayList<InjectActivity> activities = new ArrayList<>(ITERATIONS);
+        // Activity 的构造函数需要主线程的 Looper
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    InjectActivity activity = new InjectActivity();
+                    activity.setIntent(new Intent(template));
+                    activities.add(activity);
+                }
+            }
+        });
+
+        long allocatedBytes = allocatedBytes();
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (InjectActivity activity : activities) {
+            Router.inject(activity);
+        }
+        long cost = SystemClock.elapsedRealtimeNanos() - start;
+
+        Result result = new Result();
+        result.costNanos = cost;
+        if (allocatedBytes >= 0) {
+            result.allocatedBytes = allocatedBytes() - allocatedBytes;
+        } else {
+            result.allocatedBytes = -1;
+        }
+        for (InjectActivity activity : activities) {
+            result.getIntentCalls += activity.getIntentCount;
+        }
+        result.last = activities.get(activities.size() - 1);
+        return result;
+    }
+
+    /**
+     * 进程启动以来分配的内存字节数 , Android 6.0 以下不支持时返回 -1
+     */
+    private static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return -1;
+        }
+        String bytes = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        return bytes == null ? -1 : Long.parseLong(bytes);
+    }
+
+    private static class Result {
+        long costNanos;
+        long allocatedBytes;
+        long getIntentCalls;
+        InjectActivity last;
+
+        @Override
+        public String toString() {
+            return "耗时 " + costNanos / ITERATIONS + " ns/次 , "
+                    + "内存分配 " + (allocatedBytes < 0 ? "未知" : allocatedBytes / ITERATIONS + " 字节/次") + " , "
+                    + "getIntent 调用 " + getIntentCalls / ITERATIONS + " 次/次";
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package kim.hsl.route_core;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kim.hsl.route_core.template.IService;
+import kim.hsl.router_annotation.Route;
+
+import static org.junit.Assert.*;
+
+/**
+ * 跨进程服务批量调用性能测试
+ *
+ * androidTest 的 AndroidManifest.xml 将 RemoteServiceHost 放到 :remote 进程中 ,
+ * androidTest 使用 router-compiler 注解处理器 , 为 CounterServiceImpl 生成 Router_Services_benchmark 和 Router_Remote_benchmark ;
+ * 对比 flushSize 为 1 ( 每个调用一次事务 , 与 AIDL 相同 ) 和 flushSize 为 64 时 ,
+ * 连续 CALLS 个单向调用加一个同步调用的耗时与 Binder 事务个数
+ */
+@RunWith(AndroidJUnit4.class)
+public class RemoteServiceBenchmark {
+    private static final String TAG = "RemoteServiceBenchmark";
+
+    private static final int CALLS = 10_000;
+    private static final int FLUSH_SIZE = 64;
+    private static final long FLUSH_LATENCY = 4;
+    private static final long CONNECT_TIMEOUT = 5000;
+
+    /**
+     * 跨进程计数服务
+     */
+    public interface CounterService extends IService {
+        /**
+         * 单向调用
+         */
+        void add(int delta);
+
+        /**
+         * 同步调用
+         */
+        int get();
+    }
+
+    /**
+     * 计数服务实现 , 在 :remote 进程中创建
+     */
+    @Route(path = "/benchmark/counter", remote = true)
+    public static class CounterServiceImpl implements CounterService {
+        private int mCount;
+
+        @Override
+        public void add(int delta) {
+            mCount += delta;
+        }
+
+        @Override
+        public int get() {
+            return mCount;
+        }
+    }
+
+    /**
+     * 优先级更高的本进程计数服务 , 跨进程调用不能执行该实现 , 否则计数不正确
+     */
+    @Route(path = "/benchmark/localCounter", priority = 1)
+    public static class LocalCounterServiceImpl implements CounterService {
+        @Override
+        public void add(int delta) {
+        }
+
+        @Override
+        public int get() {
+            return -1;
+        }
+    }
+
+    private Application mApplication;
+
+    @Before
+    public void setUp() {
+        mApplication = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        Router.init(mApplication);
+    }
+
+    @Test
+    public void batchedCallsUseFewerTransactions() {
+        // 预热 , 同时等待 :remote 进程启动
+        measure(1, CALLS / 10);
+        measure(FLUSH_SIZE, CALLS / 10);
+
+        Result unbatched = measure(1, CALLS);
+        Result batched = measure(FLUSH_SIZE, CALLS);
+
+        Log.i(TAG, "每个调用一次事务 : " + unbatched);
+        Log.i(TAG, "每 " + FLUSH_SIZE + " 个调用一次事务 : " + batched);
+
+        // 每个单向调用一次事务 , 加上最后的同步调用
+        assertEquals(CALLS + 1, unbatched.transactions);
+        // 批次满时发送 , 剩余的调用与同步调用一起发送 , 允许少量由 flushLatency 触发的发送
+        assertTrue(batched.transactions <= CALLS / FLUSH_SIZE * 2 + 1);
+    }
+
+    /**
+     * 在测试线程中连续发送 calls 个单向调用 , 再使用同步调用读取结果 , 校验所有单向调用都已执行
+     */
+    private Result measure(int flushSize, int calls) {
+        RemoteChannel channel = new RemoteChannel(flushSize, FLUSH_LATENCY, CONNECT_TIMEOUT);
+        channel.connect(mApplication);
+        Warehouse.RemoteEntry entry = Warehouse.remoteServices.get(CounterService.class.getName());
+        assertNotNull(entry);
+        // 生成的跨进程服务索引记录 @Route(remote = true) 注解的实现类
+        assertSame(CounterServiceImpl.class, entry.implementation);
+        CounterService counter = (CounterService) entry.remoteIndex.createProxy(entry.id, channel);
+
+        // 同步调用 , 等待连接 , 服务进程中的计数在多次测量之间累加
+        int base = counter.get();
+        long transactionStart = channel.getTransactionCount();
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < calls; i++) {
+            counter.add(1);
+        }
+        int count = counter.get();
+        long cost = SystemClock.elapsedRealtimeNanos() - start;
+
+        // 同步调用之前的单向调用全部执行
+        assertEquals(base + calls, count);
+
+        Result result = new Result();
+        result.calls = calls;
+        result.costNanos = cost;
+        result.transactions = channel.getTransactionCount() - transactionStart;
+        return result;
+    }
+
+    private static class Result {
+        int calls;
+        long costNanos;
+        long transactions;
+
+        @Override
+        public String toString() {
+            return "耗时 " + costNanos / calls + " ns/次 , "
+                    + "调用 " + calls * 1_000_000_000L / costNanos + " 次/秒 , "
+                    + "事务 " + transactions + " 个 , " + transactions * 1_000_000_000L / costNanos + " 个/秒";
+        }
+    }
+}
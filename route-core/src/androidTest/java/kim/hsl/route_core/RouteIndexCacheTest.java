@@ -0,0 +1,55 @@
+package kim.hsl.route_core;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Set;
+
+import kim.hsl.route_core.utils.RouteIndexCache;
+
+import static org.junit.Assert.*;
+
+/**
+ * 路由类索引缓存测试
+ * 对比 冷启动 ( 扫描 DEX 文件 ) 与 热启动 ( 读取缓存 ) 获取路由类名的耗时
+ */
+@RunWith(AndroidJUnit4.class)
+public class RouteIndexCacheTest {
+    private static final String TAG = "RouteIndexCacheTest";
+
+    private Application mApplication;
+
+    @Before
+    public void setUp() {
+        mApplication = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        Router.init(mApplication);
+    }
+
+    @Test
+    public void warmStartUsesCache() {
+        // 冷启动 : 清除缓存 , 扫描 DEX 文件
+        RouteIndexCache.clear(mApplication);
+        long coldStart = SystemClock.elapsedRealtimeNanos();
+        Set<String> coldClassNames = Router.getRouteClassNames();
+        long coldCost = SystemClock.elapsedRealtimeNanos() - coldStart;
+
+        // 热启动 : 直接读取缓存
+        long warmStart = SystemClock.elapsedRealtimeNanos();
+        Set<String> warmClassNames = Router.getRouteClassNames();
+        long warmCost = SystemClock.elapsedRealtimeNanos() - warmStart;
+
+        Log.i(TAG, "冷启动耗时 : " + coldCost / 1000 + " us , 热启动耗时 : " + warmCost / 1000 + " us");
+
+        assertFalse(coldClassNames.isEmpty());
+        assertEquals(coldClassNames, warmClassNames);
+    }
+}
@@ -0,0 +1,86 @@
+package kim.hsl.route_core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RemoteServiceHost 中每个 RemoteChannel 通道的批次顺序
+ *
+ * 同一通道的批次按照批次序号依次执行 , 每个通道从序号 0 开始 ( RemoteChannel 每次连接后使用新的通道 ID ) ;
+ * 同步事务可能先于之前的单向事务到达 , 先到达的批次等待序号更小的批次执行完成 ,
+ * 序号不连续 ( 如调用方发送失败 ) 时最多等待 timeout 毫秒
+ */
+class BatchSequencer {
+
+    /**
+     * 等待之前的批次的最长时间 , 单位毫秒
+     */
+    private final long mTimeout;
+
+    /**
+     * 每个通道下一个执行的批次序号
+     * 键 ( Key ) : 通道 ID , 值 ( Value ) : 长度为 1 的数组 , 保存批次序号
+     */
+    private final Map<Long, long[]> mNextSequences = new HashMap<>();
+
+    BatchSequencer(long timeout) {
+        this.mTimeout = timeout;
+    }
+
+    /**
+     * 等待同一通道之前的批次执行完成
+     * @param channelId 通道 ID
+     * @param sequence 批次序号
+     * @return 之前的批次都已执行返回 true , 等待超时或被中断返回 false
+     */
+    boolean awaitTurn(long channelId, long sequence) {
+        synchronized (mNextSequences) {
+            long[] next = mNextSequences.get(channelId);
+            if (next == null) {
+                // 新的通道从序号 0 开始 , 不能以第一个到达的批次为准 , 否则序号更小的批次会被跳过
+                next = new long[]{0};
+                mNextSequences.put(channelId, next);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(mTimeout);
+            while (next[0] < sequence) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    mNextSequences.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 批次执行完成 , 唤醒等待下一个批次的线程
+     * @param channelId 通道 ID
+     * @param sequence 批次序号
+     */
+    void finishTurn(long channelId, long sequence) {
+        synchronized (mNextSequences) {
+            long[] next = mNextSequences.get(channelId);
+            if (next[0] <= sequence) {
+                next[0] = sequence + 1;
+            }
+            mNextSequences.notifyAll();
+        }
+    }
+
+    /**
+     * 下一个执行的批次序号 , 没有收到过该通道的批次时返回 0
+     */
+    long nextSequence(long channelId) {
+        synchronized (mNextSequences) {
+            long[] next = mNextSequences.get(channelId);
+            return next == null ? 0 : next[0];
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package kim.hsl.route_core;
+
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 无状态 Fragment 的实例缓存 , 只缓存 @Route(cacheable = true) 注解的 androidx Fragment
+ *
+ * 获取时从缓存中取出 , 取出的实例不再被缓存持有 , 同一个实例不会同时交给两个调用方 ;
+ * Fragment 销毁 ( 生命周期 ON_DESTROY ) 后放回缓存 , 从 FragmentManager 中完全移除后才能再次取出 ,
+ * 配置变化 ( 如屏幕旋转 ) 导致的销毁不放回缓存 , FragmentManager 会根据保存的状态重新创建该 Fragment ;
+ * 缓存的实例个数不超过 maxSize , 超过时丢弃最早放回的实例
+ */
+final class FragmentCache {
+
+    /**
+     * 默认最多缓存的 Fragment 个数
+     */
+    static final int DEFAULT_MAX_SIZE = 8;
+
+    /**
+     * 可以缓存实例的 Fragment 类
+     */
+    private final Set<Class<?>> mCacheable =
+            Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+    /**
+     * 空闲的 Fragment , 最近放回的在前
+     */
+    private final ArrayDeque<Fragment> mIdle = new ArrayDeque<>();
+
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * 记录可以缓存实例的 Fragment 类
+     */
+    void setCacheable(Class<?> clazz) {
+        mCacheable.add(clazz);
+    }
+
+    boolean isCacheable(Class<?> clazz) {
+        return mCacheable.contains(clazz);
+    }
+
+    /**
+     * 设置最多缓存的 Fragment 个数 , 为 0 时不缓存
+     */
+    synchronized void setMaxSize(int maxSize) {
+        mMaxSize = Math.max(maxSize, 0);
+        trim();
+    }
+
+    /**
+     * 取出一个空闲的 Fragment
+     * @param clazz Fragment 类
+     * @return 空闲的 Fragment , 没有时返回 null
+     */
+    synchronized Fragment obtain(Class<?> clazz) {
+        Iterator<Fragment> iterator = mIdle.iterator();
+        while (iterator.hasNext()) {
+            Fragment fragment = iterator.next();
+            // 销毁后仍然关联 FragmentManager 时 , 还不能再次添加
+            if (fragment.getClass() == clazz && fragment.getHost() == null) {
+                iterator.remove();
+                return fragment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 监听 Fragment 的生命周期 , 销毁后放回缓存 , 需要在主线程中调用
+     * @param fragment 交给调用方的 Fragment
+     */
+    void track(final Fragment fragment) {
+        fragment.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    // ON_DESTROY 在 Fragment 与 Activity 分离之前分发 , 此时仍然可以获取 Activity
+                    FragmentActivity activity = fragment.getActivity();
+                    onDestroy(fragment, activity != null && activity.isChangingConfigurations());
+                }
+            }
+        });
+    }
+
+    /**
+     * Fragment 销毁 , 只有不是由配置变化导致的销毁才放回缓存
+     * @param fragment 销毁的 Fragment
+     * @param changingConfigurations 所在的 Activity 是否因为配置变化而销毁
+     */
+    void onDestroy(Fragment fragment, boolean changingConfigurations) {
+        if (changingConfigurations) {
+            return;
+        }
+        recycle(fragment);
+    }
+
+    /**
+     * 将 Fragment 放回缓存
+     */
+    synchronized void recycle(Fragment fragment) {
+        if (mMaxSize == 0) {
+            return;
+        }
+        mIdle.addFirst(fragment);
+        trim();
+    }
+
+    /**
+     * 已缓存的 Fragment 个数
+     */
+    synchronized int size() {
+        return mIdle.size();
+    }
+
+    private void trim() {
+        while (mIdle.size() > mMaxSize) {
+            mIdle.removeLast();
+        }
+    }
+}
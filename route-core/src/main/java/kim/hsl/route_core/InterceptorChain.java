@@ -0,0 +1,252 @@
+package kim.hsl.route_core;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kim.hsl.route_core.callback.InterceptorCallback;
+import kim.hsl.route_core.template.IInterceptor;
+import kim.hsl.route_core.template.IInterceptorRoot;
+
+/**
+ * 路由拦截器链
+ *
+ * 拦截器在后台线程池中按照优先级依次执行 , 上一个拦截器回调 onContinue 后才执行下一个 ,
+ * 执行过程中不会阻塞任何线程等待拦截器的处理结果
+ * 超时由主线程 Handler 计时 , 处理结果在主线程中回调
+ */
+final class InterceptorChain {
+    private static final String TAG = "InterceptorChain";
+
+    /**
+     * 拦截器执行线程池
+     */
+    private static final Executor mExecutor = newExecutor();
+
+    /**
+     * 主线程 Handler , 用于超时计时和回调处理结果
+     */
+    private static final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 按照优先级排序的所有拦截器 , 第一次执行拦截器链时创建
+     */
+    private static volatile IInterceptor[] mInterceptors;
+
+    private InterceptorChain() {
+    }
+
+    /**
+     * 是否有需要执行的拦截器
+     */
+    static boolean hasInterceptors() {
+        return !Warehouse.interceptorRoots.isEmpty();
+    }
+
+    /**
+     * 异步执行拦截器链
+     * @param postcard 路由跳转信息
+     * @param timeoutMillis 整个拦截器链的超时时间 , 单位毫秒
+     * @param callback 处理结果回调 , 在主线程中执行
+     */
+    static void execute(Postcard postcard, long timeoutMillis, InterceptorCallback callback) {
+        final Execution execution = new Execution(postcard, callback);
+        mHandler.postDelayed(execution, timeoutMillis);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                execution.proceed(0);
+            }
+        });
+    }
+
+    /**
+     * 获取所有拦截器 , 各模块的拦截器合并后按照优先级排序 , 只创建一次
+     */
+    private static IInterceptor[] getInterceptors() {
+        IInterceptor[] interceptors = mInterceptors;
+        if (interceptors == null) {
+            synchronized (InterceptorChain.class) {
+                interceptors = mInterceptors;
+                if (interceptors == null) {
+                    interceptors = createInterceptors();
+                    mInterceptors = interceptors;
+                }
+            }
+        }
+        return interceptors;
+    }
+
+    private static IInterceptor[] createInterceptors() {
+        final List<Object[]> entries = new ArrayList<>();
+        for (IInterceptorRoot root : Warehouse.interceptorRoots) {
+            int[] priorities = root.priorities();
+            for (int id = 0; id < priorities.length; id++) {
+                // { 优先级 , 拦截器 }
+                entries.add(new Object[]{priorities[id], root.create(id)});
+            }
+        }
+        // 优先级相同时按照类名排序 , 与注册表的加载顺序无关 , 与同一模块内编译时的排序规则相同
+        Collections.sort(entries, new Comparator<Object[]>() {
+            @Override
+            public int compare(Object[] left, Object[] right) {
+                int cmp = Integer.compare((Integer) left[0], (Integer) right[0]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+                return left[1].getClass().getName().compareTo(right[1].getClass().getName());
+            }
+        });
+
+        IInterceptor[] interceptors = new IInterceptor[entries.size()];
+        for (int i = 0; i < interceptors.length; i++) {
+            interceptors[i] = (IInterceptor) entries.get(i)[1];
+        }
+        Log.i(TAG, "createInterceptors : 创建拦截器 " + interceptors.length + " 个");
+        return interceptors;
+    }
+
+    private static Executor newExecutor() {
+        int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "Router-interceptor-" + mCount.incrementAndGet());
+            }
+        });
+        // 空闲时回收线程
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 一次路由跳转的拦截器链执行状态
+     * 作为 Runnable 时是超时任务
+     */
+    private static final class Execution implements Runnable {
+        private final Postcard mPostcard;
+        private final InterceptorCallback mCallback;
+
+        /**
+         * 是否已经得到结果 , 拦截器处理结果与超时只有一个生效
+         */
+        private final AtomicBoolean mFinished = new AtomicBoolean(false);
+
+        Execution(Postcard postcard, InterceptorCallback callback) {
+            this.mPostcard = postcard;
+            this.mCallback = callback;
+        }
+
+        /**
+         * 执行第 index 个拦截器 , 所有拦截器都通过后结束
+         */
+        void proceed(int index) {
+            if (mFinished.get()) {
+                return;
+            }
+            IInterceptor[] interceptors = getInterceptors();
+            if (index >= interceptors.length) {
+                finish(null);
+                return;
+            }
+            try {
+                interceptors[index].process(mPostcard, new Step(this, index));
+            } catch (Throwable e) {
+                Log.e(TAG, "proceed : 拦截器执行异常 " + interceptors[index], e);
+                finish(e);
+            }
+        }
+
+        /**
+         * 超时 , 中断跳转
+         */
+        @Override
+        public void run() {
+            finish(new TimeoutException("拦截器处理超时 " + mPostcard.getPath()));
+        }
+
+        /**
+         * 结束拦截器链 , 在主线程中回调处理结果
+         * @param exception 中断原因 , 为空表示所有拦截器都已通过
+         */
+        void finish(final Throwable exception) {
+            if (!mFinished.compareAndSet(false, true)) {
+                return;
+            }
+            mHandler.removeCallbacks(this);
+            Runnable result = new Runnable() {
+                @Override
+                public void run() {
+                    if (exception == null) {
+                        mCallback.onContinue(mPostcard);
+                    } else {
+                        mCallback.onInterrupt(exception);
+                    }
+                }
+            };
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                result.run();
+            } else {
+                mHandler.post(result);
+            }
+        }
+    }
+
+    /**
+     * 传递给单个拦截器的回调 , 每个拦截器只能回调一次
+     */
+    private static final class Step implements InterceptorCallback {
+        private final Execution mExecution;
+        private final int mIndex;
+        private final AtomicBoolean mCalled = new AtomicBoolean(false);
+
+        Step(Execution execution, int index) {
+            this.mExecution = execution;
+            this.mIndex = index;
+        }
+
+        @Override
+        public void onContinue(Postcard postcard) {
+            if (!mCalled.compareAndSet(false, true)) {
+                return;
+            }
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                // 拦截器在主线程中回调时 , 切换回线程池执行下一个拦截器
+                mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mExecution.proceed(mIndex + 1);
+                    }
+                });
+            } else {
+                mExecution.proceed(mIndex + 1);
+            }
+        }
+
+        @Override
+        public void onInterrupt(Throwable exception) {
+            if (!mCalled.compareAndSet(false, true)) {
+                return;
+            }
+            mExecution.finish(exception == null
+                    ? new IllegalStateException("拦截器中断跳转 " + mExecution.mPostcard.getPath())
+                    : exception);
+        }
+    }
+}
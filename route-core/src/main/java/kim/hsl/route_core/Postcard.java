@@ -0,0 +1,203 @@
+package kim.hsl.route_core;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import java.io.Serializable;
+
+import kim.hsl.route_core.callback.NavigationCallback;
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 路由跳转信息
+ * 通过 Router.getInstance().build("/app/MainActivity") 创建 , 携带跳转参数
+ */
+public class Postcard {
+
+    /**
+     * 路由地址
+     */
+    private final String path;
+
+    /**
+     * 路由分组
+     */
+    private final String group;
+
+    /**
+     * 跳转参数
+     */
+    private final Bundle extras;
+
+    /**
+     * Intent 的 flags , -1 表示未设置
+     */
+    private int flags = -1;
+
+    /**
+     * 是否跳过拦截器
+     */
+    private boolean greenChannel;
+
+    /**
+     * 拦截器链超时时间 , 单位毫秒 , -1 表示使用 Router.setInterceptorTimeout 设置的时间
+     */
+    private long timeout = -1;
+
+    /**
+     * 查找到的路由信息 , 执行拦截器之前设置
+     */
+    private RouteMeta routeMeta;
+
+    /**
+     * 发起跳转的时间 , 用于统计跳转耗时
+     */
+    private long startNanos;
+
+    public Postcard(String path, String group) {
+        this.path = path;
+        this.group = group;
+        this.extras = new Bundle();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public Bundle getExtras() {
+        return extras;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean isGreenChannel() {
+        return greenChannel;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * 获取路由信息 , 拦截器中可以根据路由信息判断是否需要拦截
+     * @return 路由信息 , 查找路由之前为 null
+     */
+    public RouteMeta getRouteMeta() {
+        return routeMeta;
+    }
+
+    void setRouteMeta(RouteMeta routeMeta) {
+        this.routeMeta = routeMeta;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    void setStartNanos(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * 跳过所有拦截器
+     */
+    public Postcard greenChannel() {
+        this.greenChannel = true;
+        return this;
+    }
+
+    /**
+     * 设置本次跳转的拦截器链超时时间
+     * @param timeoutMillis 超时时间 , 单位毫秒
+     */
+    public Postcard withTimeout(long timeoutMillis) {
+        this.timeout = timeoutMillis;
+        return this;
+    }
+
+    public Postcard withFlags(int flags) {
+        this.flags = flags;
+        return this;
+    }
+
+    public Postcard withString(String key, String value) {
+        extras.putString(key, value);
+        return this;
+    }
+
+    public Postcard withBoolean(String key, boolean value) {
+        extras.putBoolean(key, value);
+        return this;
+    }
+
+    public Postcard withInt(String key, int value) {
+        extras.putInt(key, value);
+        return this;
+    }
+
+    public Postcard withLong(String key, long value) {
+        extras.putLong(key, value);
+        return this;
+    }
+
+    public Postcard withFloat(String key, float value) {
+        extras.putFloat(key, value);
+        return this;
+    }
+
+    public Postcard withDouble(String key, double value) {
+        extras.putDouble(key, value);
+        return this;
+    }
+
+    public Postcard withParcelable(String key, Parcelable value) {
+        extras.putParcelable(key, value);
+        return this;
+    }
+
+    public Postcard withSerializable(String key, Serializable value) {
+        extras.putSerializable(key, value);
+        return this;
+    }
+
+    public Postcard withBundle(Bundle bundle) {
+        if (bundle != null) {
+            extras.putAll(bundle);
+        }
+        return this;
+    }
+
+    /**
+     * 执行路由跳转
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    public Object navigation() {
+        return navigation(null);
+    }
+
+    /**
+     * 执行路由跳转
+     * @param context 启动 Activity 使用的上下文 , 为空时使用 Application
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    public Object navigation(Context context) {
+        return Router.getInstance().navigation(context, this, null);
+    }
+
+    /**
+     * 执行路由跳转 , Activity 跳转会先经过拦截器链
+     * @param context 启动 Activity 使用的上下文 , 为空时使用 Application
+     * @param callback 跳转结果回调 , 在主线程中执行
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    public Object navigation(Context context, NavigationCallback callback) {
+        return Router.getInstance().navigation(context, this, callback);
+    }
+}
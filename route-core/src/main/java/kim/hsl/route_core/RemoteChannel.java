@@ -0,0 +1,428 @@
+package kim.hsl.route_core;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.RemoteException;
+import android.util.Log;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 调用方进程的远程调用通道 , 生成的跨进程服务代理通过该通道调用 RemoteServiceHost 所在进程中的服务
+ *
+ * 每次 Binder 事务都有一次内核拷贝和线程切换 , 通道将多个调用合并到同一个 Parcel 中 , 一次事务发送 :
+ * 1. 没有返回值的方法是单向调用 , 写入当前批次后立即返回 , 批次中的调用个数达到 flushSize ,
+ *    或第一个调用写入后经过 flushLatency 毫秒时 , 以 FLAG_ONEWAY 事务发送整个批次
+ * 2. 有返回值的方法是同步调用 , 与之前的单向调用一起作为一个批次立即发送 , 等待返回值
+ *
+ * Binder 只保证发往同一对象的单向事务按顺序执行 , 同步事务可能在之前的单向事务之前执行 ,
+ * 因此每个批次带有通道 ID 和批次序号 , RemoteServiceHost 按照序号依次执行同一通道的批次 ,
+ * 同一线程的调用按照调用顺序执行 ; flushSize 为 1 时每个调用单独发送一次事务 , 与 AIDL 生成的代码相同
+ *
+ * 每次连接后使用新的通道 ID , 批次序号从 0 开始 , RemoteServiceHost 从序号 0 开始执行新的通道
+ *
+ * 没有连接时单向调用暂存在批次中 , 批次超过 MAX_PENDING_BYTES 后丢弃之后的单向调用 ,
+ * 避免服务进程一直无法连接时批次无限增长 , 以及连接后的批次超过 Binder 事务缓冲区的大小
+ *
+ * 批次格式为 : 接口描述符 , 通道 ID , 批次序号 , 之后每个调用为 接口类名 , 方法 ID , 参数
+ */
+public final class RemoteChannel {
+    private static final String TAG = "RemoteChannel";
+
+    /**
+     * Binder 接口描述符 , 服务所在进程校验该描述符
+     */
+    static final String DESCRIPTOR = "kim.hsl.route_core.RemoteServiceHost";
+
+    /**
+     * 批量调用事务
+     */
+    static final int TRANSACTION_BATCH = IBinder.FIRST_CALL_TRANSACTION;
+
+    /**
+     * 同步调用的返回状态 , 之后是返回值
+     */
+    static final int STATUS_OK = 0;
+
+    /**
+     * 同步调用的返回状态 , 之后是异常信息
+     */
+    static final int STATUS_ERROR = 1;
+
+    /**
+     * 没有连接时批次的最大字节数 , Binder 事务缓冲区为 1MB , 单向事务最多只能使用其中的一半 , 且由所有单向事务共享
+     */
+    static final int MAX_PENDING_BYTES = 128 * 1024;
+
+    /**
+     * 批次中的调用个数达到该值时立即发送
+     */
+    private final int mFlushSize;
+
+    /**
+     * 批次中第一个调用写入后 , 最多等待的时间 , 单位毫秒
+     */
+    private final long mFlushLatency;
+
+    /**
+     * 同步调用等待连接的最长时间 , 单位毫秒
+     */
+    private final long mConnectTimeout;
+
+    /**
+     * 保护当前批次 , 从 begin 开始写入调用 , 到 send / call / abortCall 结束
+     */
+    private final ReentrantLock mBatchLock = new ReentrantLock();
+
+    /**
+     * 当前批次 , 没有调用时为 null
+     */
+    private Parcel mBatch;
+
+    /**
+     * 当前批次中的调用个数
+     */
+    private int mCallCount;
+
+    /**
+     * 当前批次中通道 ID 和批次序号的位置 , 取出批次时写入
+     */
+    private int mHeaderPosition;
+
+    /**
+     * 正在写入的调用在批次中的开始位置 , 丢弃该调用时回退到该位置
+     */
+    private int mCallPosition;
+
+    /**
+     * 没有连接期间丢弃的单向调用个数 , 由 mBatchLock 保护
+     */
+    private int mDroppedCount;
+
+    /**
+     * 生成通道 ID
+     */
+    private final Random mRandom = new Random();
+
+    /**
+     * 通道 ID , 区分同一服务进程中不同调用方的批次序号 , 每次连接后重新生成 , 由 mBatchLock 保护
+     */
+    private long mChannelId = mRandom.nextLong();
+
+    /**
+     * 下一个取出的批次序号 , 由 mBatchLock 保护
+     * 取出批次时分配 , 发送失败的序号不再使用 , RemoteServiceHost 等待该序号超时后继续执行
+     */
+    private long mSequence;
+
+    /**
+     * RemoteServiceHost 的 Binder , 没有连接时为 null
+     */
+    private volatile IBinder mBinder;
+
+    /**
+     * 连接门闩 , 连接后打开 , 断开后重新创建
+     */
+    private volatile CountDownLatch mConnected = new CountDownLatch(1);
+
+    /**
+     * 已经发送的事务个数
+     */
+    private final AtomicLong mTransactionCount = new AtomicLong();
+
+    /**
+     * 延迟发送批次的线程
+     */
+    private final Handler mFlushHandler;
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private final ServiceConnection mConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            attach(service);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            // 服务所在进程死亡 , 系统会自动重新连接 , 期间的单向调用暂存在批次中
+            Log.w(TAG, "onServiceDisconnected : 远程服务连接断开");
+            mConnected = new CountDownLatch(1);
+            mBinder = null;
+        }
+    };
+
+    RemoteChannel(int flushSize, long flushLatency, long connectTimeout) {
+        this.mFlushSize = Math.max(flushSize, 1);
+        this.mFlushLatency = flushLatency;
+        this.mConnectTimeout = connectTimeout;
+        HandlerThread thread = new HandlerThread("Router-remote");
+        thread.start();
+        this.mFlushHandler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * 连接 RemoteServiceHost , 连接完成之前的单向调用暂存在批次中 , 连接后发送
+     * @param context 上下文
+     */
+    void connect(Context context) {
+        Intent intent = new Intent(context, RemoteServiceHost.class);
+        if (!context.bindService(intent, mConnection, Context.BIND_AUTO_CREATE)) {
+            Log.e(TAG, "connect : 无法连接远程服务 , 请检查 RemoteServiceHost 是否在 AndroidManifest.xml 中被移除");
+        }
+    }
+
+    /**
+     * 设置 RemoteServiceHost 的 Binder , 发送连接之前暂存的调用
+     * @param binder RemoteServiceHost 的 Binder
+     */
+    void attach(IBinder binder) {
+        int droppedCount;
+        mBatchLock.lock();
+        try {
+            // 服务进程可能已经重启 , 与 Binder 一起切换到新的通道 , 之后取出的批次从序号 0 开始
+            mBinder = binder;
+            mChannelId = mRandom.nextLong();
+            mSequence = 0;
+            droppedCount = mDroppedCount;
+            mDroppedCount = 0;
+        } finally {
+            mBatchLock.unlock();
+        }
+        mConnected.countDown();
+        if (droppedCount > 0) {
+            Log.w(TAG, "attach : 连接断开期间丢弃了 " + droppedCount + " 个单向调用");
+        }
+        mFlushHandler.post(mFlushRunnable);
+    }
+
+    /**
+     * 已经发送的 Binder 事务个数
+     */
+    long getTransactionCount() {
+        return mTransactionCount.get();
+    }
+
+    /**
+     * 开始写入一个单向调用 , 之后由生成的代理写入参数 , 再调用 send
+     * @param service 接口类名
+     * @param method 方法 ID
+     * @return 当前批次 , 调用 send 或 abortCall 之前只能由当前线程写入
+     */
+    public Parcel begin(String service, int method) {
+        mBatchLock.lock();
+        if (mBatch == null) {
+            mBatch = Parcel.obtain();
+            mBatch.writeInterfaceToken(DESCRIPTOR);
+            mHeaderPosition = mBatch.dataPosition();
+            mBatch.writeLong(0);
+            mBatch.writeLong(0);
+        }
+        mCallPosition = mBatch.dataPosition();
+        mBatch.writeString(service);
+        mBatch.writeInt(method);
+        return mBatch;
+    }
+
+    /**
+     * 结束单向调用 , 批次中的调用个数达到 flushSize 时立即发送 , 否则等待 flushLatency 后发送
+     * 没有连接且批次超过 MAX_PENDING_BYTES 时 , 丢弃该调用
+     */
+    public void send() {
+        boolean flushNow = false;
+        boolean firstDrop = false;
+        try {
+            if (mBinder == null && mBatch.dataPosition() > MAX_PENDING_BYTES) {
+                rollbackCall();
+                firstDrop = ++mDroppedCount == 1;
+            } else {
+                mCallCount++;
+                flushNow = mCallCount >= mFlushSize;
+                if (!flushNow && mCallCount == 1) {
+                    // 在锁中设置延迟发送 , 与 flush 中取消延迟发送的顺序一致
+                    mFlushHandler.postDelayed(mFlushRunnable, mFlushLatency);
+                }
+            }
+        } finally {
+            mBatchLock.unlock();
+        }
+        if (firstDrop) {
+            Log.w(TAG, "send : 远程服务没有连接 , 暂存的单向调用超过 " + MAX_PENDING_BYTES + " 字节 , 丢弃之后的单向调用");
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * 开始写入一个同步调用 , 之后由生成的代理写入参数 , 再调用 call
+     *
+     * 没有连接时等待连接 , 连接回调在主线程中执行 , 因此主线程中不等待
+     *
+     * @param service 接口类名
+     * @param method 方法 ID
+     * @return 当前批次 , 调用 call 或 abortCall 之前只能由当前线程写入
+     * @throws IllegalStateException 没有连接到远程服务
+     */
+    public Parcel beginCall(String service, int method) {
+        if (mBinder == null) {
+            awaitConnected(service);
+        }
+        return begin(service, method);
+    }
+
+    /**
+     * 结束同步调用 , 将当前批次与该调用一起发送 , 等待返回值
+     * @return 返回值 , 由生成的代理读取后回收
+     * @throws IllegalStateException 远程服务调用失败
+     */
+    public Parcel call() {
+        IBinder binder;
+        Parcel batch;
+        int callCount;
+        try {
+            binder = mBinder;
+            if (binder == null) {
+                // 连接断开 , 只放弃同步调用 , 之前的单向调用继续暂存 , 重新连接后发送
+                rollbackCall();
+                throw new IllegalStateException("远程服务连接断开 , 同步调用没有执行");
+            }
+            callCount = mCallCount + 1;
+            batch = takeBatch();
+        } finally {
+            mBatchLock.unlock();
+        }
+
+        // 在锁外发送 , 不阻塞其它线程写入调用 , RemoteServiceHost 按照批次序号执行
+        Parcel reply = Parcel.obtain();
+        try {
+            transact(binder, batch, reply, 0);
+        } catch (RemoteException e) {
+            reply.recycle();
+            throw new IllegalStateException("远程服务调用失败 , " + callCount + " 个调用没有执行", e);
+        } finally {
+            batch.recycle();
+        }
+
+        if (reply.readInt() != STATUS_OK) {
+            String message = reply.readString();
+            reply.recycle();
+            throw new IllegalStateException("远程服务调用失败 : " + message);
+        }
+        return reply;
+    }
+
+    /**
+     * 放弃正在写入的调用 , 代替 send / call 结束该调用 , 生成的代理写入参数抛出异常时调用
+     * 批次回退到该调用开始之前的位置 , 批次中之前的调用不受影响
+     */
+    public void abortCall() {
+        try {
+            rollbackCall();
+        } finally {
+            mBatchLock.unlock();
+        }
+    }
+
+    /**
+     * 立即发送当前批次中的单向调用 , 没有连接时继续暂存
+     */
+    public void flush() {
+        IBinder binder;
+        Parcel batch;
+        int callCount;
+        mBatchLock.lock();
+        try {
+            binder = mBinder;
+            if (binder == null || mBatch == null) {
+                return;
+            }
+            callCount = mCallCount;
+            batch = takeBatch();
+            // 在锁中取消延迟发送 , 释放锁之后写入新批次的第一个调用设置的延迟发送不会被取消
+            mFlushHandler.removeCallbacks(mFlushRunnable);
+        } finally {
+            mBatchLock.unlock();
+        }
+        try {
+            transact(binder, batch, null, IBinder.FLAG_ONEWAY);
+        } catch (RemoteException e) {
+            Log.e(TAG, "flush : 远程服务调用失败 , 丢弃 " + callCount + " 个单向调用", e);
+        } finally {
+            batch.recycle();
+        }
+    }
+
+    /**
+     * 从批次中移除正在写入的调用 , 回退到该调用开始之前的位置 , 调用前需要持有 mBatchLock
+     * 批次中没有其它调用时回收批次 , 不发送空批次
+     */
+    private void rollbackCall() {
+        if (mCallCount == 0) {
+            mBatch.recycle();
+            mBatch = null;
+            return;
+        }
+        mBatch.setDataSize(mCallPosition);
+        mBatch.setDataPosition(mCallPosition);
+    }
+
+    /**
+     * 取出当前批次并写入通道 ID 和批次序号 , 调用前需要持有 mBatchLock
+     * 批次序号在取出时分配 , 与取出的顺序一致 , 发送时不需要再持有锁
+     * @return 取出的批次 , 由调用方发送后回收
+     */
+    private Parcel takeBatch() {
+        Parcel batch = mBatch;
+        int end = batch.dataPosition();
+        batch.setDataPosition(mHeaderPosition);
+        batch.writeLong(mChannelId);
+        batch.writeLong(mSequence++);
+        batch.setDataPosition(end);
+        mBatch = null;
+        mCallCount = 0;
+        return batch;
+    }
+
+    /**
+     * 发送批次 , 不持有任何锁 , 多个线程同时发送时由 RemoteServiceHost 按照批次序号执行
+     */
+    private void transact(IBinder binder, Parcel batch, Parcel reply, int flags) throws RemoteException {
+        binder.transact(TRANSACTION_BATCH, batch, reply, flags);
+        mTransactionCount.incrementAndGet();
+    }
+
+    /**
+     * 等待连接到远程服务
+     * @param service 接口类名 , 用于异常信息
+     */
+    private void awaitConnected(String service) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("远程服务尚未连接 , 主线程中不能同步调用 " + service);
+        }
+        try {
+            if (mConnected.await(mConnectTimeout, TimeUnit.MILLISECONDS) && mBinder != null) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("等待远程服务连接超时 " + mConnectTimeout + " ms : " + service);
+    }
+}
@@ -0,0 +1,120 @@
+package kim.hsl.route_core;
+
+import android.app.Service;
+import android.content.Intent;
+import android.os.Binder;
+import android.os.IBinder;
+import android.os.Parcel;
+import android.os.RemoteException;
+import android.util.Log;
+
+import kim.hsl.route_core.template.IService;
+
+/**
+ * 跨进程服务的宿主 , @Route(remote = true) 注解的服务在该 Service 所在的进程中执行
+ *
+ * 默认运行在主进程中 , 其它进程通过 Router.remoteService(接口) 获取代理调用服务 ;
+ * 服务需要运行在其它进程时 , 在应用的 AndroidManifest.xml 中修改该 Service 的进程 :
+ * <service
+ *     android:name="kim.hsl.route_core.RemoteServiceHost"
+ *     android:process=":remote"
+ *     tools:replace="android:process" />
+ */
+public class RemoteServiceHost extends Service {
+
+    private final Dispatcher mDispatcher = new Dispatcher();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // RouterInitProvider 只在主进程中初始化 , 服务运行在其它进程时在这里初始化
+        Router.initAsync(getApplication());
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return mDispatcher;
+    }
+
+    /**
+     * 执行 RemoteChannel 发送的批次 , 按照顺序读取每个调用 , 调用本进程中的服务
+     *
+     * 同一通道的批次由 BatchSequencer 按照批次序号依次执行 , 序号不连续 ( 如调用方发送失败 ) 时最多等待 ORDER_TIMEOUT 毫秒 ;
+     * 单向调用的异常只打印日志 , 不影响批次中的其它调用 ;
+     * 同步调用是批次中的最后一个调用 , 其异常信息写入返回值 , 调用方抛出 IllegalStateException
+     */
+    static final class Dispatcher extends Binder {
+        private static final String TAG = "RemoteServiceHost";
+
+        /**
+         * 等待之前的批次的最长时间 , 单位毫秒
+         */
+        private static final long ORDER_TIMEOUT = 1000;
+
+        /**
+         * 每个通道的批次顺序
+         */
+        private final BatchSequencer mSequencer = new BatchSequencer(ORDER_TIMEOUT);
+
+        @Override
+        protected boolean onTransact(int code, Parcel data, Parcel reply, int flags) throws RemoteException {
+            if (code != RemoteChannel.TRANSACTION_BATCH) {
+                return super.onTransact(code, data, reply, flags);
+            }
+            data.enforceInterface(RemoteChannel.DESCRIPTOR);
+            long channelId = data.readLong();
+            long sequence = data.readLong();
+            if (!mSequencer.awaitTurn(channelId, sequence)) {
+                Log.w(TAG, "onTransact : 等待批次 " + mSequencer.nextSequence(channelId) + " 超时 , 执行批次 " + sequence);
+            }
+            try {
+                execute(data, reply, (flags & FLAG_ONEWAY) != 0);
+            } finally {
+                mSequencer.finishTurn(channelId, sequence);
+            }
+            return true;
+        }
+
+        /**
+         * 依次执行批次中的调用
+         * @param data 批次
+         * @param reply 返回值
+         * @param oneway 是否是单向事务
+         */
+        private void execute(Parcel data, Parcel reply, boolean oneway) {
+            if (!oneway) {
+                reply.writeInt(RemoteChannel.STATUS_OK);
+            }
+            while (data.dataAvail() > 0) {
+                String name = data.readString();
+                int method = data.readInt();
+                // 调用 @Route(remote = true) 注解的实现类 , 而不是该接口优先级最高的实现
+                Warehouse.RemoteEntry entry = Router.getRemoteEntry(name);
+                IService service = entry == null ? null : Router.getService(entry.implementation);
+                if (service == null) {
+                    // 无法读取该调用的参数 , 之后的调用也无法执行
+                    Log.e(TAG, "onTransact : 没有找到远程服务的实现 " + name + " , 丢弃批次中剩余的调用");
+                    if (!oneway) {
+                        writeError(reply, "没有找到远程服务的实现 " + name);
+                    }
+                    return;
+                }
+                try {
+                    entry.remoteIndex.invoke(entry.id, service, method, data, oneway ? null : reply);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "onTransact : 远程服务调用失败 " + name + " , 方法 ID " + method, e);
+                    if (!oneway && data.dataAvail() == 0) {
+                        writeError(reply, e.toString());
+                    }
+                }
+            }
+        }
+
+        private static void writeError(Parcel reply, String message) {
+            reply.setDataSize(0);
+            reply.setDataPosition(0);
+            reply.writeInt(RemoteChannel.STATUS_ERROR);
+            reply.writeString(message);
+        }
+    }
+}
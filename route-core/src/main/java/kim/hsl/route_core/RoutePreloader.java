@@ -0,0 +1,402 @@
+package kim.hsl.route_core;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kim.hsl.route_core.template.IRouteIndex;
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 路由预加载
+ *
+ * 第一次跳转到某个界面时 , 路由分组的 loadInto 以及目标 Activity 类的加载 , 校验 , 初始化
+ * 都在跳转的关键路径上 , 预加载在主线程空闲时 , 提前在低优先级线程中完成这些工作
+ *
+ * 预加载的路由来源 :
+ * 1. @Route(preload = true) 注解的路由 , 初始化完成后预加载 , 按照 priority 从大到小排列
+ * 2. 根据历史跳转记录学习到的跳转频率 , 每次跳转后预加载从当前界面最可能跳转到的界面
+ *
+ * 预加载有时间和内存预算 , 每次跳转都会取消正在执行的预加载 , 可用内存不足时停止预加载
+ */
+final class RoutePreloader {
+    private static final String TAG = "RoutePreloader";
+
+    /**
+     * 跳转频率缓存文件名称
+     */
+    private static final String SP_NAME = "kim.hsl.router.preload";
+    private static final String KEY_TRANSITIONS = "transitions";
+
+    /**
+     * 每次预加载的时间预算 , 单位毫秒
+     */
+    private static final long TIME_BUDGET = 50;
+
+    /**
+     * 每次预加载的最大路由个数
+     */
+    private static final int MAX_ROUTES_PER_PASS = 8;
+
+    /**
+     * 每次跳转后预加载的最可能跳转的界面个数
+     */
+    private static final int MAX_PREDICTIONS = 3;
+
+    /**
+     * 最多记录的起始界面个数 , 超出时淘汰最久没有跳转的界面
+     */
+    private static final int MAX_SOURCES = 64;
+
+    /**
+     * 单个跳转次数达到该值时 , 该起始界面的所有跳转次数减半 , 使较新的跳转习惯占更大的权重
+     */
+    private static final int MAX_COUNT = 1024;
+
+    /**
+     * 剩余可用内存低于最大内存的该比例时 , 不进行预加载
+     */
+    private static final float MIN_FREE_MEMORY_RATIO = 0.25f;
+
+    private static final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 预加载线程池 , 单个低优先级线程 , 最多只保留一个等待执行的任务 , 新任务替换旧任务
+     */
+    private static final ThreadPoolExecutor mExecutor = newExecutor();
+
+    /**
+     * 跳转频率
+     * 键 ( Key ) : 起始路由地址 , 值 ( Value ) : 目标路由地址 -> 跳转次数
+     * 按照访问顺序排列 , 用于淘汰最久没有跳转的界面
+     */
+    private static final LinkedHashMap<String, Map<String, Integer>> mTransitions =
+            new LinkedHashMap<String, Map<String, Integer>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Integer>> eldest) {
+                    return size() > MAX_SOURCES;
+                }
+            };
+
+    /**
+     * 已经预加载过的路由地址 , 不重复预加载
+     */
+    private static final Set<String> mPreloaded = new HashSet<>();
+
+    /**
+     * 预加载任务代数 , 每次跳转时加一 , 正在执行的旧任务发现代数变化后立即停止
+     */
+    private static final AtomicInteger mGeneration = new AtomicInteger();
+
+    private static volatile boolean mEnabled = true;
+
+    private static Context mContext;
+
+    /**
+     * 上一次跳转的目标路由地址 , 作为下一次跳转的起始界面
+     */
+    private static String mLastPath;
+
+    /**
+     * 还没有合并到跳转频率中的跳转记录 { 起始路由地址 , 目标路由地址 }
+     */
+    private static final List<String[]> mPendingTransitions = new ArrayList<>();
+
+    private static boolean mTransitionsLoaded;
+
+    private static boolean mTransitionsDirty;
+
+    private RoutePreloader() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+        if (!enabled) {
+            cancel();
+        }
+    }
+
+    /**
+     * 路由表初始化完成 , 主线程空闲时预加载 @Route(preload = true) 注解的路由
+     */
+    static void start(Context context) {
+        mContext = context;
+        if (!mEnabled) {
+            return;
+        }
+        scheduleOnIdle(new Runnable() {
+            @Override
+            public void run() {
+                List<String> paths = new ArrayList<>();
+                addPreloads(Warehouse.routeIndexes, paths);
+                // 被二进制路由表替代的索引不再用于查找 , 但预加载路由仍然来自索引
+                addPreloads(Warehouse.tableIndexes, paths);
+                preload(paths, mGeneration.get());
+            }
+        });
+    }
+
+    /**
+     * 将路由索引中 @Route(preload = true) 注解的路由地址添加到 paths 中
+     */
+    private static void addPreloads(List<IRouteIndex> routeIndexes, List<String> paths) {
+        for (IRouteIndex routeIndex : routeIndexes) {
+            String[] routePaths = routeIndex.paths();
+            for (int id : routeIndex.preloads()) {
+                paths.add(routePaths[id]);
+            }
+        }
+    }
+
+    /**
+     * 跳转到 path 对应的界面时调用
+     * 记录跳转频率 , 取消正在执行的预加载 , 主线程空闲时预加载从该界面最可能跳转到的界面
+     */
+    static void onNavigation(final String path) {
+        cancel();
+        if (!mEnabled) {
+            return;
+        }
+        synchronized (RoutePreloader.class) {
+            // 先记录到待处理列表中 , 由预加载线程合并到跳转频率中 , 主线程不读写本地文件
+            if (mLastPath != null) {
+                mPendingTransitions.add(new String[]{mLastPath, path});
+            }
+            mLastPath = path;
+        }
+        final int generation = mGeneration.get();
+        scheduleOnIdle(new Runnable() {
+            @Override
+            public void run() {
+                loadTransitions();
+                drainPendingTransitions();
+                preload(predict(path), generation);
+                saveTransitions();
+            }
+        });
+    }
+
+    /**
+     * 取消正在执行和等待执行的预加载
+     */
+    static void cancel() {
+        mGeneration.incrementAndGet();
+        mExecutor.getQueue().clear();
+    }
+
+    /**
+     * 主线程空闲时 , 将任务提交到预加载线程中执行
+     */
+    private static void scheduleOnIdle(final Runnable task) {
+        final int generation = mGeneration.get();
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Looper.myQueue 必须在主线程中调用
+                Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                    @Override
+                    public boolean queueIdle() {
+                        if (generation == mGeneration.get()) {
+                            mExecutor.execute(task);
+                        }
+                        // 只执行一次
+                        return false;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 预加载路由 , 在预加载线程中执行
+     * 超出时间预算 , 可用内存不足 , 或有新的跳转时停止
+     */
+    private static void preload(List<String> paths, int generation) {
+        long deadline = SystemClock.uptimeMillis() + TIME_BUDGET;
+        int count = 0;
+        for (String path : paths) {
+            if (generation != mGeneration.get()) {
+                Log.i(TAG, "preload : 有新的跳转 , 取消预加载");
+                return;
+            }
+            if (count >= MAX_ROUTES_PER_PASS || SystemClock.uptimeMillis() > deadline) {
+                Log.i(TAG, "preload : 超出预加载预算 , 已预加载 " + count + " 个路由");
+                return;
+            }
+            if (isLowMemory()) {
+                Log.i(TAG, "preload : 可用内存不足 , 停止预加载");
+                return;
+            }
+            synchronized (RoutePreloader.class) {
+                if (!mPreloaded.add(path)) {
+                    continue;
+                }
+            }
+            preloadRoute(path);
+            count++;
+        }
+    }
+
+    /**
+     * 预加载单个路由 : 加载路由所在的分组 , 加载并初始化目标类
+     */
+    private static void preloadRoute(String path) {
+        RouteMeta routeMeta = Router.findRoute(path, Router.extractGroup(path));
+        if (routeMeta == null || routeMeta.getClazz() == null) {
+            return;
+        }
+        try {
+            // 初始化目标类 , 提前完成类的校验和静态初始化
+            Class.forName(routeMeta.getClazz().getName(), true, routeMeta.getClazz().getClassLoader());
+            Log.i(TAG, "preloadRoute : 预加载路由 " + path);
+        } catch (Throwable e) {
+            Log.w(TAG, "preloadRoute : 预加载路由失败 " + path, e);
+        }
+    }
+
+    private static boolean isLowMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return free < runtime.maxMemory() * MIN_FREE_MEMORY_RATIO;
+    }
+
+    /**
+     * 预测从 path 对应的界面最可能跳转到的界面 , 按照跳转次数从大到小排列
+     */
+    private static synchronized List<String> predict(String path) {
+        List<String> predictions = new ArrayList<>();
+        Map<String, Integer> targets = mTransitions.get(path);
+        if (targets == null) {
+            return predictions;
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(targets.entrySet());
+        // 跳转目标很少 , 选择排序取前几个即可
+        for (int i = 0; i < entries.size() && i < MAX_PREDICTIONS; i++) {
+            int max = i;
+            for (int j = i + 1; j < entries.size(); j++) {
+                if (entries.get(j).getValue() > entries.get(max).getValue()) {
+                    max = j;
+                }
+            }
+            Map.Entry<String, Integer> entry = entries.get(max);
+            entries.set(max, entries.get(i));
+            entries.set(i, entry);
+            predictions.add(entry.getKey());
+        }
+        return predictions;
+    }
+
+    private static synchronized void drainPendingTransitions() {
+        for (String[] transition : mPendingTransitions) {
+            recordTransition(transition[0], transition[1]);
+        }
+        mPendingTransitions.clear();
+    }
+
+    private static synchronized void recordTransition(String from, String to) {
+        Map<String, Integer> targets = mTransitions.get(from);
+        if (targets == null) {
+            targets = new HashMap<>();
+            mTransitions.put(from, targets);
+        }
+        Integer count = targets.get(to);
+        int newCount = count == null ? 1 : count + 1;
+        targets.put(to, newCount);
+        if (newCount >= MAX_COUNT) {
+            // 跳转次数减半 , 次数减为 0 的跳转被移除
+            for (Map.Entry<String, Integer> entry : new ArrayList<>(targets.entrySet())) {
+                int halved = entry.getValue() / 2;
+                if (halved == 0) {
+                    targets.remove(entry.getKey());
+                } else {
+                    entry.setValue(halved);
+                }
+            }
+        }
+        mTransitionsDirty = true;
+    }
+
+    /**
+     * 读取本地保存的跳转频率 , 每条记录的格式为 "起始路由地址 \t 目标路由地址 \t 跳转次数"
+     */
+    private static synchronized void loadTransitions() {
+        if (mTransitionsLoaded || mContext == null) {
+            return;
+        }
+        mTransitionsLoaded = true;
+        Set<String> records = getSharedPreferences().getStringSet(KEY_TRANSITIONS, null);
+        if (records == null) {
+            return;
+        }
+        for (String record : records) {
+            String[] fields = record.split("\t");
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                Map<String, Integer> targets = mTransitions.get(fields[0]);
+                if (targets == null) {
+                    targets = new HashMap<>();
+                    mTransitions.put(fields[0], targets);
+                }
+                targets.put(fields[1], Integer.parseInt(fields[2]));
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "loadTransitions : 跳转记录格式错误 " + record);
+            }
+        }
+    }
+
+    private static synchronized void saveTransitions() {
+        if (!mTransitionsDirty || mContext == null) {
+            return;
+        }
+        mTransitionsDirty = false;
+        Set<String> records = new HashSet<>();
+        for (Map.Entry<String, Map<String, Integer>> source : mTransitions.entrySet()) {
+            for (Map.Entry<String, Integer> target : source.getValue().entrySet()) {
+                records.add(source.getKey() + "\t" + target.getKey() + "\t" + target.getValue());
+            }
+        }
+        getSharedPreferences().edit().putStringSet(KEY_TRANSITIONS, records).apply();
+    }
+
+    private static SharedPreferences getSharedPreferences() {
+        return mContext.getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(1), new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+                        runnable.run();
+                    }
+                }, "Router-preload");
+            }
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
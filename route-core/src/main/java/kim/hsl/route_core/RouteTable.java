@@ -0,0 +1,217 @@
+package kim.hsl.route_core;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+
+/**
+ * 模块的二进制路由表 , 由注解处理器写出到 assets/router/模块名.rtab 中 , 格式见 RouteTableFormat
+ *
+ * 初始化时在注册生成的路由类之前 , 将各模块的路由表映射到内存 , 该模块的 Router_Index_ 不再用于查找 ;
+ * 查找路由时直接在路由表上二分查找 , 命中后才加载目标类并创建 RouteMeta , 不需要加载整个分组的 Router_Group_ 类
+ *
+ * 路由表不存在 , 版本不一致时 , 使用生成的 Router_Index_ 查找 ;
+ * 目标类无法加载 ( 如被混淆 ) 时 , 回退到生成的 Router_Root_ / Router_Group_ 类
+ */
+final class RouteTable {
+
+    private static final String TAG = "RouteTable";
+
+    /**
+     * 模块名
+     */
+    private final String mModuleName;
+
+    /**
+     * 路由表内容 , 只使用绝对位置读取 , 多个线程共享
+     */
+    private final ByteBuffer mTable;
+
+    /**
+     * 是否包括所有模块的路由 , 如多进程共享的路由表
+     */
+    private final boolean mAllModules;
+
+    RouteTable(String moduleName, ByteBuffer table) throws IOException {
+        this(moduleName, table, false);
+    }
+
+    RouteTable(String moduleName, ByteBuffer table, boolean allModules) throws IOException {
+        if (!RouteTableFormat.isValid(table)) {
+            throw new IOException("路由表格式错误 : " + moduleName);
+        }
+        this.mModuleName = moduleName;
+        this.mTable = table;
+        this.mAllModules = allModules;
+    }
+
+    /**
+     * 加载 assets/router 目录下所有模块的路由表
+     * @param context 上下文
+     * @return 路由表 , 没有路由表时返回空列表
+     */
+    static List<RouteTable> loadAll(Context context) {
+        List<RouteTable> tables = new ArrayList<>();
+        AssetManager assets = context.getAssets();
+        String[] names;
+        try {
+            names = assets.list(RouteTableFormat.ASSET_DIR);
+        } catch (IOException e) {
+            return tables;
+        }
+        if (names == null) {
+            return tables;
+        }
+        // 按照模块名排序 , 保证多个模块的查找顺序固定
+        Arrays.sort(names);
+        for (String name : names) {
+            if (!name.endsWith(RouteTableFormat.ASSET_SUFFIX)) {
+                continue;
+            }
+            String moduleName = name.substring(0, name.length() - RouteTableFormat.ASSET_SUFFIX.length());
+            try {
+                tables.add(new RouteTable(moduleName, open(assets, RouteTableFormat.assetPath(moduleName))));
+            } catch (IOException e) {
+                Log.w(TAG, "loadAll : 加载路由表失败 " + name + " , 使用生成的路由类", e);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 打开路由表
+     *
+     * 路由表在 APK 中没有压缩时 , 通过 openFd 得到其在 APK 文件中的偏移 , 直接映射到内存 ;
+     * 压缩时 openFd 抛出异常 , 回退到一次性读取到内存中
+     *
+     * @param assets AssetManager
+     * @param assetPath 路由表在 assets 中的路径
+     * @return 路由表内容
+     */
+    private static ByteBuffer open(AssetManager assets, String assetPath) throws IOException {
+        try {
+            AssetFileDescriptor fd = assets.openFd(assetPath);
+            FileInputStream in;
+            try {
+                in = fd.createInputStream();
+            } catch (IOException e) {
+                fd.close();
+                throw e;
+            }
+            // 关闭输入流时会同时关闭 fd , 不能再调用 fd.close() , 否则同一个文件描述符会被关闭两次
+            try {
+                // 映射后即使关闭文件 , 映射的内存依然有效
+                return in.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            // 资源被压缩 , 无法直接映射
+        }
+
+        InputStream in = assets.open(assetPath, AssetManager.ACCESS_BUFFER);
+        try {
+            return read(in, in.available());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 读取整个路由表
+     * @param in 输入流
+     * @param sizeHint 预计的长度 , 长度正确时只需要一次读取
+     * @return 路由表内容
+     */
+    static ByteBuffer read(InputStream in, int sizeHint) throws IOException {
+        byte[] bytes = new byte[Math.max(sizeHint, RouteTableFormat.HEADER_SIZE)];
+        int length = 0;
+        while (true) {
+            int count = in.read(bytes, length, bytes.length - length);
+            if (count < 0) {
+                break;
+            }
+            length += count;
+            if (length == bytes.length) {
+                // 缓冲区已满 , 先读取一个字节确认是否已经读完 , 长度正确时不需要扩容
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                bytes[length++] = (byte) next;
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, length).slice();
+    }
+
+    /**
+     * 模块名
+     */
+    String getModuleName() {
+        return mModuleName;
+    }
+
+    /**
+     * 是否包括指定模块的全部路由 , 包括时该模块的 Router_Index_ 不再用于查找
+     * @param moduleName 模块名 , 未知时为 null
+     */
+    boolean covers(String moduleName) {
+        return mAllModules || mModuleName.equals(moduleName);
+    }
+
+    /**
+     * 路由个数
+     */
+    int routeCount() {
+        return RouteTableFormat.routeCount(mTable);
+    }
+
+    /**
+     * 查找路由
+     * @param path 路由地址的 UTF-8 编码
+     * @param group 路由分组的 UTF-8 编码
+     * @return 路由序号 , 没有找到返回 -1
+     */
+    int find(byte[] path, byte[] group) {
+        return RouteTableFormat.find(mTable, group, path);
+    }
+
+    /**
+     * 根据路由序号创建路由信息 , 加载目标类但不初始化
+     * @param route 路由序号
+     * @param path 路由地址
+     * @param group 路由分组
+     * @return 路由信息 , 目标类无法加载时返回 null
+     */
+    RouteMeta createRoute(int route, String path, String group) {
+        String className = RouteTableFormat.className(mTable, route);
+        int type = RouteTableFormat.type(mTable, route);
+        if (type != RouteMeta.TYPE_ACTIVITY && type != RouteMeta.TYPE_SERVICE
+                && type != RouteMeta.TYPE_FRAGMENT) {
+            return null;
+        }
+        try {
+            Class<?> clazz = Class.forName(className, false, RouteTable.class.getClassLoader());
+            // 分组名来自查找参数 , 使用常量池中的字符串 , 与生成代码创建的路由共享
+            return new RouteMeta(type, clazz, path, group.intern());
+        } catch (ClassNotFoundException e) {
+            Log.w(TAG, "createRoute : 路由表 " + mModuleName + " 中的类 " + className
+                    + " 不存在 , 可能已被混淆 , 使用生成的路由类");
+            return null;
+        }
+    }
+}
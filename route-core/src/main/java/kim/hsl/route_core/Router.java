@@ -1,29 +1,90 @@
 package kim.hsl.route_core;
 
+import android.app.Activity;
 import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
 import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
+import android.net.Uri;
 import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
+import android.util.LruCache;
 
+import androidx.fragment.app.Fragment;
+
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import dalvik.system.DexFile;
+import kim.hsl.route_core.callback.InterceptorCallback;
+import kim.hsl.route_core.callback.NavigationCallback;
+import kim.hsl.route_core.template.IExtra;
+import kim.hsl.route_core.template.IExtraRoot;
+import kim.hsl.route_core.template.IInterceptorRoot;
+import kim.hsl.route_core.template.IRemoteIndex;
+import kim.hsl.route_core.template.IRouteFactory;
 import kim.hsl.route_core.template.IRouteGroup;
+import kim.hsl.route_core.template.IRouteIndex;
+import kim.hsl.route_core.template.IRouteMatcher;
 import kim.hsl.route_core.template.IRouteRoot;
+import kim.hsl.route_core.template.IService;
+import kim.hsl.route_core.template.IServiceIndex;
+import kim.hsl.route_core.template.IUriConverter;
+import kim.hsl.route_core.utils.ClassUtils;
+import kim.hsl.route_core.utils.RouteIndexCache;
+import kim.hsl.route_core.utils.RouterMetrics;
+import kim.hsl.route_core.utils.UriParser;
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteHash;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+import kim.hsl.router_annotation.utils.RouteTrie;
 
 public class Router {
     private static final String TAG = "Router";
 
+    /**
+     * 最小完美哈希路由索引的类名前缀 , 后缀为模块名 , 与模块的二进制路由表文件名相同
+     */
+    private static final String ROUTE_INDEX_PREFIX = "kim.hsl.router.Router_Index_";
+
+    /**
+     * 初始化时需要注册的路由类的类名前缀
+     * Router_Root_ : 路由分组表 , Router_Index_ : 最小完美哈希路由索引 ,
+     * Router_Factory_ : 对象工厂 , Router_Extra_ : 参数注入器注册表 ,
+     * Router_Interceptors_ : 拦截器注册表 , Router_Matcher_ : 带参数 / 通配符的路由地址匹配树 ,
+     * Router_Services_ : 服务接口索引 , Router_Remote_ : 跨进程服务代理
+     */
+    private static final String[] REGISTER_CLASS_PREFIXES = {
+            "kim.hsl.router.Router_Root_",
+            ROUTE_INDEX_PREFIX,
+            "kim.hsl.router.Router_Factory_",
+            "kim.hsl.router.Router_Extra_",
+            "kim.hsl.router.Router_Interceptors_",
+            "kim.hsl.router.Router_Matcher_",
+            "kim.hsl.router.Router_Services_",
+            "kim.hsl.router.Router_Remote_"
+    };
+
     /**
      * 上下文
      */
@@ -32,107 +93,1266 @@ public class Router {
     /**
      * 单例类
      */
-    private static Router instance;
+    private static volatile Router instance;
+
+    /**
+     * 是否已经通过 router-register 插件在编译时注册了路由表
+     */
+    private static boolean registerByPlugin;
+
+    /**
+     * 扫描 DEX 文件的超时时间 , 单位毫秒
+     */
+    private static long mScanTimeout = 10 * 1000;
+
+    /**
+     * 是否已经开始初始化
+     */
+    private static final AtomicBoolean mInitStarted = new AtomicBoolean(false);
+
+    /**
+     * 初始化完成门闩 , 初始化完成后打开
+     */
+    private static final CountDownLatch mReadyLatch = new CountDownLatch(1);
+
+    /**
+     * 路由跳转等待初始化完成的最长时间 , 单位毫秒
+     */
+    private static long mInitTimeout = 3 * 1000;
+
+    /**
+     * 拦截器链的默认超时时间 , 单位毫秒
+     */
+    private static long mInterceptorTimeout = 3 * 1000;
+
+    /**
+     * 参数注入器缓存 , 最多缓存 64 个类的注入器
+     */
+    private static final LruCache<Class<?>, IExtra> mExtraCache = new LruCache<>(64);
+
+    /**
+     * 没有 @Extra 注解的类使用该空注入器 , 避免重复查找
+     */
+    private static final IExtra NO_EXTRA = new IExtra() {
+        @Override
+        public void loadExtra(Object target) {
+        }
+    };
+
+    /**
+     * 跨进程服务调用的批次大小 , 批次中的单向调用个数达到该值时立即发送
+     */
+    private static int mRemoteFlushSize = 32;
+
+    /**
+     * 跨进程服务调用的批次延迟 , 批次中第一个单向调用写入后最多等待的时间 , 单位毫秒
+     */
+    private static long mRemoteFlushLatency = 4;
+
+    /**
+     * 跨进程服务调用通道 , 第一次获取跨进程服务时创建并连接
+     */
+    private static volatile RemoteChannel mRemoteChannel;
+
+    /**
+     * AndroidManifest.xml 中 application 节点下的 meta-data , 不需要初始化路由表的进程名 , 多个进程使用逗号分隔 ,
+     * 以 ":" 开头的进程名表示包名后加该后缀的私有进程 , 如 ":push,:player"
+     */
+    private static final String META_EXCLUDED_PROCESSES = "kim.hsl.router.EXCLUDED_PROCESSES";
+
+    /**
+     * AndroidManifest.xml 中 application 节点下的 meta-data , 设置为 false 时不使用多进程共享路由表
+     */
+    private static final String META_SHARED_TABLE = "kim.hsl.router.SHARED_TABLE";
+
+    /**
+     * 是否使用多进程共享路由表 , 默认使用
+     */
+    private static boolean mSharedTableEnabled = true;
+
+    /**
+     * 应用信息 , 包括 meta-data
+     */
+    private static ApplicationInfo mApplicationInfo;
+
+    /**
+     * 路由类索引的缓存版本 , 同时是共享路由表的版本
+     */
+    private static String mIndexVersion;
+
+    /**
+     * 所有 DEX 容器路径
+     */
+    private static List<String> mSourcePaths;
+
+    /**
+     * 本次初始化注册的路由类名 , 扫描 DEX 文件超时时为 null , 不写出共享路由表
+     */
+    private static Collection<String> mRouteClassNames;
+
+    /**
+     * 主线程 Handler , 用于在主线程中启动 Activity
+     */
+    private static final Handler mHandler = new Handler(Looper.getMainLooper());
 
     private Router() {
     }
 
     /**
-     * 初始化路由表
+     * 获取单例对象
+     * @return
+     */
+    public static Router getInstance() {
+        if (instance == null) {
+            synchronized (Router.class) {
+                if (instance == null) {
+                    instance = new Router();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 初始化路由表 , 在调用线程中同步执行
+     * 如果已经开始初始化 ( 如 initAsync 或自动初始化 ) , 则等待初始化完成
      * @param application
      */
     public static void init(Application application) {
+        if (!mInitStarted.compareAndSet(false, true)) {
+            awaitReady();
+            return;
+        }
+        doInit(application);
+    }
+
+    /**
+     * 在后台线程中初始化路由表 , 不阻塞调用线程
+     * 初始化完成之前发起的路由跳转 , 会等待初始化完成 , 最多等待 setInitTimeout 设置的时间
+     * @param application
+     */
+    public static void initAsync(final Application application) {
+        if (!mInitStarted.compareAndSet(false, true)) {
+            return;
+        }
         mContext = application;
-        loadInfo();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                doInit(application);
+            }
+        }, "Router-init").start();
     }
 
     /**
-     * 加载 分组 路由表 数据
-     * 每个分组对应一个路由表
+     * 执行初始化 , 完成后打开就绪门闩
      */
-    private static void loadInfo(){
-        /*
-            获取程序的所有 APK 安装文件
-         */
-        ApplicationInfo applicationInfo = null;
+    private static void doInit(Application application) {
+        long start = System.nanoTime();
+        SharedRouteTable sharedTable = null;
+        Map<String, Class<? extends IRouteGroup>> groups = null;
         try {
-            applicationInfo = mContext.getPackageManager().getApplicationInfo(mContext
-                    .getPackageName(), 0);
-        } catch (PackageManager.NameNotFoundException e) {
-            e.printStackTrace();
-        }
+            mContext = application;
 
-        // 使用集合存放应用安装的 APK 文件
-        List<String> sourcePaths = new ArrayList<>();
+            Bundle metaData = getApplicationInfo().metaData;
+            if (isProcessExcluded(metaData)) {
+                // 该进程不使用路由 , 跳过初始化 , 在该进程中跳转会回调 onLost
+                Log.i(TAG, "init : 进程 " + getProcessName() + " 不需要初始化路由表");
+                return;
+            }
+            if (metaData != null && !metaData.getBoolean(META_SHARED_TABLE, true)) {
+                mSharedTableEnabled = false;
+            }
 
-        // 一般情况下 , 一个应用只有一个安装 APK
-        sourcePaths.add(applicationInfo.sourceDir);
+            // 映射其它进程已经写出的共享路由表
+            if (mSharedTableEnabled) {
+                sharedTable = loadSharedTable(application);
+            }
+
+            // 先加载二进制路由表 , 注册路由索引时 , 已经有路由表的模块不再探测其路由索引
+            if (sharedTable != null) {
+                // 共享路由表中已经包括所有模块的路由 , 不再加载各模块的二进制路由表 , 也不再探测各模块的路由索引
+                Warehouse.routeTables.add(sharedTable.getRouteTable());
+            } else {
+                // 加载各模块的二进制路由表 , 查找路由时不再需要加载分组类
+                loadRouteTables(application);
+            }
+
+            // 优先加载 router-register 插件在编译时注入的路由表
+            loadRouterMap();
 
-        // 如果是 instant run 形式安装的 , 则有多个 APK 文件
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            if (null != applicationInfo.splitSourceDirs) {
-                sourcePaths.addAll(Arrays.asList(applicationInfo.splitSourceDirs));
+            if (registerByPlugin) {
+                Log.i(TAG, "init : 已通过 router-register 插件加载路由表");
+                mRouteClassNames = Collections.emptyList();
+            } else if (sharedTable != null) {
+                // 直接使用共享路由表中的路由类名 , 不再扫描 DEX 文件
+                mRouteClassNames = sharedTable.getClassNames();
+                loadInfo(mRouteClassNames);
+            } else {
+                // 没有使用插件 , 回退到扫描 DEX 文件的方式加载路由表
+                loadInfo(getRouteClassNames());
             }
+
+            if (sharedTable == null) {
+                // 在开始跳转 ( 按需加载分组 ) 之前记录所有分组 , 用于写出共享路由表
+                groups = new HashMap<>(Warehouse.groupsIndex);
+            }
+        } finally {
+            RouterMetrics.record(RouterMetrics.INIT, start);
+            mReadyLatch.countDown();
         }
 
+        // 主线程空闲时预加载 @Route(preload = true) 注解的路由
+        RoutePreloader.start(application);
 
-        /*
-            根据获取所有 APK 下的类
-            根据 kim.hsl.router 包名, 获取该包名下的所有路由类
-         */
+        if (mSharedTableEnabled && groups != null) {
+            publishSharedTable(application, groups);
+        }
+    }
+
+    /**
+     * 映射其它进程写出的共享路由表
+     * @param application
+     * @return 共享路由表 , 不存在或版本不一致时返回 null
+     */
+    private static SharedRouteTable loadSharedTable(Application application) {
+        long start = System.nanoTime();
+        SharedRouteTable sharedTable = SharedRouteTable.open(
+                new File(application.getFilesDir(), SharedRouteTable.DIR_NAME), getIndexVersion());
+        RouterMetrics.record(RouterMetrics.INIT_SHARED_TABLE, start);
+        if (sharedTable != null) {
+            Log.i(TAG, "loadSharedTable : 使用共享路由表 , " + sharedTable.getRouteTable().routeCount() + " 个路由");
+        }
+        return sharedTable;
+    }
 
-        // 获取查找的 kim.hsl.router 包下的类 的 类名
-        Set<String> classNames = new HashSet<>();
+    /**
+     * 在后台线程中加载所有分组 , 写出共享路由表 , 之后启动的进程直接映射该路由表
+     * 其它进程正在写出时不再写出
+     *
+     * @param application
+     * @param groups 所有路由分组
+     */
+    private static void publishSharedTable(final Application application,
+                                           final Map<String, Class<? extends IRouteGroup>> groups) {
+        final Collection<String> classNames = mRouteClassNames;
+        if (classNames == null) {
+            // 扫描 DEX 文件超时 , 路由类名可能不完整
+            return;
+        }
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                boolean published = SharedRouteTable.publish(
+                        new File(application.getFilesDir(), SharedRouteTable.DIR_NAME), getIndexVersion(),
+                        classNames, new SharedRouteTable.RouteCollector() {
+                            @Override
+                            public List<RouteTableFormat.Record> collect() throws Exception {
+                                return collectRoutes(groups);
+                            }
+                        });
+                if (published) {
+                    Log.i(TAG, "publishSharedTable : 已写出共享路由表 , " + groups.size() + " 个分组");
+                }
+            }
+        }, "Router-share").start();
+    }
 
-        // 遍历所有的 APK 路径 , 查找其中的 DEX 中的类
-        for (final String path : sourcePaths) {
-            // 获取 APK 下的 dex 文件
-            DexFile dexfile = null;
+    /**
+     * 加载所有分组中的路由 , 不放入 Warehouse.routes
+     * @param groups 所有路由分组
+     * @return 所有路由
+     */
+    private static List<RouteTableFormat.Record> collectRoutes(
+            Map<String, Class<? extends IRouteGroup>> groups) throws Exception {
+        List<RouteTableFormat.Record> records = new ArrayList<>();
+        Map<String, RouteMeta> groupRoutes = new HashMap<>();
+        for (Class<? extends IRouteGroup> groupClass : groups.values()) {
+            groupRoutes.clear();
+            ((IRouteGroup) newInstance(groupClass)).loadInto(groupRoutes);
+            for (RouteMeta routeMeta : groupRoutes.values()) {
+                records.add(new RouteTableFormat.Record(routeMeta.getGroup(), routeMeta.getPath(),
+                        routeMeta.getClazz().getName(), routeMeta.getType()));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 判断当前进程是否在 meta-data 中声明了不需要初始化路由表
+     * @param metaData 应用的 meta-data
+     * @return 不需要初始化返回 true
+     */
+    private static boolean isProcessExcluded(Bundle metaData) {
+        String excluded = metaData == null ? null : metaData.getString(META_EXCLUDED_PROCESSES);
+        if (excluded == null) {
+            return false;
+        }
+        String processName = getProcessName();
+        if (processName == null) {
+            return false;
+        }
+        for (String name : excluded.split(",")) {
+            name = name.trim();
+            if (name.startsWith(":")) {
+                name = mContext.getPackageName() + name;
+            }
+            if (name.equals(processName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取当前进程名 , Android 9.0 之前读取 /proc/self/cmdline
+     * @return 进程名 , 获取失败返回 null
+     */
+    private static String getProcessName() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return Application.getProcessName();
+        }
+        try {
+            FileInputStream in = new FileInputStream("/proc/self/cmdline");
             try {
-                dexfile = new DexFile(path);
-            } catch (IOException e) {
-                e.printStackTrace();
+                byte[] bytes = new byte[256];
+                int count = Math.max(in.read(bytes), 0);
+                int length = 0;
+                // 进程名以 '\0' 结尾
+                while (length < count && bytes[length] != 0) {
+                    length++;
+                }
+                return new String(bytes, 0, length, "UTF-8").trim();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 等待初始化完成
+     * @return 初始化是否已经完成 , 没有开始初始化或等待超时返回 false
+     */
+    static boolean awaitReady() {
+        if (mReadyLatch.getCount() == 0) {
+            return true;
+        }
+        if (!mInitStarted.get()) {
+            Log.e(TAG, "awaitReady : 路由表没有初始化 , 请先调用 Router.init 或 Router.initAsync");
+            return false;
+        }
+        try {
+            if (mReadyLatch.await(mInitTimeout, TimeUnit.MILLISECONDS)) {
+                return true;
             }
+            Log.w(TAG, "awaitReady : 等待路由表初始化超时 " + mInitTimeout + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * 设置路由跳转等待初始化完成的最长时间
+     * @param timeoutMillis 超时时间 , 单位毫秒
+     */
+    public static void setInitTimeout(long timeoutMillis) {
+        mInitTimeout = timeoutMillis;
+    }
+
+    /**
+     * 设置拦截器链的默认超时时间 , 超时后中断跳转
+     * 单次跳转可以通过 Postcard.withTimeout 单独设置
+     * @param timeoutMillis 超时时间 , 单位毫秒
+     */
+    public static void setInterceptorTimeout(long timeoutMillis) {
+        mInterceptorTimeout = timeoutMillis;
+    }
+
+    /**
+     * 设置是否开启路由预加载 , 默认开启
+     * @param enabled 是否开启
+     */
+    public static void setPreloadEnabled(boolean enabled) {
+        RoutePreloader.setEnabled(enabled);
+    }
+
+    /**
+     * 设置最多缓存的 Fragment 个数 , 只缓存 @Route(cacheable = true) 注解的 Fragment , 默认 8 个
+     * @param maxSize 最多缓存的 Fragment 个数 , 为 0 时不缓存
+     */
+    public static void setFragmentCacheSize(int maxSize) {
+        Warehouse.fragments.setMaxSize(maxSize);
+    }
+
+    /**
+     * 设置跨进程服务单向调用的合并发送策略 , 需要在第一次调用 remoteService 之前调用
+     * @param flushSize 批次中的调用个数达到该值时立即发送 , 为 1 时每个调用单独发送 , 默认 32
+     * @param flushLatencyMillis 批次中第一个调用写入后最多等待的时间 , 单位毫秒 , 默认 4
+     */
+    public static void setRemoteBatch(int flushSize, long flushLatencyMillis) {
+        mRemoteFlushSize = flushSize;
+        mRemoteFlushLatency = flushLatencyMillis;
+    }
+
+    /**
+     * 设置是否使用多进程共享路由表 , 默认使用 , 需要在 init 之前调用
+     * 也可以在 AndroidManifest.xml 中设置 meta-data kim.hsl.router.SHARED_TABLE 为 false
+     * @param enabled 是否使用
+     */
+    public static void setSharedTableEnabled(boolean enabled) {
+        mSharedTableEnabled = enabled;
+    }
+
+    /**
+     * 设置扫描 DEX 文件的超时时间 , 需要在 init 之前调用
+     * @param timeoutMillis 超时时间 , 单位毫秒
+     */
+    public static void setScanTimeout(long timeoutMillis) {
+        mScanTimeout = timeoutMillis;
+    }
 
-            Enumeration<String> dexEntries = dexfile.entries();
-            // 遍历 DEX 文件中的所有的类
-            while (dexEntries.hasMoreElements()) {
-                String className = dexEntries.nextElement();
-                if (className.startsWith("kim.hsl.router")) {
-                    classNames.add(className);
+    /**
+     * 加载插件注册的路由表
+     *
+     * 该方法的方法体由 router-register 插件在编译时通过字节码插桩生成 , 插入的代码如下 :
+     * register(new kim.hsl.router.Router_Root_app());
+     * register(new kim.hsl.router.Router_Root_library2());
+     *
+     * 没有使用插件时 , 该方法什么都不做
+     */
+    private static void loadRouterMap() {
+        registerByPlugin = false;
+    }
+
+    /**
+     * 加载 assets/router 目录下各模块的二进制路由表
+     * @param application
+     */
+    private static void loadRouteTables(Application application) {
+        long start = System.nanoTime();
+        List<RouteTable> tables = RouteTable.loadAll(application);
+        Warehouse.routeTables.addAll(tables);
+        RouterMetrics.record(RouterMetrics.INIT_ROUTE_TABLE, start);
+        Log.i(TAG, "loadRouteTables : 加载了 " + tables.size() + " 个模块的二进制路由表");
+    }
+
+    /**
+     * 注册编译时生成的路由类 , 由插件插入到 loadRouterMap 方法中的代码调用
+     * @param routeObject 编译时生成的路由类对象
+     */
+    private static void register(Object routeObject) {
+        registerByPlugin = true;
+        registerRouteObject(routeObject);
+    }
+
+    /**
+     * 根据编译时生成的路由类的类型 , 将其中的路由信息装载到 Warehouse 仓库中
+     * @param routeObject 编译时生成的路由类对象
+     */
+    private static void registerRouteObject(Object routeObject) {
+        long start = System.nanoTime();
+        if (routeObject instanceof IRouteRoot) {
+            // 将 Root 表的信息装载到 Warehouse.groupsIndex 集合中
+            ((IRouteRoot) routeObject).loadInto(Warehouse.groupsIndex);
+        } else if (routeObject instanceof IRouteFactory) {
+            // 模块的对象工厂 , 之后创建路由分组 , 服务和 Fragment 时不再使用反射
+            IRouteFactory factory = (IRouteFactory) routeObject;
+            Class<?>[] classes = factory.classes();
+            for (int id = 0; id < classes.length; id++) {
+                Warehouse.factories.put(classes[id], new Warehouse.FactoryEntry(factory, id));
+            }
+            for (int id : factory.cacheable()) {
+                Warehouse.fragments.setCacheable(classes[id]);
+            }
+        } else if (routeObject instanceof IExtraRoot) {
+            // 模块的参数注入器注册表
+            IExtraRoot extraRoot = (IExtraRoot) routeObject;
+            Class<?>[] targets = extraRoot.targets();
+            for (int id = 0; id < targets.length; id++) {
+                Warehouse.extrasIndex.put(targets[id], new Warehouse.ExtraEntry(extraRoot, id));
+            }
+        } else if (routeObject instanceof IInterceptorRoot) {
+            // 模块的拦截器注册表 , 拦截器在第一次执行拦截器链时创建
+            Warehouse.interceptorRoots.add((IInterceptorRoot) routeObject);
+        } else if (routeObject instanceof IRouteMatcher) {
+            // 模块中带参数 / 通配符的路由地址匹配树
+            IRouteMatcher matcher = (IRouteMatcher) routeObject;
+            Warehouse.routeMatchers.add(new RouteTrie(matcher.nodes(), matcher.edges(),
+                    matcher.labels(), matcher.patterns()));
+        } else if (routeObject instanceof IServiceIndex) {
+            // 模块的服务接口索引 , 与其它模块中同一接口的实现按照优先级合并
+            IServiceIndex serviceIndex = (IServiceIndex) routeObject;
+            Class<?>[] interfaces = serviceIndex.interfaces();
+            for (int id = 0; id < interfaces.length; id++) {
+                Warehouse.ServiceEntry entry = new Warehouse.ServiceEntry(
+                        serviceIndex.implementations()[id], serviceIndex.priorities()[id]);
+                Warehouse.ServiceEntry existing = Warehouse.serviceIndex.get(interfaces[id]);
+                Warehouse.serviceIndex.put(interfaces[id], existing == null ? entry : existing.merge(entry));
+            }
+        } else if (routeObject instanceof IRemoteIndex) {
+            // 模块的跨进程服务索引 , 调用方进程创建代理 , 服务所在进程调用服务
+            IRemoteIndex remoteIndex = (IRemoteIndex) routeObject;
+            Class<?>[] interfaces = remoteIndex.interfaces();
+            for (int id = 0; id < interfaces.length; id++) {
+                Warehouse.RemoteEntry existing = Warehouse.remoteServices.put(
+                        interfaces[id].getName(), new Warehouse.RemoteEntry(remoteIndex, id));
+                if (existing != null) {
+                    Log.w(TAG, "registerRouteObject : 多个模块中有 " + interfaces[id].getName()
+                            + " 的跨进程服务 , 忽略 " + existing.implementation.getName());
                 }
             }
+        } else if (routeObject instanceof IRouteIndex) {
+            // 模块的最小完美哈希路由索引 , 该模块的二进制路由表已经加载时 , 由路由表替代 , 只保留预加载路由
+            IRouteIndex routeIndex = (IRouteIndex) routeObject;
+            if (hasRouteTable(routeIndex)) {
+                Warehouse.tableIndexes.add(routeIndex);
+            } else if (routeIndex.seeds().length > 0) {
+                Warehouse.routeIndexes.add(routeIndex);
+            }
+        }
+        RouterMetrics.record(RouterMetrics.INIT_LOAD_INTO, start);
+    }
+
+    /**
+     * 判断路由索引所在的模块是否已经加载了二进制路由表 , 共享路由表包括所有模块
+     * 路由表的文件名与生成的 Router_Index_ 类名后缀相同 , 类名被混淆时只有共享路由表能替代该索引
+     * @param routeIndex 生成的 Router_Index_模块名 对象
+     * @return 已经加载了该模块的路由表返回 true
+     */
+    private static boolean hasRouteTable(IRouteIndex routeIndex) {
+        String className = routeIndex.getClass().getName();
+        String moduleName = className.startsWith(ROUTE_INDEX_PREFIX)
+                ? className.substring(ROUTE_INDEX_PREFIX.length()) : null;
+        for (RouteTable routeTable : Warehouse.routeTables) {
+            if (routeTable.covers(moduleName)) {
+                return true;
+            }
         }
+        return false;
+    }
 
+    /**
+     * 获取路由耗时统计快照
+     * 包括 初始化各阶段 , 分组加载 , 路由查找 , 路由跳转 , 服务创建 , 参数注入 的次数和耗时直方图
+     * @return 统计快照 , 创建后不再变化
+     */
+    public static RouterStats getStats() {
+        return new RouterStats();
+    }
+
+    /**
+     * 参数注入 , 将跳转参数注入到 @Extra 注解的字段中
+     * 在 Activity 的 onCreate 中调用 Router.inject(this) , Fragment 从 getArguments() 中注入 , 在 onCreate 中调用
+     *
+     * 第一次注入时从编译时生成的注册表中创建注入器并缓存 ,
+     * 之后的注入只需要一次缓存查找 , 然后直接为字段赋值
+     *
+     * @param target 需要注入参数的对象
+     */
+    public static void inject(Object target) {
+        long start = System.nanoTime();
+        getExtra(target.getClass()).loadExtra(target);
+        RouterMetrics.record(RouterMetrics.EXTRA_INJECT, start);
+    }
+
+    /**
+     * 获取缓存的参数注入器 , 没有缓存时创建
+     * @param clazz 需要注入参数的类
+     * @return 参数注入器 , 没有找到返回空注入器
+     */
+    private static IExtra getExtra(Class<?> clazz) {
+        IExtra extra = mExtraCache.get(clazz);
+        if (extra == null) {
+            extra = createExtra(clazz);
+            if (extra == null) {
+                // 注册表还没有加载完成 , 不缓存空注入器 , 下次注入时重新查找
+                return NO_EXTRA;
+            }
+            mExtraCache.put(clazz, extra);
+        }
+        return extra;
+    }
+
+    /**
+     * 创建参数注入器
+     * 如果该类本身没有 @Extra 注解的字段 , 查找其父类的注入器
+     * @param clazz 需要注入参数的类
+     * @return 参数注入器 , 没有找到返回空注入器 , 初始化没有完成且没有找到时返回 null
+     */
+    private static IExtra createExtra(Class<?> clazz) {
+        // 注册表在初始化时加载 , 等待初始化完成
+        boolean ready = awaitReady();
+
+        for (Class<?> current = clazz; current != null && current != Object.class;
+             current = current.getSuperclass()) {
+            Warehouse.ExtraEntry entry = Warehouse.extrasIndex.get(current);
+            if (entry != null) {
+                return entry.extraRoot.create(entry.id);
+            }
+        }
+        return ready ? NO_EXTRA : null;
+    }
+
+    /**
+     * 创建路由跳转信息
+     * @param path 路由地址 , 如 "/app/MainActivity"
+     * @return
+     */
+    public Postcard build(String path) {
+        return new Postcard(path, extractGroup(path));
+    }
+
+    /**
+     * 创建路由跳转信息
+     * @param path 路由地址
+     * @param group 路由分组 , 用于 @Route 注解中指定了 group 的路由
+     * @return
+     */
+    public Postcard build(String path, String group) {
+        return new Postcard(path, group);
+    }
+
+    /**
+     * 深度链接跳转 , 如 myapp://host/user/10001?tab=2 跳转到 /user/{id} 对应的界面
+     * @param uri 深度链接
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    public static Object dispatch(Uri uri) {
+        return dispatch(null, uri, null);
+    }
+
+    /**
+     * 深度链接跳转 , URI 的路径作为路由地址 , 协议和主机不参与匹配
+     *
+     * 参数按照目标界面 @Extra 字段的类型直接写入跳转参数 :
+     * 1. 使用当前线程复用的 UriParser 在 URI 字符串上逐个解析参数 , 不调用 Uri.getQueryParameter
+     * 2. 参数名在生成的 _Extra 注入器的参数名数组中二分查找 , 按照字段类型调用 Bundle.putInt 等方法 , 基本类型不会装箱
+     * 3. 路由地址中的 {id} 等参数先写入 , 同名的查询参数覆盖路由地址中的参数
+     * 4. 目标界面没有声明的参数 , 以字符串形式写入跳转参数 ; 无法转换为字段类型的参数被忽略
+     *
+     * @param context 启动 Activity 使用的上下文 , 为空时使用 Application
+     * @param uri 深度链接
+     * @param callback 跳转结果回调 , 在主线程中执行 , 可以为空
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    public static Object dispatch(Context context, Uri uri, NavigationCallback callback) {
+        UriParser parser = UriParser.obtain();
+        if (uri == null || !parser.parse(uri.toString())) {
+            Log.e(TAG, "dispatch : 深度链接没有路由地址 " + uri);
+            return null;
+        }
+        String path = parser.path();
+        Postcard postcard = new Postcard(path, extractGroup(path));
+        awaitReady();
+
+        RouteMeta routeMeta = findRoute(path, postcard.getGroup());
+        RouteTrie.Match match = null;
+        if (routeMeta == null) {
+            match = matchPattern(postcard);
+            if (match != null) {
+                routeMeta = findRoute(match.pattern, postcard.getGroup());
+            }
+        }
+        // 没有找到路由时 , 由 navigation 回调 onLost
+        IUriConverter converter = routeMeta == null ? null : getUriConverter(routeMeta.getClazz());
+        Bundle extras = postcard.getExtras();
+
+        if (match != null) {
+            for (int i = 0; i < match.names.length; i++) {
+                parser.setValue(match.values[i]);
+                int index = converter == null ? -1 : Arrays.binarySearch(converter.keys(), match.names[i]);
+                putUriValue(converter, index, match.names[i], parser, extras);
+            }
+        }
+        while (parser.nextParameter()) {
+            int index = converter == null ? -1 : parser.keyIndex(converter.keys());
+            putUriValue(converter, index, null, parser, extras);
+        }
+
+        postcard.setRouteMeta(routeMeta);
+        return getInstance().navigation(context, postcard, callback);
+    }
+
+    /**
+     * 将 UriParser 的当前参数值写入跳转参数
+     * @param converter 目标界面的参数转换器 , 可以为空
+     * @param index 参数名在 converter.keys() 中的下标 , 小于 0 时以字符串形式写入
+     * @param key 参数名 , 为空时使用 UriParser 的当前参数名
+     * @param parser 解析器
+     * @param extras 跳转参数
+     */
+    private static void putUriValue(IUriConverter converter, int index, String key,
+                                    UriParser parser, Bundle extras) {
+        if (index < 0) {
+            extras.putString(key != null ? key : parser.key(), parser.stringValue());
+            return;
+        }
+        try {
+            converter.convert(index, parser, extras);
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "dispatch : 忽略无法转换的参数 " + converter.keys()[index] + " = " + parser.stringValue());
+        }
+    }
+
+    /**
+     * 获取目标类的深度链接参数转换器
+     * @param clazz 路由目标类
+     * @return 参数转换器 , 目标类没有 @Extra 注解的字段时返回 null
+     */
+    private static IUriConverter getUriConverter(Class<?> clazz) {
+        IExtra extra = getExtra(clazz);
+        return extra instanceof IUriConverter ? (IUriConverter) extra : null;
+    }
+
+    /**
+     * 执行路由跳转
+     * Activity 跳转先在后台线程中执行拦截器链 , 所有拦截器都通过后在主线程中启动 Activity
+     *
+     * @param context 启动 Activity 使用的上下文 , 为空时使用 Application
+     * @param postcard 路由跳转信息
+     * @param callback 跳转结果回调 , 在主线程中执行 , 可以为空
+     * @return Activity 跳转返回 null , IService 服务返回服务对象 , Fragment 返回 Fragment 对象
+     */
+    Object navigation(Context context, final Postcard postcard, final NavigationCallback callback) {
+        postcard.setStartNanos(System.nanoTime());
+        // 异步初始化还没有完成时 , 等待初始化完成
+        awaitReady();
+
+        // dispatch 已经查找过路由
+        RouteMeta foundRoute = postcard.getRouteMeta();
+        if (foundRoute == null) {
+            foundRoute = findRoute(postcard.getPath(), postcard.getGroup());
+        }
+        if (foundRoute == null) {
+            // 精确查找没有命中 , 匹配带参数 / 通配符的路由地址
+            foundRoute = matchRoute(postcard);
+        }
+        final RouteMeta routeMeta = foundRoute;
+        if (routeMeta == null) {
+            Log.e(TAG, "navigation : 没有找到路由 " + postcard.getPath());
+            if (callback != null) {
+                runOnMainThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLost(postcard);
+                    }
+                });
+            }
+            return null;
+        }
+        postcard.setRouteMeta(routeMeta);
+
+        switch (routeMeta.getType()) {
+            case RouteMeta.TYPE_ACTIVITY:
+                // 跳转优先 , 取消正在执行的预加载
+                RoutePreloader.cancel();
+                final Context currentContext = context == null ? mContext : context;
+                if (postcard.isGreenChannel() || !InterceptorChain.hasInterceptors()) {
+                    runOnMainThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            startActivity(currentContext, postcard, routeMeta, callback);
+                        }
+                    });
+                    return null;
+                }
+
+                // 拦截器链在后台线程中执行 , 结果在主线程中回调
+                long timeout = postcard.getTimeout() >= 0 ? postcard.getTimeout() : mInterceptorTimeout;
+                InterceptorChain.execute(postcard, timeout, new InterceptorCallback() {
+                    @Override
+                    public void onContinue(Postcard postcard) {
+                        startActivity(currentContext, postcard, routeMeta, callback);
+                    }
+
+                    @Override
+                    public void onInterrupt(Throwable exception) {
+                        Log.w(TAG, "navigation : 跳转被拦截 " + postcard.getPath(), exception);
+                        if (callback != null) {
+                            callback.onInterrupt(postcard, exception);
+                        }
+                    }
+                });
+                return null;
+            case RouteMeta.TYPE_SERVICE:
+                // 获取服务不经过拦截器
+                return getService(routeMeta.getClazz());
+            case RouteMeta.TYPE_FRAGMENT:
+                // 获取 Fragment 不经过拦截器
+                return getFragment(postcard, routeMeta);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 获取 Fragment , 跳转参数设置为 Fragment 的 arguments
+     * 可以缓存的 Fragment 优先从缓存中取出 , 没有时由生成的对象工厂创建 , 交给调用方后监听其销毁
+     *
+     * @return Fragment 对象 , 创建失败返回 null
+     */
+    private static Object getFragment(Postcard postcard, RouteMeta routeMeta) {
+        long start = System.nanoTime();
+        Class<?> clazz = routeMeta.getClazz();
+        boolean cacheable = Warehouse.fragments.isCacheable(clazz);
+        try {
+            Object fragment = cacheable ? Warehouse.fragments.obtain(clazz) : null;
+            if (fragment == null) {
+                fragment = newInstance(clazz);
+            }
+            if (fragment instanceof Fragment) {
+                ((Fragment) fragment).setArguments(postcard.getExtras());
+                if (cacheable) {
+                    trackFragment((Fragment) fragment);
+                }
+            } else if (fragment instanceof android.app.Fragment) {
+                ((android.app.Fragment) fragment).setArguments(postcard.getExtras());
+            }
+            RouterMetrics.record(RouterMetrics.FRAGMENT_CREATE, start);
+            return fragment;
+        } catch (Exception e) {
+            Log.e(TAG, "getFragment : 创建 Fragment 失败 " + clazz, e);
+            return null;
+        }
+    }
+
+    /**
+     * 监听可以缓存的 Fragment 的销毁 , Lifecycle 只能在主线程中添加监听
+     */
+    private static void trackFragment(final Fragment fragment) {
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                Warehouse.fragments.track(fragment);
+            }
+        });
+    }
+
+    /**
+     * 启动 Activity , 在主线程中调用
+     */
+    private static void startActivity(Context context, Postcard postcard, RouteMeta routeMeta,
+                                      NavigationCallback callback) {
+        Intent intent = new Intent(context, routeMeta.getClazz());
+        intent.putExtras(postcard.getExtras());
+        if (postcard.getFlags() != -1) {
+            intent.setFlags(postcard.getFlags());
+        } else if (!(context instanceof Activity)) {
+            // 非 Activity 上下文启动 Activity 需要设置 FLAG_ACTIVITY_NEW_TASK
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        }
+        context.startActivity(intent);
+        RouterMetrics.recordNavigation(postcard.getPath(), postcard.getStartNanos());
+        // 记录跳转频率 , 空闲时预加载下一个可能跳转的界面
+        RoutePreloader.onNavigation(postcard.getPath());
+        if (callback != null) {
+            callback.onArrival(postcard);
+        }
+    }
+
+    /**
+     * 在主线程中执行 , 当前是主线程时直接执行
+     */
+    private static void runOnMainThread(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mHandler.post(runnable);
+        }
+    }
+
+    /**
+     * 获取 IService 服务对象 , 第一次获取时创建
+     * 多线程同时获取同一个服务时 , 服务只会创建一次
+     * @param clazz 服务类
+     * @return
+     */
+    static IService getService(Class<?> clazz) {
+        try {
+            return Warehouse.services.get(clazz, SERVICE_CREATOR);
+        } catch (Exception e) {
+            Log.e(TAG, "getService : 创建服务失败 " + clazz, e);
+            return null;
+        }
+    }
+
+    /**
+     * 根据服务接口获取服务 , 如 Router.service(ComponentService.class)
+     * 在编译时生成的服务接口索引中查找 , 不需要路由地址
+     *
+     * @param serviceInterface IService 子接口
+     * @return 优先级最高的实现 , 没有实现或创建失败返回 null
+     */
+    public static <T extends IService> T service(Class<T> serviceInterface) {
+        return serviceInterface.cast(getLocalService(serviceInterface));
+    }
+
+    /**
+     * 获取本进程中服务接口优先级最高的实现
+     * @param serviceInterface IService 子接口
+     * @return 服务对象 , 没有实现或创建失败返回 null
+     */
+    static IService getLocalService(Class<?> serviceInterface) {
+        awaitReady();
+        Warehouse.ServiceEntry entry = Warehouse.serviceIndex.get(serviceInterface);
+        if (entry == null) {
+            Log.e(TAG, "service : 没有找到服务接口的实现 " + serviceInterface.getName());
+            return null;
+        }
+        return getService(entry.implementations[0]);
+    }
+
+    /**
+     * 获取跨进程服务索引 , RemoteServiceHost 在服务所在进程中调用服务之前获取
+     * @param serviceName IService 子接口的类名
+     * @return 跨进程服务索引 , 没有找到返回 null
+     */
+    static Warehouse.RemoteEntry getRemoteEntry(String serviceName) {
+        awaitReady();
+        return Warehouse.remoteServices.get(serviceName);
+    }
+
+    /**
+     * 获取跨进程服务的代理 , 如 Router.remoteService(ComponentService.class)
+     * 服务需要使用 @Route(remote = true) 注解 , 在 RemoteServiceHost 所在的进程中执行
+     *
+     * 没有返回值的方法是单向调用 , 按照 setRemoteBatch 设置的策略合并为一次 Binder 事务发送 , 调用后立即返回 ;
+     * 有返回值的方法是同步调用 , 与之前的单向调用一起立即发送 , 等待返回值 , 不能在连接完成之前在主线程中调用
+     *
+     * @param serviceInterface IService 子接口
+     * @return 代理对象 , 该接口没有跨进程服务时返回 null
+     */
+    public static <T extends IService> T remoteService(Class<T> serviceInterface) {
+        awaitReady();
+        Warehouse.RemoteEntry entry = Warehouse.remoteServices.get(serviceInterface.getName());
+        if (entry == null) {
+            Log.e(TAG, "remoteService : 没有找到跨进程服务 " + serviceInterface.getName()
+                    + " , 请使用 @Route(remote = true) 注解服务");
+            return null;
+        }
+        IService proxy = entry.proxy;
+        if (proxy == null) {
+            proxy = entry.remoteIndex.createProxy(entry.id, getRemoteChannel());
+            entry.proxy = proxy;
+        }
+        return serviceInterface.cast(proxy);
+    }
+
+    /**
+     * 获取跨进程服务调用通道 , 第一次获取时创建并连接 RemoteServiceHost
+     */
+    private static RemoteChannel getRemoteChannel() {
+        if (mRemoteChannel == null) {
+            synchronized (Router.class) {
+                if (mRemoteChannel == null) {
+                    RemoteChannel channel = new RemoteChannel(mRemoteFlushSize, mRemoteFlushLatency, mInitTimeout);
+                    channel.connect(mContext);
+                    mRemoteChannel = channel;
+                }
+            }
+        }
+        return mRemoteChannel;
+    }
+
+    /**
+     * 根据服务接口获取该接口的所有服务 , 每个服务只创建一次
+     * @param serviceInterface IService 子接口
+     * @return 按照优先级从大到小排序的服务 , 不包括创建失败的服务 , 没有实现返回空列表
+     */
+    public static <T extends IService> List<T> services(Class<T> serviceInterface) {
+        awaitReady();
+        Warehouse.ServiceEntry entry = Warehouse.serviceIndex.get(serviceInterface);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        List<T> services = new ArrayList<>(entry.implementations.length);
+        for (Class<?> implementation : entry.implementations) {
+            IService service = getService(implementation);
+            if (service != null) {
+                services.add(serviceInterface.cast(service));
+            }
+        }
+        return services;
+    }
+
+    /**
+     * 创建 IService 服务对象
+     */
+    private static final ServiceRegistry.Creator SERVICE_CREATOR = new ServiceRegistry.Creator() {
+        @Override
+        public IService create(Class<?> clazz) throws Exception {
+            long start = System.nanoTime();
+            IService service = (IService) newInstance(clazz);
+            RouterMetrics.record(RouterMetrics.SERVICE_CREATE, start);
+            return service;
+        }
+    };
+
+    /**
+     * 根据路由地址查找路由信息
+     * 如果路由所在的分组还没有加载 , 先加载该分组
+     *
+     * @param path 路由地址
+     * @param group 路由分组
+     * @return 路由信息 , 没有找到返回 null
+     */
+    static RouteMeta findRoute(String path, String group) {
+        long start = System.nanoTime();
+        RouteMeta routeMeta = findRouteInternal(path, group);
+        RouterMetrics.recordLookup(path, start);
+        return routeMeta;
+    }
+
+    private static RouteMeta findRouteInternal(String path, String group) {
+        // 优先探测没有二进制路由表的模块的最小完美哈希索引 , 一次哈希 + 一次字符串比较
+        RouteMeta routeMeta = findRouteInIndexes(path);
+        if (routeMeta != null) {
+            return routeMeta;
+        }
+
+        // 索引没有命中 , 回退到路由映射表 , 包括已经在路由表中命中过的路由
+        routeMeta = Warehouse.routes.get(path);
+        if (routeMeta != null) {
+            return routeMeta;
+        }
+
+        // 在二进制路由表中查找 , 有路由表的模块不再探测索引 , 只创建命中的路由信息
+        routeMeta = findRouteInTables(path, group);
+        if (routeMeta != null) {
+            return routeMeta;
+        }
+
+        // 按需加载分组 , 加载后再次查找
+        if (loadGroup(group)) {
+            routeMeta = Warehouse.routes.get(path);
+        }
+        return routeMeta;
+    }
+
+    /**
+     * 在各模块的最小完美哈希索引中查找路由
+     * @param path 路由地址
+     * @return 路由信息 , 没有命中返回 null
+     */
+    private static RouteMeta findRouteInIndexes(String path) {
+        if (path == null) {
+            return null;
+        }
+        // 种子 0 的哈希值在所有模块中相同 , 只计算一次
+        int hash0 = RouteHash.hash(path, 0);
+        for (IRouteIndex routeIndex : Warehouse.routeIndexes) {
+            int id = RouteHash.lookup(routeIndex.seeds(), path, hash0);
+            if (path.equals(routeIndex.paths()[id])) {
+                return routeIndex.route(id);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 匹配带参数 / 通配符的路由地址 , 如 /user/10001/orders/2021 匹配 /user/{id}/orders/*
+     * 匹配到的参数以字符串形式放入跳转参数中 , 调用者通过 withXxx 设置的同名参数优先
+     *
+     * @param postcard 路由跳转信息
+     * @return 路由信息 , 没有匹配的路由返回 null
+     */
+    static RouteMeta matchRoute(Postcard postcard) {
+        RouteTrie.Match match = matchPattern(postcard);
+        if (match == null) {
+            return null;
+        }
+        Bundle extras = postcard.getExtras();
+        for (int i = 0; i < match.names.length; i++) {
+            if (!extras.containsKey(match.names[i])) {
+                extras.putString(match.names[i], match.values[i]);
+            }
+        }
+        return findRoute(match.pattern, postcard.getGroup());
+    }
+
+    /**
+     * 在各模块的匹配树中匹配路由地址 , 跳过没有对应路由的模板
+     * @param postcard 路由跳转信息
+     * @return 匹配结果 , 没有匹配的路由返回 null
+     */
+    private static RouteTrie.Match matchPattern(Postcard postcard) {
+        for (RouteTrie trie : Warehouse.routeMatchers) {
+            RouteTrie.Match match = trie.match(postcard.getPath());
+            if (match != null && findRoute(match.pattern, postcard.getGroup()) != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在各模块的二进制路由表中查找路由 , 命中后将路由信息放入 Warehouse.routes , 之后直接从映射表中获取
+     * @param path 路由地址
+     * @param group 路由分组
+     * @return 路由信息 , 没有命中返回 null
+     */
+    static RouteMeta findRouteInTables(String path, String group) {
+        if (path == null || group == null || Warehouse.routeTables.isEmpty()) {
+            return null;
+        }
+        byte[] pathBytes = RouteTableFormat.utf8(path);
+        byte[] groupBytes = RouteTableFormat.utf8(group);
+        for (RouteTable routeTable : Warehouse.routeTables) {
+            int route = routeTable.find(pathBytes, groupBytes);
+            if (route >= 0) {
+                RouteMeta routeMeta = routeTable.createRoute(route, path, group);
+                if (routeMeta == null) {
+                    // 目标类无法加载 , 回退到加载分组
+                    return null;
+                }
+                RouteMeta existing = Warehouse.routes.putIfAbsent(path, routeMeta);
+                return existing != null ? existing : routeMeta;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 加载路由分组
+     *
+     * 每个分组使用单独的锁 , 同一分组的并发首次查找只加载一次 ,
+     * 不同分组的加载互不阻塞
+     * 分组加载到 Warehouse.routes 后 , 从 Warehouse.groupsIndex 中移除
+     *
+     * @param group 路由分组
+     * @return 该分组是否已经加载到 Warehouse.routes 中 , 调用方需要重新查找 Warehouse.routes
+     */
+    private static boolean loadGroup(String group) {
+        if (group == null) {
+            return false;
+        }
+        if (!Warehouse.groupsIndex.containsKey(group)) {
+            // 分组已经加载 , 或者其它线程正在加载 : 加载前先创建分组锁 , 等待持有锁的线程加载完成
+            Object lock = Warehouse.groupLocks.get(group);
+            if (lock == null) {
+                // 分组不存在
+                return false;
+            }
+            synchronized (lock) {
+                return !Warehouse.groupsIndex.containsKey(group);
+            }
+        }
+
+        synchronized (getGroupLock(group)) {
+            // 双重检查 , 等待锁的过程中其它线程可能已经加载了该分组
+            Class<? extends IRouteGroup> groupClass = Warehouse.groupsIndex.get(group);
+            if (groupClass == null) {
+                return true;
+            }
+
+            try {
+                long start = System.nanoTime();
+                IRouteGroup routeGroup = (IRouteGroup) newInstance(groupClass);
+                // 先装载到按照路由个数预设容量的映射表中 , 再一次性合并到 Warehouse.routes ,
+                // ConcurrentHashMap.putAll 合并前按照分组的路由个数一次性扩容 , 避免逐个插入时多次扩容
+                Map<String, RouteMeta> groupRoutes = new HashMap<>(
+                        (int) (routeGroup.routeCount() / 0.75f) + 1);
+                routeGroup.loadInto(groupRoutes);
+                Warehouse.routes.putAll(groupRoutes);
+                Warehouse.groupsIndex.remove(group);
+                RouterMetrics.recordGroup(group, start);
+                Log.i(TAG, "loadGroup : 加载路由分组 " + group);
+                return true;
+            } catch (Exception e) {
+                Log.e(TAG, "loadGroup : 加载路由分组失败 " + group, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 创建路由分组 / IService 服务对象
+     * 优先使用编译时生成的对象工厂直接 new 对象 , 没有对应的工厂时回退到反射
+     * @param clazz 要创建的类
+     * @return
+     */
+    private static Object newInstance(Class<?> clazz) throws Exception {
+        Warehouse.FactoryEntry entry = Warehouse.factories.get(clazz);
+        if (entry != null) {
+            return entry.factory.create(entry.id);
+        }
+        return clazz.getConstructor().newInstance();
+    }
+
+    /**
+     * 获取分组加载锁
+     */
+    private static Object getGroupLock(String group) {
+        Object lock = Warehouse.groupLocks.get(group);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = Warehouse.groupLocks.putIfAbsent(group, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * 从路由地址中截取分组名称 , 即第 0 和 第 1 个 "/" 之间的字符串
+     * 如 "/app/MainActivity" 的分组为 "app"
+     *
+     * @param path 路由地址
+     * @return 分组名称 , 路由地址格式错误返回 null
+     */
+    static String extractGroup(String path) {
+        if (path == null || !path.startsWith("/")) {
+            return null;
+        }
+        int end = path.indexOf('/', 1);
+        if (end <= 1) {
+            return null;
+        }
+        return path.substring(1, end);
+    }
+
+    /**
+     * 加载 分组 路由表 数据
+     * 每个分组对应一个路由表
+     * @param classNames kim.hsl.router 包下的所有类名 , 来自共享路由表 , 本地缓存的路由类索引 , 或扫描 DEX 文件
+     */
+    private static void loadInfo(Collection<String> classNames){
         // 最终所有的 kim.hsl.router 包下的类都存放到了 Set<String> classNames 变量中
         for (String className : classNames){
             /*
                 这是打印出来的类
-                kim.hsl.router_annotation.model.RouteBean$Type
                 kim.hsl.router.Router_Group_app
                 kim.hsl.router_annotation.Route
                 kim.hsl.router.Router_Root_library2
                 kim.hsl.router.Router_Root_app
                 kim.hsl.router.Router_Group_library2
-                kim.hsl.router_annotation.model.RouteBean
+                kim.hsl.router_annotation.model.RouteMeta
              */
             Log.i(TAG, "loadInfo : " + className);
 
-            // 如果该类以 " Router_Root_ " 开头 , 说明这是 Root 表类
-            if (className.startsWith("kim.hsl.router.Router_Root_")) {
+            // 如果该类以 " Router_Root_ " 等前缀开头 , 说明这是需要注册的路由类
+            if (isRegisterClass(className)) {
                 // root中注册的是分组信息 将分组信息加入仓库中
                 try {
-                    // 获取 IRouteRoot 类
-                    Class<IRouteRoot> clazz = (Class<IRouteRoot>) Class.forName(className);
+                    long start = System.nanoTime();
+
+                    // 获取路由类
+                    Class<?> clazz = Class.forName(className);
 
                     // 获取构造函数
-                    Constructor<IRouteRoot> constructor = clazz.getConstructor();
+                    Constructor<?> constructor = clazz.getConstructor();
 
-                    // 创建 IRouteRoot 类
-                    IRouteRoot routeRoot = constructor.newInstance();
+                    // 创建路由类对象
+                    Object routeObject = constructor.newInstance();
+                    RouterMetrics.record(RouterMetrics.INIT_CLASS_LOAD, start);
 
-                    // 将 Root 表的信息装载到 Warehouse.groupsIndex 集合中
-                    routeRoot.loadInto(Warehouse.groupsIndex);
+                    // 将 Root 表 / 路由索引 的信息装载到 Warehouse 仓库中
+                    registerRouteObject(routeObject);
 
                     // 打印 Root 表
                     for ( Map.Entry<String, Class<? extends IRouteGroup>> entry : Warehouse.groupsIndex.entrySet()){
@@ -149,8 +1369,111 @@ public class Router {
                     e.printStackTrace();
                 } catch (ClassNotFoundException e) {
                     e.printStackTrace();
+                    // 缓存的路由类索引与当前 APK 不一致 , 清除缓存 , 下次启动时重新扫描
+                    // 共享路由表中的路由类名来自同一个索引版本 , 同时删除 , 否则下次启动时仍然使用其中的类名
+                    RouteIndexCache.clear(mContext);
+                    SharedRouteTable.clear(new File(mContext.getFilesDir(), SharedRouteTable.DIR_NAME));
                 }
             }
         }
     }
+
+    /**
+     * 判断是否是需要在初始化时注册的路由类
+     * @param className 类名
+     * @return
+     */
+    private static boolean isRegisterClass(String className) {
+        // 跳过生成类的内部类 , 如 Router_Remote_ 中的代理类
+        if (className.indexOf('$') >= 0) {
+            return false;
+        }
+        for (String prefix : REGISTER_CLASS_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取 kim.hsl.router 包下的所有类名
+     *
+     * 路由类只有在 APK 变化时才会变化 ,
+     * 因此首次扫描 DEX 文件后将结果缓存到本地 , 之后启动时直接读取缓存 , 不再遍历 DEX 文件
+     *
+     * @return kim.hsl.router 包下的所有类名
+     */
+    static Set<String> getRouteClassNames() {
+        // 读取缓存的路由类索引 , 缓存有效则直接返回
+        String indexVersion = getIndexVersion();
+        Set<String> classNames = RouteIndexCache.get(mContext, indexVersion);
+        if (classNames != null) {
+            Log.i(TAG, "getRouteClassNames : 使用缓存的路由类索引 " + indexVersion);
+            mRouteClassNames = classNames;
+            return classNames;
+        }
+        List<String> sourcePaths = mSourcePaths;
+
+        /*
+            根据获取所有 APK 下的类
+            根据 kim.hsl.router 包名, 获取该包名下的所有路由类
+            每个 DEX 容器在线程池中并行扫描 , 结果合并到并发集合中
+         */
+        classNames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        boolean completed = ClassUtils.scanClassNames(sourcePaths, "kim.hsl.router",
+                mScanTimeout, classNames);
+
+        if (!completed) {
+            // 扫描超时 , 结果可能不完整 , 不写入缓存
+            Log.w(TAG, "getRouteClassNames : 扫描 DEX 文件未完成 , 本次结果不写入缓存");
+            return classNames;
+        }
+
+        // 将扫描结果写入缓存
+        RouteIndexCache.put(mContext, indexVersion, classNames);
+        mRouteClassNames = classNames;
+        return classNames;
+    }
+
+    /**
+     * 获取路由类索引的缓存版本 , APK 变化时版本变化 , 本地缓存的路由类索引和共享路由表随之失效
+     * @return 缓存版本
+     */
+    private static synchronized String getIndexVersion() {
+        if (mIndexVersion == null) {
+            /*
+                获取程序的所有 APK 安装文件
+             */
+            ApplicationInfo applicationInfo = getApplicationInfo();
+            PackageInfo packageInfo = null;
+            try {
+                packageInfo = mContext.getPackageManager().getPackageInfo(mContext.getPackageName(), 0);
+            } catch (PackageManager.NameNotFoundException e) {
+                e.printStackTrace();
+            }
+
+            // 获取所有 DEX 容器路径 , 包括 split APK 和旧版 MultiDex 释放出的从 DEX 文件
+            mSourcePaths = ClassUtils.getSourcePaths(mContext, applicationInfo);
+            mIndexVersion = RouteIndexCache.getIndexVersion(applicationInfo, packageInfo, mSourcePaths);
+        }
+        return mIndexVersion;
+    }
+
+    /**
+     * 获取应用信息 , 包括 meta-data
+     * @return 应用信息 , 获取失败时返回 Context 中不包括 meta-data 的应用信息
+     */
+    private static synchronized ApplicationInfo getApplicationInfo() {
+        if (mApplicationInfo == null) {
+            try {
+                mApplicationInfo = mContext.getPackageManager().getApplicationInfo(
+                        mContext.getPackageName(), PackageManager.GET_META_DATA);
+            } catch (PackageManager.NameNotFoundException e) {
+                e.printStackTrace();
+                mApplicationInfo = mContext.getApplicationInfo();
+            }
+        }
+        return mApplicationInfo;
+    }
 }
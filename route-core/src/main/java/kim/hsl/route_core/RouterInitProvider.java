@@ -0,0 +1,73 @@
+package kim.hsl.route_core;
+
+import android.app.Application;
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
+/**
+ * 路由表自动初始化
+ *
+ * ContentProvider 在 Application.onCreate 之前创建 , 在其中调用 Router.initAsync ,
+ * 应用不需要手动调用 Router.init , 初始化也不会占用主线程
+ *
+ * 如果需要手动初始化 , 在应用的 AndroidManifest.xml 中移除该 provider :
+ * <provider
+ *     android:name="kim.hsl.route_core.RouterInitProvider"
+ *     android:authorities="${applicationId}.router-init"
+ *     tools:node="remove" />
+ *
+ * 多进程应用中不使用路由的进程 , 可以在 application 节点下声明 meta-data 跳过初始化 :
+ * <meta-data
+ *     android:name="kim.hsl.router.EXCLUDED_PROCESSES"
+ *     android:value=":push,:player" />
+ *
+ * 路由耗时统计可以通过以下命令获取 :
+ * adb shell dumpsys activity provider kim.hsl.route_core.RouterInitProvider
+ */
+public class RouterInitProvider extends ContentProvider {
+
+    @Override
+    public boolean onCreate() {
+        Router.initAsync((Application) getContext().getApplicationContext());
+        return true;
+    }
+
+    /**
+     * 输出路由耗时统计
+     */
+    @Override
+    public void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        writer.print(Router.getStats().dump());
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        return null;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+package kim.hsl.route_core;
+
+import java.util.Collections;
+import java.util.Map;
+
+import kim.hsl.route_core.utils.LatencyHistogram;
+import kim.hsl.route_core.utils.RouterMetrics;
+
+/**
+ * 路由耗时统计快照 , 通过 Router.getStats 获取 , 创建后不再变化
+ *
+ * 包括 初始化各阶段 , 分组加载 , 路由查找 , 路由跳转 , 服务创建 , 参数注入 的次数和耗时直方图
+ */
+public final class RouterStats {
+
+    private final LatencyHistogram.Snapshot[] mPhases;
+    private final Map<String, LatencyHistogram.Snapshot> mGroups;
+    private final Map<String, LatencyHistogram.Snapshot> mLookups;
+    private final Map<String, LatencyHistogram.Snapshot> mNavigations;
+
+    RouterStats() {
+        this.mPhases = RouterMetrics.snapshotPhases();
+        this.mGroups = Collections.unmodifiableMap(RouterMetrics.snapshotGroups());
+        this.mLookups = Collections.unmodifiableMap(RouterMetrics.snapshotLookups());
+        this.mNavigations = Collections.unmodifiableMap(RouterMetrics.snapshotNavigations());
+    }
+
+    /**
+     * 获取阶段的统计
+     * @param phase 阶段 , 如 RouterMetrics.GROUP_LOAD
+     */
+    public LatencyHistogram.Snapshot getPhase(int phase) {
+        return mPhases[phase];
+    }
+
+    /**
+     * 各分组的加载耗时 , 键为分组名称
+     */
+    public Map<String, LatencyHistogram.Snapshot> getGroups() {
+        return mGroups;
+    }
+
+    /**
+     * 各路由的查找耗时 , 键为路由地址
+     */
+    public Map<String, LatencyHistogram.Snapshot> getLookups() {
+        return mLookups;
+    }
+
+    /**
+     * 各路由的跳转耗时 , 键为路由地址
+     */
+    public Map<String, LatencyHistogram.Snapshot> getNavigations() {
+        return mNavigations;
+    }
+
+    /**
+     * 生成文本格式的统计信息
+     * 可以通过 adb shell dumpsys activity provider kim.hsl.route_core.RouterInitProvider 获取
+     */
+    public String dump() {
+        StringBuilder builder = new StringBuilder("Router stats\n");
+        for (LatencyHistogram.Snapshot phase : mPhases) {
+            builder.append("  ").append(phase).append('\n');
+        }
+        dump(builder, "groups", mGroups);
+        dump(builder, "lookups", mLookups);
+        dump(builder, "navigations", mNavigations);
+        return builder.toString();
+    }
+
+    private static void dump(StringBuilder builder, String title,
+                             Map<String, LatencyHistogram.Snapshot> snapshots) {
+        builder.append(title).append('\n');
+        for (LatencyHistogram.Snapshot snapshot : snapshots.values()) {
+            builder.append("  ").append(snapshot).append('\n');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dump();
+    }
+}
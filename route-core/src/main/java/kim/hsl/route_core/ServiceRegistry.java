@@ -0,0 +1,86 @@
+package kim.hsl.route_core;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import kim.hsl.route_core.template.IService;
+
+/**
+ * IService 服务注册表
+ *
+ * 每个服务只创建一次 :
+ * 服务创建完成后 , 读取不加锁 ( ConcurrentHashMap 读取 + volatile 读取 ) ;
+ * 服务创建过程中 , 只有同时获取同一个服务的线程会被阻塞 , 获取其它服务的线程不受影响
+ */
+class ServiceRegistry {
+
+    /**
+     * 服务创建器
+     */
+    interface Creator {
+        /**
+         * 创建服务对象
+         * @param clazz 服务类
+         * @return 服务对象
+         */
+        IService create(Class<?> clazz) throws Exception;
+    }
+
+    /**
+     * 键 ( Key ) : 服务类
+     * 值 ( Value ) : 服务对象的持有者 , 每个服务一个 , 同时作为创建该服务时的锁
+     */
+    private final ConcurrentHashMap<Class<?>, Holder> mHolders = new ConcurrentHashMap<>();
+
+    /**
+     * 获取服务对象 , 第一次获取时创建
+     * @param clazz 服务类
+     * @param creator 服务创建器
+     * @return 服务对象 , 创建失败返回 null , 下次获取时会重新尝试创建
+     */
+    IService get(Class<?> clazz, Creator creator) throws Exception {
+        Holder holder = mHolders.get(clazz);
+        if (holder == null) {
+            Holder newHolder = new Holder();
+            holder = mHolders.putIfAbsent(clazz, newHolder);
+            if (holder == null) {
+                holder = newHolder;
+            }
+        }
+        return holder.get(clazz, creator);
+    }
+
+    /**
+     * 获取已经创建的服务对象 , 不会创建服务
+     * @param clazz 服务类
+     * @return 服务对象 , 还没有创建返回 null
+     */
+    IService peek(Class<?> clazz) {
+        Holder holder = mHolders.get(clazz);
+        return holder == null ? null : holder.mService;
+    }
+
+    /**
+     * 服务对象持有者
+     */
+    private static final class Holder {
+        private volatile IService mService;
+
+        IService get(Class<?> clazz, Creator creator) throws Exception {
+            // 已创建 , 直接返回 , 不加锁
+            IService service = mService;
+            if (service != null) {
+                return service;
+            }
+
+            // 未创建 , 只锁住该服务自己的持有者
+            synchronized (this) {
+                service = mService;
+                if (service == null) {
+                    service = creator.create(clazz);
+                    mService = service;
+                }
+            }
+            return service;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package kim.hsl.route_core;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+
+/**
+ * 多进程共享的路由表 , 保存在应用私有目录的 router/routes.shared 文件中
+ *
+ * 多进程应用的每个进程都会执行 Router.init , 重复扫描路由类 , 加载分组 ;
+ * 第一个完成初始化的进程在后台加载所有分组 , 将路由类名和所有模块的路由写出到该文件 ,
+ * 之后启动的进程 ( 以及下次冷启动 ) 将文件映射到内存 , 直接使用其中的路由类名和路由表 ,
+ * 不再扫描 DEX 文件 ; 共享路由表替代所有模块的 Router_Index_ 和二进制路由表 , 查找路由时直接在共享路由表中查找 ,
+ * 命中时不探测路由索引 , 也不加载分组类 , 路由表的内存页由各进程共享
+ *
+ * 文件结构 , 整数均为大端序 :
+ * 文件头 : MAGIC , VERSION
+ * 缓存版本 : 与 RouteIndexCache 相同 , APK 变化后版本不一致 , 文件失效 , 由下一个进程重新写出
+ * 路由类名 : 类名个数 , 每个类名为 4 字节长度 + UTF-8 字节 , 使用 router-register 插件时为空
+ * 路由表 : 4 字节长度 + 所有模块合并后的二进制路由表 , 格式见 RouteTableFormat
+ *
+ * 写出时持有 routes.lock 文件锁 , 同一时间只有一个进程写出 ;
+ * 先写出到临时文件再重命名 , 其它进程要么看到完整的旧文件 , 要么看到完整的新文件 ,
+ * 已经映射的旧文件在重命名后依然有效
+ */
+final class SharedRouteTable {
+
+    private static final String TAG = "SharedRouteTable";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * 文件魔数 "RSHT"
+     */
+    private static final int MAGIC = 0x52534854;
+
+    /**
+     * 文件格式版本 , 与 RouteTableFormat.VERSION 无关 , 文件头变化时递增
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 共享路由表所在目录 , 位于应用的 files 目录下
+     */
+    static final String DIR_NAME = "router";
+
+    private static final String FILE_NAME = "routes.shared";
+
+    private static final String LOCK_NAME = "routes.lock";
+
+    /**
+     * 共享路由表的模块名 , 仅用于日志
+     */
+    private static final String MODULE_NAME = "shared";
+
+    /**
+     * 收集所有模块的路由 , 只在确定需要写出时调用
+     */
+    interface RouteCollector {
+        List<RouteTableFormat.Record> collect() throws Exception;
+    }
+
+    /**
+     * 需要在初始化时注册的路由类名
+     */
+    private final List<String> mClassNames;
+
+    /**
+     * 所有模块合并后的路由表
+     */
+    private final RouteTable mRouteTable;
+
+    private SharedRouteTable(List<String> classNames, RouteTable routeTable) {
+        this.mClassNames = classNames;
+        this.mRouteTable = routeTable;
+    }
+
+    List<String> getClassNames() {
+        return mClassNames;
+    }
+
+    RouteTable getRouteTable() {
+        return mRouteTable;
+    }
+
+    /**
+     * 映射共享路由表
+     * @param dir 共享路由表所在目录
+     * @param indexVersion 当前的缓存版本
+     * @return 共享路由表 , 文件不存在 , 格式错误或版本不一致时返回 null
+     */
+    static SharedRouteTable open(File dir, String indexVersion) {
+        File file = new File(dir, FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = randomAccessFile.getChannel();
+                // 映射后即使关闭文件 , 映射的内存依然有效
+                return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), indexVersion);
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "open : 映射共享路由表失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 解析共享路由表
+     * @param buffer 文件内容
+     * @param indexVersion 当前的缓存版本
+     * @return 共享路由表 , 格式错误或版本不一致时返回 null
+     */
+    static SharedRouteTable parse(ByteBuffer buffer, String indexVersion) {
+        ByteBuffer content = buffer.duplicate();
+        try {
+            if (content.getInt() != MAGIC || content.getInt() != VERSION) {
+                return null;
+            }
+            if (!indexVersion.equals(readString(content))) {
+                Log.i(TAG, "parse : 共享路由表版本不一致 , 重新初始化");
+                return null;
+            }
+            int classCount = content.getInt();
+            if (classCount < 0 || classCount > content.remaining() / 4) {
+                return null;
+            }
+            List<String> classNames = new ArrayList<>(classCount);
+            for (int i = 0; i < classCount; i++) {
+                classNames.add(readString(content));
+            }
+            int tableLength = content.getInt();
+            if (tableLength < 0 || tableLength != content.remaining()) {
+                return null;
+            }
+            return new SharedRouteTable(classNames, new RouteTable(MODULE_NAME, content.slice(), true));
+        } catch (BufferUnderflowException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        } catch (IOException e) {
+            // 路由表格式错误
+            return null;
+        }
+    }
+
+    /**
+     * 写出共享路由表 , 其它进程正在写出时直接返回 , 不等待
+     * @param dir 共享路由表所在目录
+     * @param indexVersion 当前的缓存版本
+     * @param classNames 需要在初始化时注册的路由类名
+     * @param collector 收集所有模块的路由
+     * @return 是否由当前进程写出
+     */
+    static boolean publish(File dir, String indexVersion, Collection<String> classNames,
+                           RouteCollector collector) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            return false;
+        }
+        try {
+            RandomAccessFile lockFile = new RandomAccessFile(new File(dir, LOCK_NAME), "rw");
+            try {
+                FileLock lock = lockFile.getChannel().tryLock();
+                if (lock == null) {
+                    // 其它进程正在写出
+                    return false;
+                }
+                try {
+                    // 获取锁之前 , 其它进程可能刚刚写出了当前版本的路由表
+                    if (open(dir, indexVersion) != null) {
+                        return false;
+                    }
+                    byte[] content = write(indexVersion, classNames, collector.collect());
+                    File temp = new File(dir, FILE_NAME + ".tmp");
+                    FileOutputStream out = new FileOutputStream(temp);
+                    try {
+                        out.write(content);
+                        out.getFD().sync();
+                    } finally {
+                        out.close();
+                    }
+                    if (!temp.renameTo(new File(dir, FILE_NAME))) {
+                        temp.delete();
+                        return false;
+                    }
+                    return true;
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                lockFile.close();
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "publish : 写出共享路由表失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除共享路由表 , 其中的路由类名与当前 APK 不一致时调用 , 下次启动时重新扫描并写出
+     * 已经映射的文件在删除后依然有效
+     * @param dir 共享路由表所在目录
+     */
+    static void clear(File dir) {
+        File file = new File(dir, FILE_NAME);
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "clear : 删除共享路由表失败");
+        }
+    }
+
+    /**
+     * 生成共享路由表文件内容
+     * @param indexVersion 缓存版本
+     * @param classNames 需要在初始化时注册的路由类名
+     * @param records 所有模块的路由
+     * @return 文件内容
+     */
+    static byte[] write(String indexVersion, Collection<String> classNames,
+                        List<RouteTableFormat.Record> records) {
+        byte[] version = RouteTableFormat.utf8(indexVersion);
+        List<byte[]> names = new ArrayList<>(classNames.size());
+        int length = 4 + 4 + 4 + version.length + 4 + 4;
+        for (String className : classNames) {
+            byte[] name = RouteTableFormat.utf8(className);
+            names.add(name);
+            length += 4 + name.length;
+        }
+        byte[] table = RouteTableFormat.write(records);
+        length += table.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putInt(version.length).put(version);
+        buffer.putInt(names.size());
+        for (byte[] name : names) {
+            buffer.putInt(name.length).put(name);
+        }
+        buffer.putInt(table.length).put(table);
+        return buffer.array();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -1,11 +1,19 @@
 package kim.hsl.route_core;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import kim.hsl.route_core.template.IExtraRoot;
+import kim.hsl.route_core.template.IInterceptorRoot;
+import kim.hsl.route_core.template.IRemoteIndex;
+import kim.hsl.route_core.template.IRouteFactory;
 import kim.hsl.route_core.template.IRouteGroup;
+import kim.hsl.route_core.template.IRouteIndex;
 import kim.hsl.route_core.template.IService;
-import kim.hsl.router_annotation.model.RouteBean;
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteTrie;
 
 /**
  * 存放路由表的静态类仓库
@@ -14,16 +22,179 @@ public class Warehouse {
 
     /**
      * Root 映射表 , 保存分组信息
+     * 分组被加载到 routes 后 , 会从该表中移除
      */
-    static Map<String, Class<? extends IRouteGroup>> groupsIndex = new HashMap<>();
+    static Map<String, Class<? extends IRouteGroup>> groupsIndex = new ConcurrentHashMap<>();
 
     /**
-     * 保存一个路由分组中的路由数据
+     * 保存已加载分组中的路由数据
+     * 键 ( Key ) : 路由地址
+     * 值 ( Value ) : 路由信息
+     * 声明为 ConcurrentHashMap , putIfAbsent 调用 ConcurrentHashMap 的方法 , 原因同 groupLocks
      */
-    static Map<String, RouteBean> routes = new HashMap<>();
+    static ConcurrentHashMap<String, RouteMeta> routes = new ConcurrentHashMap<>();
 
     /**
-     * IService 服务的映射表
+     * 各模块的最小完美哈希路由索引
+     * 查找路由时优先探测这些索引 , 没有命中再回退到 routes 映射表
+     * 已经加载了二进制路由表的模块 , 其索引放在 tableIndexes 中 , 不在这里
      */
-    static Map<Class, IService> services = new HashMap<>();
+    static List<IRouteIndex> routeIndexes = new CopyOnWriteArrayList<>();
+
+    /**
+     * 已经被二进制路由表替代的模块的最小完美哈希路由索引
+     * 查找路由时不再探测 , 只用于获取 @Route(preload = true) 注解的预加载路由
+     */
+    static List<IRouteIndex> tableIndexes = new CopyOnWriteArrayList<>();
+
+    /**
+     * 各模块带参数 / 通配符的路由地址匹配树
+     * 精确查找没有命中时 , 依次在这些匹配树中匹配
+     */
+    static List<RouteTrie> routeMatchers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 各模块的二进制路由表 , 在注册生成的路由类之前加载 , 替代同一模块的最小完美哈希索引
+     * routes 映射表没有命中时 , 在路由表中二分查找 , 仍然没有命中再加载分组
+     */
+    static List<RouteTable> routeTables = new CopyOnWriteArrayList<>();
+
+    /**
+     * 编译时生成的对象工厂
+     * 键 ( Key ) : 路由分组类 / IService 服务类 / Fragment 类
+     * 值 ( Value ) : 创建该类对象的工厂 , 以及该类在工厂中的 ID
+     */
+    static Map<Class<?>, FactoryEntry> factories = new ConcurrentHashMap<>();
+
+    /**
+     * 编译时生成的参数注入器注册表
+     * 键 ( Key ) : 使用了 @Extra 注解的类
+     * 值 ( Value ) : 创建该类参数注入器的注册表 , 以及注入器 ID
+     */
+    static Map<Class<?>, ExtraEntry> extrasIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 编译时生成的各模块拦截器注册表
+     * 第一次执行拦截器链时 , 合并创建所有拦截器并按照优先级排序
+     */
+    static List<IInterceptorRoot> interceptorRoots = new CopyOnWriteArrayList<>();
+
+    /**
+     * 分组加载锁 , 每个分组一个锁对象
+     * 同一分组的并发加载只加载一次 , 不同分组的加载互不阻塞
+     * 声明为 ConcurrentHashMap , putIfAbsent 调用 ConcurrentHashMap 的方法 ,
+     * Map.putIfAbsent 是 Java 8 的默认方法 , API 24 之前不存在
+     */
+    static ConcurrentHashMap<String, Object> groupLocks = new ConcurrentHashMap<>();
+
+    /**
+     * IService 服务注册表 , 每个服务只创建一次
+     */
+    static ServiceRegistry services = new ServiceRegistry();
+
+    /**
+     * @Route(cacheable = true) 注解的 Fragment 的实例缓存
+     */
+    static FragmentCache fragments = new FragmentCache();
+
+    /**
+     * 各模块服务接口索引合并后的结果
+     * 键 ( Key ) : IService 子接口 , 如 ComponentService
+     * 值 ( Value ) : 所有模块中该接口的实现类 , 按照优先级从大到小排序
+     */
+    static Map<Class<?>, ServiceEntry> serviceIndex = new ConcurrentHashMap<>();
+
+    /**
+     * 各模块的跨进程服务索引
+     * 键 ( Key ) : IService 子接口的类名 , 与 RemoteChannel 批次中的接口类名相同
+     * 值 ( Value ) : 生成该接口代理和调用代码的索引
+     */
+    static Map<String, RemoteEntry> remoteServices = new ConcurrentHashMap<>();
+
+    /**
+     * 对象工厂 及 类 ID
+     */
+    static final class FactoryEntry {
+        final IRouteFactory factory;
+        final int id;
+
+        FactoryEntry(IRouteFactory factory, int id) {
+            this.factory = factory;
+            this.id = id;
+        }
+    }
+
+    /**
+     * 服务接口的实现类 及 优先级 , 创建后不再修改 , 合并其它模块的实现时创建新对象
+     */
+    static final class ServiceEntry {
+        final Class<?>[] implementations;
+        final int[] priorities;
+
+        ServiceEntry(Class<?>[] implementations, int[] priorities) {
+            this.implementations = implementations;
+            this.priorities = priorities;
+        }
+
+        /**
+         * 合并另一个模块的实现类 , 两个数组都已按照优先级从大到小排序 , 优先级相同时当前模块的实现在前
+         * @param other 另一个模块中该接口的实现类
+         * @return 合并后的实现类
+         */
+        ServiceEntry merge(ServiceEntry other) {
+            int length = implementations.length + other.implementations.length;
+            Class<?>[] mergedImplementations = new Class<?>[length];
+            int[] mergedPriorities = new int[length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < length; k++) {
+                if (j == other.implementations.length
+                        || (i < implementations.length && priorities[i] >= other.priorities[j])) {
+                    mergedImplementations[k] = implementations[i];
+                    mergedPriorities[k] = priorities[i++];
+                } else {
+                    mergedImplementations[k] = other.implementations[j];
+                    mergedPriorities[k] = other.priorities[j++];
+                }
+            }
+            return new ServiceEntry(mergedImplementations, mergedPriorities);
+        }
+    }
+
+    /**
+     * 跨进程服务索引 及 接口 ID , 调用方进程中缓存该接口的代理
+     */
+    static final class RemoteEntry {
+        final IRemoteIndex remoteIndex;
+        final int id;
+
+        /**
+         * @Route(remote = true) 注解的实现类 , 服务所在进程只调用该实现
+         */
+        final Class<?> implementation;
+
+        /**
+         * 该接口的代理 , 第一次获取时创建
+         */
+        volatile IService proxy;
+
+        RemoteEntry(IRemoteIndex remoteIndex, int id) {
+            this.remoteIndex = remoteIndex;
+            this.id = id;
+            this.implementation = remoteIndex.implementations()[id];
+        }
+    }
+
+    /**
+     * 参数注入器注册表 及 注入器 ID
+     */
+    static final class ExtraEntry {
+        final IExtraRoot extraRoot;
+        final int id;
+
+        ExtraEntry(IExtraRoot extraRoot, int id) {
+            this.extraRoot = extraRoot;
+            this.id = id;
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package kim.hsl.route_core.callback;
+
+import kim.hsl.route_core.Postcard;
+
+/**
+ * 拦截器处理结果回调
+ */
+public interface InterceptorCallback {
+    /**
+     * 继续跳转 , 交给下一个拦截器处理
+     * @param postcard 路由跳转信息
+     */
+    void onContinue(Postcard postcard);
+
+    /**
+     * 中断跳转
+     * @param exception 中断原因
+     */
+    void onInterrupt(Throwable exception);
+}
@@ -0,0 +1,27 @@
+package kim.hsl.route_core.callback;
+
+import kim.hsl.route_core.Postcard;
+
+/**
+ * 路由跳转结果回调 , 所有回调都在主线程中执行
+ */
+public interface NavigationCallback {
+    /**
+     * 没有找到路由
+     * @param postcard 路由跳转信息
+     */
+    void onLost(Postcard postcard);
+
+    /**
+     * 已经启动目标界面
+     * @param postcard 路由跳转信息
+     */
+    void onArrival(Postcard postcard);
+
+    /**
+     * 跳转被拦截器中断 , 或拦截器处理超时
+     * @param postcard 路由跳转信息
+     * @param exception 中断原因
+     */
+    void onInterrupt(Postcard postcard, Throwable exception);
+}
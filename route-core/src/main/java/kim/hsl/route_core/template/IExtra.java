@@ -1,7 +1,7 @@
 package kim.hsl.route_core.template;
 
 /**
- * Activity 跳转传递参数注入接口
+ * Activity / Fragment 跳转传递参数注入接口
  */
 public interface IExtra {
     void loadExtra(Object target);
@@ -0,0 +1,18 @@
+package kim.hsl.route_core.template;
+
+/**
+ * 模块参数注入器注册表
+ * 由注解处理器为每个模块生成 Router_Extra_模块名 类
+ */
+public interface IExtraRoot {
+    /**
+     * 本模块中使用了 @Extra 注解的类 , 数组下标即为编译时分配的注入器 ID
+     */
+    Class<?>[] targets();
+
+    /**
+     * 根据注入器 ID 创建参数注入器 , 生成的代码中使用 switch 直接 new 对象
+     * @param id 注入器 ID
+     */
+    IExtra create(int id);
+}
@@ -0,0 +1,22 @@
+package kim.hsl.route_core.template;
+
+import kim.hsl.route_core.Postcard;
+import kim.hsl.route_core.callback.InterceptorCallback;
+
+/**
+ * 路由拦截器 , 如 登录检查 , 功能开关
+ * 实现类需要使用 @Interceptor 注解标注 , 并提供 public 无参构造函数
+ *
+ * 拦截器在后台线程中执行 , 每个拦截器只创建一次
+ */
+public interface IInterceptor {
+    /**
+     * 处理路由跳转
+     * 处理完成后必须调用 callback.onContinue 继续跳转 , 或调用 callback.onInterrupt 中断跳转 ,
+     * 可以在其它线程中异步回调 , 超时未回调则中断跳转
+     *
+     * @param postcard 路由跳转信息
+     * @param callback 拦截结果回调
+     */
+    void process(Postcard postcard, InterceptorCallback callback);
+}
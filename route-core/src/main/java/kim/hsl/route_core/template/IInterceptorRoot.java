@@ -0,0 +1,18 @@
+package kim.hsl.route_core.template;
+
+/**
+ * 模块拦截器注册表
+ * 由注解处理器为每个模块生成 Router_Interceptors_模块名 类
+ */
+public interface IInterceptorRoot {
+    /**
+     * 本模块拦截器的优先级 , 已按照优先级从小到大排序 , 数组下标即为编译时分配的拦截器 ID
+     */
+    int[] priorities();
+
+    /**
+     * 根据拦截器 ID 创建拦截器 , 生成的代码中使用 switch 直接 new 对象
+     * @param id 拦截器 ID
+     */
+    IInterceptor create(int id);
+}
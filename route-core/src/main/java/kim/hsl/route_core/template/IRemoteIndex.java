@@ -0,0 +1,40 @@
+package kim.hsl.route_core.template;
+
+import android.os.Parcel;
+
+import kim.hsl.route_core.RemoteChannel;
+
+/**
+ * 模块跨进程服务索引 , 由注解处理器为 @Route(remote = true) 注解的服务生成 Router_Remote_模块名 类
+ * 调用方进程使用生成的代理将调用写入 RemoteChannel , 服务所在进程使用 invoke 读取参数并调用服务
+ */
+public interface IRemoteIndex {
+    /**
+     * 可以跨进程调用的 IService 子接口 , 数组下标即为接口 ID
+     */
+    Class<?>[] interfaces();
+
+    /**
+     * 接口对应的 @Route(remote = true) 注解的实现类 , 与 interfaces 的下标对应
+     * 服务所在进程只调用该实现类 , 不按照优先级选择同一接口的其它实现
+     */
+    Class<?>[] implementations();
+
+    /**
+     * 创建接口的代理 , 代理实现该接口 , 调用时将方法 ID 和参数写入 RemoteChannel
+     * @param id 接口 ID
+     * @param channel 调用方进程的远程调用通道
+     * @return 代理对象
+     */
+    IService createProxy(int id, RemoteChannel channel);
+
+    /**
+     * 在服务所在进程中读取参数 , 调用服务 , 有返回值时将返回值写入 reply
+     * @param id 接口 ID
+     * @param service 服务所在进程中该接口的实现 , 即 implementations 中的实现类
+     * @param method 方法 ID
+     * @param data 参数
+     * @param reply 返回值 , 单向调用没有返回值
+     */
+    void invoke(int id, IService service, int method, Parcel data, Parcel reply);
+}
@@ -0,0 +1,23 @@
+package kim.hsl.route_core.template;
+
+/**
+ * 模块对象工厂 , 不使用反射创建路由分组 , IService 服务和 Fragment
+ * 由注解处理器为每个模块生成 Router_Factory_模块名 类
+ */
+public interface IRouteFactory {
+    /**
+     * 该工厂可以创建的类 , 数组下标即为编译时分配的类 ID
+     */
+    Class<?>[] classes();
+
+    /**
+     * 可以缓存实例的 Fragment 的类 ID , 即 @Route(cacheable = true) 注解的 Fragment
+     */
+    int[] cacheable();
+
+    /**
+     * 根据类 ID 创建对象 , 生成的代码中使用 switch 直接 new 对象
+     * @param id 类 ID
+     */
+    Object create(int id);
+}
@@ -2,11 +2,16 @@ package kim.hsl.route_core.template;
 
 import java.util.Map;
 
-import kim.hsl.router_annotation.model.RouteBean;
+import kim.hsl.router_annotation.model.RouteMeta;
 
 /**
  * 路由分组接口
  */
 public interface IRouteGroup {
-    void loadInto(Map<String, RouteBean> atlas);
+    void loadInto(Map<String, RouteMeta> atlas);
+
+    /**
+     * 分组中的路由个数 , 加载分组时用于预先分配映射表容量
+     */
+    int routeCount();
 }
@@ -0,0 +1,29 @@
+package kim.hsl.route_core.template;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 模块路由的最小完美哈希索引
+ * 由注解处理器为每个模块生成 Router_Index_模块名 类
+ */
+public interface IRouteIndex {
+    /**
+     * 最小完美哈希的种子数组 , 配合 RouteHash.lookup 计算路由 ID
+     */
+    int[] seeds();
+
+    /**
+     * 下标为路由 ID 的路由地址数组 , 用于验证是否命中
+     */
+    String[] paths();
+
+    /**
+     * 根据路由 ID 获取路由信息
+     */
+    RouteMeta route(int id);
+
+    /**
+     * 需要预加载的路由 ID , 即 @Route(preload = true) 的路由 , 按照预加载优先级从大到小排列
+     */
+    int[] preloads();
+}
@@ -0,0 +1,27 @@
+package kim.hsl.route_core.template;
+
+/**
+ * 模块中带参数 / 通配符的路由地址匹配树 , 如 /user/{id}/orders/*
+ * 由注解处理器为每个模块生成 Router_Matcher_模块名 类 , 数组格式见 RouteTrie
+ */
+public interface IRouteMatcher {
+    /**
+     * 节点数组 , 每个节点 RouteTrie.NODE_SIZE 个 int
+     */
+    int[] nodes();
+
+    /**
+     * 字面量边的目标节点
+     */
+    int[] edges();
+
+    /**
+     * 字面量边对应的路径段
+     */
+    String[] labels();
+
+    /**
+     * 下标为路由 ID 的路由地址模板
+     */
+    String[] patterns();
+}
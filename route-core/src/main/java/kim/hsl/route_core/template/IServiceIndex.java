@@ -0,0 +1,23 @@
+package kim.hsl.route_core.template;
+
+/**
+ * 模块服务接口索引 , 记录每个 IService 子接口在本模块中的实现类
+ * 由注解处理器为每个模块生成 Router_Services_模块名 类
+ */
+public interface IServiceIndex {
+    /**
+     * 本模块服务实现的 IService 子接口 , 如 ComponentService , 数组下标即为接口 ID
+     */
+    Class<?>[] interfaces();
+
+    /**
+     * 每个接口的实现类 , 已按照 @Route 注解的 priority 从大到小排序
+     * 下标为接口 ID
+     */
+    Class<?>[][] implementations();
+
+    /**
+     * 与 implementations() 对应的优先级
+     */
+    int[][] priorities();
+}
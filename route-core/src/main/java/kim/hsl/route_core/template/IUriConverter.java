@@ -0,0 +1,26 @@
+package kim.hsl.route_core.template;
+
+import android.os.Bundle;
+
+import kim.hsl.route_core.utils.UriParser;
+
+/**
+ * 深度链接参数转换接口 , 由注解处理器生成的 _Extra 参数注入器实现
+ * 将 URI 中的参数按照 @Extra 字段的类型直接写入跳转参数 , 如 ?age=18 调用 extras.putInt("age", 18)
+ */
+public interface IUriConverter {
+    /**
+     * 可以从 URI 中转换的跳转参数名称 , 按照 String.compareTo 排序 , 用于 UriParser.keyIndex 二分查找
+     * 只包括基本类型和 String 类型的 @Extra 字段
+     */
+    String[] keys();
+
+    /**
+     * 将 UriParser 的当前参数值转换为字段类型 , 写入跳转参数
+     * @param index 跳转参数名称在 keys() 中的下标
+     * @param parser 当前参数所在的解析器
+     * @param extras 跳转参数
+     * @throws NumberFormatException 参数值无法转换为字段类型
+     */
+    void convert(int index, UriParser parser, Bundle extras);
+}
@@ -0,0 +1,226 @@
+package kim.hsl.route_core.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dalvik.system.DexFile;
+
+/**
+ * 扫描 DEX 文件 , 获取指定包名下的类
+ *
+ * 每个 DEX 容器 ( APK / split APK / 旧版 MultiDex 释放出的 classesN.zip ) 作为一个任务 ,
+ * 在线程数与 CPU 核数一致的线程池中并行扫描 , 结果合并到并发集合中
+ */
+public class ClassUtils {
+    private static final String TAG = "ClassUtils";
+
+    /**
+     * 旧版 MultiDex 释放出的从 DEX 文件位置及命名规则
+     * /data/data/包名/code_cache/secondary-dexes/base.apk.classes2.zip
+     */
+    private static final String EXTRACTED_NAME_EXT = ".classes";
+    private static final String EXTRACTED_SUFFIX = ".zip";
+    private static final String SECONDARY_FOLDER_NAME = "code_cache" + File.separator + "secondary-dexes";
+
+    /**
+     * MultiDex 库记录从 DEX 个数的 SharedPreferences
+     */
+    private static final String PREFS_FILE = "multidex.version";
+    private static final String KEY_DEX_NUMBER = "dex.number";
+
+    /**
+     * ART 虚拟机 ( 版本号 2.1 及以上 ) 原生支持 MultiDex
+     */
+    private static final int VM_WITH_MULTIDEX_VERSION_MAJOR = 2;
+    private static final int VM_WITH_MULTIDEX_VERSION_MINOR = 1;
+
+    private ClassUtils() {
+    }
+
+    /**
+     * 获取应用所有的 DEX 容器路径
+     *
+     * 包括 安装 APK , split APK ,
+     * 以及不支持 MultiDex 的虚拟机 ( Android 5.0 以下 ) 上由 MultiDex 库释放出的 classesN.zip
+     *
+     * @param context 上下文
+     * @param applicationInfo 应用信息
+     * @return 所有 DEX 容器路径
+     */
+    public static List<String> getSourcePaths(Context context, ApplicationInfo applicationInfo) {
+        // 使用集合存放应用安装的 APK 文件
+        List<String> sourcePaths = new ArrayList<>();
+
+        // 一般情况下 , 一个应用只有一个安装 APK
+        sourcePaths.add(applicationInfo.sourceDir);
+
+        // 如果是 instant run 形式安装的 , 则有多个 APK 文件
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            if (null != applicationInfo.splitSourceDirs) {
+                sourcePaths.addAll(Arrays.asList(applicationInfo.splitSourceDirs));
+            }
+        }
+
+        // 虚拟机不支持 MultiDex 时 , 从 DEX 被 MultiDex 库释放到了 code_cache/secondary-dexes 目录中
+        if (!isVMMultidexCapable()) {
+            File sourceApk = new File(applicationInfo.sourceDir);
+            File dexDir = new File(applicationInfo.dataDir, SECONDARY_FOLDER_NAME);
+            String extractedFilePrefix = sourceApk.getName() + EXTRACTED_NAME_EXT;
+
+            // 从 DEX 从 classes2 开始编号
+            int totalDexNumber = getMultiDexPreferences(context).getInt(KEY_DEX_NUMBER, 1);
+            for (int secondaryNumber = 2; secondaryNumber <= totalDexNumber; secondaryNumber++) {
+                String fileName = extractedFilePrefix + secondaryNumber + EXTRACTED_SUFFIX;
+                File extractedFile = new File(dexDir, fileName);
+                if (extractedFile.isFile()) {
+                    sourcePaths.add(extractedFile.getAbsolutePath());
+                } else {
+                    Log.w(TAG, "getSourcePaths : 从 DEX 文件不存在 " + extractedFile.getPath());
+                }
+            }
+        }
+
+        return sourcePaths;
+    }
+
+    /**
+     * 并行扫描所有 DEX 容器 , 获取指定包名下的类名
+     *
+     * @param sourcePaths 所有 DEX 容器路径
+     * @param packageName 包名前缀
+     * @param timeoutMillis 扫描超时时间 , 单位毫秒
+     * @param classNames 扫描结果 , 必须是线程安全的集合
+     * @return 是否在超时时间内扫描完成 , 超时或被中断返回 false , 此时 classNames 中的结果可能不完整
+     */
+    public static boolean scanClassNames(List<String> sourcePaths, final String packageName,
+                                         long timeoutMillis, final Set<String> classNames) {
+        final CountDownLatch latch = new CountDownLatch(sourcePaths.size());
+        ThreadPoolExecutor executor = newScanExecutor(sourcePaths.size());
+        try {
+            // 每个 DEX 容器一个扫描任务
+            for (final String path : sourcePaths) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            scanDexFile(path, packageName, classNames);
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                });
+            }
+
+            if (!latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "scanClassNames : 扫描 DEX 文件超时 " + timeoutMillis + " ms");
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 扫描单个 DEX 容器
+     */
+    private static void scanDexFile(String path, String packageName, Set<String> classNames) {
+        DexFile dexfile = null;
+        try {
+            long start = System.nanoTime();
+            if (path.endsWith(EXTRACTED_SUFFIX)) {
+                // 旧版 MultiDex 释放出的 zip 文件 , 不能直接使用 new DexFile 打开
+                dexfile = DexFile.loadDex(path, path + ".tmp", 0);
+            } else {
+                dexfile = new DexFile(path);
+            }
+            RouterMetrics.record(RouterMetrics.INIT_DEX_OPEN, start);
+            start = System.nanoTime();
+
+            Enumeration<String> dexEntries = dexfile.entries();
+            // 遍历 DEX 文件中的所有的类
+            while (dexEntries.hasMoreElements()) {
+                String className = dexEntries.nextElement();
+                if (className.startsWith(packageName)) {
+                    classNames.add(className);
+                }
+            }
+            RouterMetrics.record(RouterMetrics.INIT_DEX_ENUMERATE, start);
+        } catch (IOException e) {
+            Log.e(TAG, "scanDexFile : 打开 DEX 文件失败 " + path, e);
+        } finally {
+            if (dexfile != null) {
+                try {
+                    dexfile.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 创建扫描线程池 , 线程数不超过 CPU 核数
+     */
+    private static ThreadPoolExecutor newScanExecutor(int taskCount) {
+        int poolSize = Math.max(1, Math.min(taskCount, Runtime.getRuntime().availableProcessors()));
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "Router-scan-" + mCount.incrementAndGet());
+            }
+        });
+    }
+
+    private static SharedPreferences getMultiDexPreferences(Context context) {
+        // MultiDex 库在 Application 进程中写入该文件 , 使用 MODE_MULTI_PROCESS 读取最新值
+        return context.getSharedPreferences(PREFS_FILE, Context.MODE_MULTI_PROCESS);
+    }
+
+    /**
+     * 判断虚拟机是否原生支持 MultiDex
+     * ART 虚拟机的 java.vm.version 为 2.1 及以上
+     */
+    private static boolean isVMMultidexCapable() {
+        String versionString = System.getProperty("java.vm.version");
+        if (versionString == null) {
+            return false;
+        }
+        Matcher matcher = Pattern.compile("(\\d+)\\.(\\d+)(\\.\\d+)?").matcher(versionString);
+        if (!matcher.matches()) {
+            return false;
+        }
+        try {
+            int major = Integer.parseInt(matcher.group(1));
+            int minor = Integer.parseInt(matcher.group(2));
+            return major > VM_WITH_MULTIDEX_VERSION_MAJOR
+                    || (major == VM_WITH_MULTIDEX_VERSION_MAJOR && minor >= VM_WITH_MULTIDEX_VERSION_MINOR);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package kim.hsl.route_core.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定分桶的耗时直方图
+ *
+ * 所有计数都保存在一个 AtomicLongArray 中 , 记录耗时只有原子自增 , 不分配内存 , 不加锁
+ * 数组布局 : [ 0 , BUCKET_COUNT ) 为各分桶计数 , 之后依次为 总次数 , 总耗时 , 最大耗时
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 分桶上界 , 单位微秒 , 最后一个分桶没有上界
+     */
+    static final long[] BOUNDS_MICROS = {
+            50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000
+    };
+
+    public static final int BUCKET_COUNT = BOUNDS_MICROS.length + 1;
+
+    private static final int INDEX_COUNT = BUCKET_COUNT;
+    private static final int INDEX_TOTAL = BUCKET_COUNT + 1;
+    private static final int INDEX_MAX = BUCKET_COUNT + 2;
+
+    private final AtomicLongArray mValues = new AtomicLongArray(BUCKET_COUNT + 3);
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时 , 单位纳秒
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long micros = nanos / 1000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros >= BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        mValues.incrementAndGet(bucket);
+        mValues.incrementAndGet(INDEX_COUNT);
+        mValues.addAndGet(INDEX_TOTAL, nanos);
+
+        long max = mValues.get(INDEX_MAX);
+        while (nanos > max && !mValues.compareAndSet(INDEX_MAX, max, nanos)) {
+            max = mValues.get(INDEX_MAX);
+        }
+    }
+
+    /**
+     * 拷贝当前的计数
+     * @return 分桶计数数组 , 总次数 , 总耗时 , 最大耗时
+     */
+    long[] copyValues() {
+        long[] values = new long[mValues.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = mValues.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * 获取分桶上界 , 单位微秒 , 最后一个分桶没有上界
+     */
+    public static long[] getBoundsMicros() {
+        return BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * 直方图快照 , 创建后不再变化
+     */
+    public static final class Snapshot {
+        private final String mName;
+        private final long[] mBuckets;
+        private final long mCount;
+        private final long mTotalNanos;
+        private final long mMaxNanos;
+
+        Snapshot(String name, LatencyHistogram histogram) {
+            long[] values = histogram.copyValues();
+            this.mName = name;
+            this.mBuckets = new long[BUCKET_COUNT];
+            System.arraycopy(values, 0, mBuckets, 0, BUCKET_COUNT);
+            this.mCount = values[INDEX_COUNT];
+            this.mTotalNanos = values[INDEX_TOTAL];
+            this.mMaxNanos = values[INDEX_MAX];
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        public long getAverageNanos() {
+            return mCount == 0 ? 0 : mTotalNanos / mCount;
+        }
+
+        /**
+         * 获取各分桶的计数 , 分桶上界见 LatencyHistogram.getBoundsMicros
+         */
+        public long[] getBuckets() {
+            return mBuckets.clone();
+        }
+
+        /**
+         * 估算百分位耗时 , 返回该百分位所在分桶的上界 , 落在最后一个分桶时返回最大耗时
+         * @param percentile 百分位 , 如 0.5 , 0.9 , 0.99
+         * @return 耗时 , 单位微秒
+         */
+        public long getPercentileMicros(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(mCount * percentile);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+                seen += mBuckets[i];
+                if (seen >= target) {
+                    return BOUNDS_MICROS[i];
+                }
+            }
+            return mMaxNanos / 1000;
+        }
+
+        @Override
+        public String toString() {
+            return mName + " : count=" + mCount
+                    + " avg=" + getAverageNanos() / 1000 + "us"
+                    + " p50<=" + getPercentileMicros(0.5) + "us"
+                    + " p90<=" + getPercentileMicros(0.9) + "us"
+                    + " p99<=" + getPercentileMicros(0.99) + "us"
+                    + " max=" + mMaxNanos / 1000 + "us";
+        }
+    }
+}
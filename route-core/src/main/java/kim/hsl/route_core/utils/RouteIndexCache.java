@@ -0,0 +1,116 @@
+package kim.hsl.route_core.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 路由类索引的本地缓存
+ *
+ * 扫描 DEX 文件得到的 kim.hsl.router 包下的类名只有在 APK 变化时才会变化 ,
+ * 将其缓存到 SharedPreferences 中 , 使用 APK 版本信息作为缓存版本 ,
+ * 版本一致时直接使用缓存 , 不再遍历 DEX 文件
+ */
+public class RouteIndexCache {
+
+    /**
+     * 缓存文件名称
+     */
+    private static final String SP_NAME = "kim.hsl.router.index";
+
+    /**
+     * 缓存版本
+     */
+    private static final String KEY_VERSION = "version";
+
+    /**
+     * 缓存的类名集合
+     */
+    private static final String KEY_CLASS_NAMES = "class_names";
+
+    private RouteIndexCache() {
+    }
+
+    /**
+     * 生成缓存版本 , 由 versionCode + lastUpdateTime + APK 文件列表组成
+     *
+     * 应用升级 / 覆盖安装时 versionCode 或 lastUpdateTime 会变化 , 缓存自动失效
+     * debug 包通过 Apply Changes 等方式更新时不一定会修改 lastUpdateTime ,
+     * 因此 debug 包额外加入每个 APK 文件的修改时间和大小
+     *
+     * @param applicationInfo 应用信息
+     * @param packageInfo 安装包信息
+     * @param sourcePaths 所有 APK 文件路径 , 包括 split APK
+     * @return 缓存版本
+     */
+    public static String getIndexVersion(ApplicationInfo applicationInfo, PackageInfo packageInfo,
+                                         List<String> sourcePaths) {
+        boolean debuggable = (applicationInfo.flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+
+        StringBuilder builder = new StringBuilder();
+        if (packageInfo != null) {
+            builder.append(packageInfo.versionCode)
+                    .append('|')
+                    .append(packageInfo.lastUpdateTime);
+        }
+        for (String path : sourcePaths) {
+            builder.append('|').append(path);
+            if (debuggable) {
+                File file = new File(path);
+                builder.append(':').append(file.lastModified())
+                        .append(':').append(file.length());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 读取缓存的类名集合
+     * @param context 上下文
+     * @param indexVersion 当前的缓存版本
+     * @return 缓存的类名集合 , 缓存不存在或版本不一致返回 null
+     */
+    public static Set<String> get(Context context, String indexVersion) {
+        SharedPreferences sp = getSharedPreferences(context);
+        if (!indexVersion.equals(sp.getString(KEY_VERSION, null))) {
+            return null;
+        }
+        Set<String> classNames = sp.getStringSet(KEY_CLASS_NAMES, null);
+        if (classNames == null) {
+            return null;
+        }
+        // SharedPreferences 返回的集合不能修改 , 拷贝一份
+        return new HashSet<>(classNames);
+    }
+
+    /**
+     * 缓存扫描得到的类名集合
+     * @param context 上下文
+     * @param indexVersion 当前的缓存版本
+     * @param classNames 扫描得到的类名集合
+     */
+    public static void put(Context context, String indexVersion, Set<String> classNames) {
+        getSharedPreferences(context).edit()
+                .putString(KEY_VERSION, indexVersion)
+                .putStringSet(KEY_CLASS_NAMES, new HashSet<>(classNames))
+                .apply();
+    }
+
+    /**
+     * 清除缓存 , 下次启动时重新扫描 DEX 文件
+     * @param context 上下文
+     */
+    public static void clear(Context context) {
+        getSharedPreferences(context).edit().clear().apply();
+    }
+
+    private static SharedPreferences getSharedPreferences(Context context) {
+        return context.getSharedPreferences(SP_NAME, Context.MODE_PRIVATE);
+    }
+}
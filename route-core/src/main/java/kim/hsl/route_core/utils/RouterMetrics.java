@@ -0,0 +1,189 @@
+package kim.hsl.route_core.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 路由耗时统计 , 路由框架内部使用 , 通过 Router.getStats 获取统计快照
+ *
+ * 各阶段的直方图在类加载时创建 , 分组 / 路由的直方图在第一次记录时创建 ,
+ * 之后记录耗时只有一次 ConcurrentHashMap 查找和若干原子自增 , 不分配内存
+ */
+public final class RouterMetrics {
+
+    /**
+     * 初始化总耗时
+     */
+    public static final int INIT = 0;
+    /**
+     * 打开 DEX 文件
+     */
+    public static final int INIT_DEX_OPEN = 1;
+    /**
+     * 遍历 DEX 文件中的类
+     */
+    public static final int INIT_DEX_ENUMERATE = 2;
+    /**
+     * 加载路由类并创建对象
+     */
+    public static final int INIT_CLASS_LOAD = 3;
+    /**
+     * 将路由类的信息装载到仓库中 ( loadInto 等 )
+     */
+    public static final int INIT_LOAD_INTO = 4;
+    /**
+     * 加载路由分组
+     */
+    public static final int GROUP_LOAD = 5;
+    /**
+     * 查找路由
+     */
+    public static final int ROUTE_LOOKUP = 6;
+    /**
+     * 路由跳转 , 从发起跳转到启动 Activity , 包括拦截器的耗时
+     */
+    public static final int NAVIGATION = 7;
+    /**
+     * 创建 IService 服务
+     */
+    public static final int SERVICE_CREATE = 8;
+    /**
+     * 参数注入
+     */
+    public static final int EXTRA_INJECT = 9;
+    /**
+     * 加载各模块的二进制路由表
+     */
+    public static final int INIT_ROUTE_TABLE = 10;
+    /**
+     * 映射其它进程写出的共享路由表
+     */
+    public static final int INIT_SHARED_TABLE = 11;
+    /**
+     * 获取 Fragment , 包括从缓存中复用的 Fragment
+     */
+    public static final int FRAGMENT_CREATE = 12;
+
+    private static final String[] PHASE_NAMES = {
+            "init", "init.dexOpen", "init.dexEnumerate", "init.classLoad", "init.loadInto",
+            "group.load", "route.lookup", "navigation", "service.create", "extra.inject",
+            "init.routeTable", "init.sharedTable", "fragment.create"
+    };
+
+    /**
+     * 最多统计的分组 / 路由个数 , 避免不存在的路由地址使统计无限增长
+     */
+    private static final int MAX_KEYS = 256;
+
+    private static final LatencyHistogram[] mPhases = new LatencyHistogram[PHASE_NAMES.length];
+
+    static {
+        for (int i = 0; i < mPhases.length; i++) {
+            mPhases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 各分组的加载耗时
+     */
+    private static final ConcurrentHashMap<String, LatencyHistogram> mGroups = new ConcurrentHashMap<>();
+
+    /**
+     * 各路由的查找耗时
+     */
+    private static final ConcurrentHashMap<String, LatencyHistogram> mLookups = new ConcurrentHashMap<>();
+
+    /**
+     * 各路由的跳转耗时
+     */
+    private static final ConcurrentHashMap<String, LatencyHistogram> mNavigations = new ConcurrentHashMap<>();
+
+    private RouterMetrics() {
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     * @param phase 阶段 , 如 RouterMetrics.GROUP_LOAD
+     * @param startNanos 开始时间 , System.nanoTime()
+     */
+    public static void record(int phase, long startNanos) {
+        mPhases[phase].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 记录分组加载耗时 , 同时计入 GROUP_LOAD 阶段
+     */
+    public static void recordGroup(String group, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        mPhases[GROUP_LOAD].record(nanos);
+        recordKey(mGroups, group, nanos);
+    }
+
+    /**
+     * 记录路由查找耗时 , 同时计入 ROUTE_LOOKUP 阶段
+     */
+    public static void recordLookup(String path, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        mPhases[ROUTE_LOOKUP].record(nanos);
+        recordKey(mLookups, path, nanos);
+    }
+
+    /**
+     * 记录路由跳转耗时 , 同时计入 NAVIGATION 阶段
+     */
+    public static void recordNavigation(String path, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        mPhases[NAVIGATION].record(nanos);
+        recordKey(mNavigations, path, nanos);
+    }
+
+    private static void recordKey(ConcurrentHashMap<String, LatencyHistogram> histograms, String key, long nanos) {
+        if (key == null) {
+            return;
+        }
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            if (histograms.size() >= MAX_KEYS) {
+                return;
+            }
+            histogram = new LatencyHistogram();
+            LatencyHistogram previous = histograms.putIfAbsent(key, histogram);
+            if (previous != null) {
+                histogram = previous;
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * 获取所有阶段的统计快照 , 按照阶段顺序排列
+     */
+    public static LatencyHistogram.Snapshot[] snapshotPhases() {
+        LatencyHistogram.Snapshot[] snapshots = new LatencyHistogram.Snapshot[mPhases.length];
+        for (int i = 0; i < mPhases.length; i++) {
+            snapshots[i] = new LatencyHistogram.Snapshot(PHASE_NAMES[i], mPhases[i]);
+        }
+        return snapshots;
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> snapshotGroups() {
+        return snapshot(mGroups);
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> snapshotLookups() {
+        return snapshot(mLookups);
+    }
+
+    public static Map<String, LatencyHistogram.Snapshot> snapshotNavigations() {
+        return snapshot(mNavigations);
+    }
+
+    private static Map<String, LatencyHistogram.Snapshot> snapshot(Map<String, LatencyHistogram> histograms) {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            snapshots.put(entry.getKey(), new LatencyHistogram.Snapshot(entry.getKey(), entry.getValue()));
+        }
+        return snapshots;
+    }
+}
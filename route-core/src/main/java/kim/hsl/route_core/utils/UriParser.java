@@ -0,0 +1,410 @@
+package kim.hsl.route_core.utils;
+
+/**
+ * 深度链接 URI 解析器 , 直接在 URI 字符串上按照下标解析路径和查询参数
+ *
+ * Uri.getQueryParameter 每次调用都要从头扫描查询字符串 , 并为参数名 , 参数值分别创建解码后的字符串 ,
+ * 该解析器只扫描一次 , 参数名和参数值解码到复用的字符数组中 :
+ * 1. 参数名与目标界面的参数名数组直接按字符比较 , 不创建字符串
+ * 2. intValue / longValue 等方法直接从字符数组中解析 , 不创建字符串 , 基本类型不会装箱
+ * 3. 只有 String 类型的参数 , 以及目标界面没有声明的参数 , 才会创建字符串
+ *
+ * 解析器保存解析状态 , 不能在多个线程之间共享 , 通过 obtain 获取当前线程复用的解析器
+ *
+ * 使用方式 :
+ * UriParser parser = UriParser.obtain();
+ * if (parser.parse(uri.toString())) {
+ *     String path = parser.path();
+ *     while (parser.nextParameter()) {
+ *         int index = parser.keyIndex(keys);
+ *         ...
+ *     }
+ * }
+ */
+public final class UriParser {
+
+    private static final ThreadLocal<UriParser> sParsers = new ThreadLocal<UriParser>() {
+        @Override
+        protected UriParser initialValue() {
+            return new UriParser();
+        }
+    };
+
+    /**
+     * 无法解码的字节使用的替换字符
+     */
+    private static final char REPLACEMENT = '\uFFFD';
+
+    /**
+     * 正在解析的 URI 字符串
+     */
+    private String mUri;
+
+    /**
+     * 路径在 URI 字符串中的范围 [mPathStart, mPathEnd)
+     */
+    private int mPathStart;
+    private int mPathEnd;
+
+    /**
+     * 下一个查询参数的开始位置 , 查询字符串的结束位置
+     */
+    private int mPosition;
+    private int mQueryEnd;
+
+    /**
+     * 当前查询参数解码后的参数名
+     */
+    private char[] mKey = new char[32];
+    private int mKeyLength;
+
+    /**
+     * 当前参数解码后的参数值
+     */
+    private char[] mValue = new char[64];
+    private int mValueLength;
+
+    private UriParser() {
+    }
+
+    /**
+     * 获取当前线程复用的解析器
+     */
+    public static UriParser obtain() {
+        return sParsers.get();
+    }
+
+    /**
+     * 开始解析 URI , 如 myapp://host/user/10001?tab=2#top
+     * 路径为 /user/10001 , 查询参数为 tab=2 , 片段 #top 被忽略
+     *
+     * @param uri URI 字符串
+     * @return URI 包含以 / 开头的路径返回 true
+     */
+    public boolean parse(String uri) {
+        mUri = uri;
+        mKeyLength = 0;
+        mValueLength = 0;
+
+        int length = uri.length();
+        int end = indexOf('#', 0, length);
+        int query = indexOf('?', 0, end);
+        int hierarchyEnd = query;
+
+        // 协议 , 在第一个 / ? # 之前出现的 : 之前的部分
+        int start = 0;
+        for (int i = 0; i < hierarchyEnd; i++) {
+            char c = uri.charAt(i);
+            if (c == ':') {
+                start = i + 1;
+                break;
+            }
+            if (c == '/') {
+                break;
+            }
+        }
+
+        // 主机 , // 之后 , 下一个 / 之前的部分
+        if (uri.startsWith("//", start)) {
+            start = indexOf('/', start + 2, hierarchyEnd);
+        }
+
+        mPathStart = start;
+        mPathEnd = hierarchyEnd;
+        mPosition = query < end ? query + 1 : end;
+        mQueryEnd = end;
+        return mPathStart < mPathEnd && uri.charAt(mPathStart) == '/';
+    }
+
+    /**
+     * 解码后的路径 , 即路由地址
+     */
+    public String path() {
+        if (indexOf('%', mPathStart, mPathEnd) < mPathEnd) {
+            mValueLength = decode(mPathStart, mPathEnd, false);
+            return new String(mValue, 0, mValueLength);
+        }
+        return mUri.substring(mPathStart, mPathEnd);
+    }
+
+    /**
+     * 解析下一个查询参数 , 解码后的参数名和参数值保存在复用的字符数组中
+     * @return 没有更多查询参数返回 false
+     */
+    public boolean nextParameter() {
+        while (mPosition < mQueryEnd) {
+            int start = mPosition;
+            int end = indexOf('&', start, mQueryEnd);
+            mPosition = end + 1;
+            if (start == end) {
+                // 空参数 , 如 a=1&&b=2
+                continue;
+            }
+            int equals = indexOf('=', start, end);
+            mKeyLength = decode(start, equals, true);
+            mValueLength = equals < end ? decode(equals + 1, end, false) : 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 在按照字符串排序的参数名数组中二分查找当前参数名 , 不创建字符串
+     * @param keys 参数名数组 , 按照 String.compareTo 排序
+     * @return 参数名的下标 , 没有找到返回 -1
+     */
+    public int keyIndex(String[] keys) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(keys[mid]);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 比较 key 与当前参数名 , 与 String.compareTo 的规则一致
+     */
+    private int compareKey(String key) {
+        int min = Math.min(key.length(), mKeyLength);
+        for (int i = 0; i < min; i++) {
+            int cmp = key.charAt(i) - mKey[i];
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return key.length() - mKeyLength;
+    }
+
+    /**
+     * 当前参数名
+     */
+    public String key() {
+        return new String(mKey, 0, mKeyLength);
+    }
+
+    /**
+     * 替换当前参数值 , 用于转换路由地址中的 {id} 等参数
+     * @param value 参数值
+     */
+    public void setValue(String value) {
+        int length = value.length();
+        if (mValue.length < length) {
+            mValue = new char[Math.max(length, mValue.length * 2)];
+        }
+        value.getChars(0, length, mValue, 0);
+        mValueLength = length;
+    }
+
+    /**
+     * 当前参数值
+     */
+    public String stringValue() {
+        return new String(mValue, 0, mValueLength);
+    }
+
+    /**
+     * 当前参数值转换为 boolean , "true" ( 忽略大小写 ) 和 "1" 为 true , 其它值为 false
+     */
+    public boolean booleanValue() {
+        if (mValueLength == 1) {
+            return mValue[0] == '1';
+        }
+        if (mValueLength != 4) {
+            return false;
+        }
+        return (mValue[0] | 0x20) == 't' && (mValue[1] | 0x20) == 'r'
+                && (mValue[2] | 0x20) == 'u' && (mValue[3] | 0x20) == 'e';
+    }
+
+    public byte byteValue() {
+        return (byte) parseLong(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    public short shortValue() {
+        return (short) parseLong(Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    public int intValue() {
+        return (int) parseLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long longValue() {
+        return parseLong(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 当前参数值的第一个字符
+     */
+    public char charValue() {
+        if (mValueLength == 0) {
+            throw new NumberFormatException("参数值为空");
+        }
+        return mValue[0];
+    }
+
+    /**
+     * 浮点数的解析规则较复杂 , 使用 Float.parseFloat , 会创建一个字符串
+     */
+    public float floatValue() {
+        return Float.parseFloat(stringValue());
+    }
+
+    public double doubleValue() {
+        return Double.parseDouble(stringValue());
+    }
+
+    /**
+     * 将当前参数值解析为十进制整数 , 与 Long.parseLong 相同 , 使用负数累加避免溢出
+     * @param min 最小值
+     * @param max 最大值
+     * @return 整数值
+     * @throws NumberFormatException 参数值不是整数或超出范围
+     */
+    private long parseLong(long min, long max) {
+        int i = 0;
+        boolean negative = false;
+        if (mValueLength > 0 && (mValue[0] == '-' || mValue[0] == '+')) {
+            negative = mValue[0] == '-';
+            i = 1;
+        }
+        if (i == mValueLength) {
+            throw new NumberFormatException("参数值不是整数 : " + stringValue());
+        }
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < mValueLength; i++) {
+            int digit = mValue[i] - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw new NumberFormatException("参数值不是整数或超出范围 : " + stringValue());
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw new NumberFormatException("参数值超出范围 : " + stringValue());
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 将 URI 字符串的 [start, end) 部分解码到参数名或参数值数组中
+     * %XX 按照 UTF-8 解码 , 查询参数中的 + 解码为空格
+     *
+     * 先将原字符批量拷贝到数组中 , 再在数组上原地解码 , 解码后的字符个数不会超过原字符个数 ,
+     * 写入位置始终不超过读取位置 , 没有需要解码的字符时只有一次拷贝
+     *
+     * @param start 开始位置
+     * @param end 结束位置
+     * @param key 是否解码到参数名数组中
+     * @return 解码后的字符个数
+     */
+    private int decode(int start, int end, boolean key) {
+        int count = end - start;
+        char[] chars = key ? mKey : mValue;
+        if (chars.length < count) {
+            chars = new char[Math.max(count, chars.length * 2)];
+            if (key) {
+                mKey = chars;
+            } else {
+                mValue = chars;
+            }
+        }
+        mUri.getChars(start, end, chars, 0);
+
+        boolean query = start >= mPathEnd;
+        int i = 0;
+        while (i < count && chars[i] != '%' && (chars[i] != '+' || !query)) {
+            i++;
+        }
+        int length = i;
+        while (i < count) {
+            char c = chars[i];
+            if (c == '+' && query) {
+                chars[length++] = ' ';
+                i++;
+                continue;
+            }
+            int b = c == '%' ? hexByte(chars, i, count) : -1;
+            if (b < 0) {
+                chars[length++] = c;
+                i++;
+                continue;
+            }
+            i += 3;
+            if (b < 0x80) {
+                chars[length++] = (char) b;
+                continue;
+            }
+
+            // UTF-8 多字节序列 , 后续字节也必须是 %XX 形式
+            int remaining;
+            int codePoint;
+            if ((b & 0xE0) == 0xC0) {
+                remaining = 1;
+                codePoint = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                remaining = 2;
+                codePoint = b & 0x0F;
+            } else if ((b & 0xF8) == 0xF0) {
+                remaining = 3;
+                codePoint = b & 0x07;
+            } else {
+                chars[length++] = REPLACEMENT;
+                continue;
+            }
+            for (; remaining > 0; remaining--) {
+                int next = i < count && chars[i] == '%' ? hexByte(chars, i, count) : -1;
+                if (next < 0 || (next & 0xC0) != 0x80) {
+                    break;
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+                i += 3;
+            }
+            if (remaining > 0 || codePoint > Character.MAX_CODE_POINT) {
+                chars[length++] = REPLACEMENT;
+            } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                // 4 字节序列占用 12 个原字符 , 写入 2 个字符
+                chars[length++] = Character.highSurrogate(codePoint);
+                chars[length++] = Character.lowSurrogate(codePoint);
+            } else {
+                chars[length++] = (char) codePoint;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 解析 position 位置的 %XX
+     * @return 字节值 , 格式错误返回 -1
+     */
+    private static int hexByte(char[] chars, int position, int end) {
+        if (position + 2 >= end) {
+            return -1;
+        }
+        int high = Character.digit(chars[position + 1], 16);
+        int low = Character.digit(chars[position + 2], 16);
+        if (high < 0 || low < 0) {
+            return -1;
+        }
+        return (high << 4) | low;
+    }
+
+    /**
+     * 在 [start, end) 范围内查找字符 , 使用 String.indexOf 的内建实现
+     * @return 字符的位置 , 没有找到返回 end
+     */
+    private int indexOf(char c, int start, int end) {
+        int index = mUri.indexOf(c, start);
+        return index < 0 || index > end ? end : index;
+    }
+}
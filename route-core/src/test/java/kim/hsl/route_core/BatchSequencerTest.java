@@ -0,0 +1,67 @@
+package kim.hsl.route_core;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * BatchSequencer 测试
+ * 1. 同步批次先于之前的单向批次到达时 , 等待单向批次执行完成
+ * 2. 序号不连续时等待超时后继续执行
+ */
+public class BatchSequencerTest {
+
+    private static final long CHANNEL_ID = 42;
+
+    @Test
+    public void syncBatchArrivingBeforeOnewayWaitsForIt() throws Exception {
+        final BatchSequencer sequencer = new BatchSequencer(10000);
+        final List<Long> executed = new CopyOnWriteArrayList<>();
+        final CountDownLatch syncArrived = new CountDownLatch(1);
+
+        // 同步批次 1 先到达新的通道
+        Thread sync = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                syncArrived.countDown();
+                assertTrue(sequencer.awaitTurn(CHANNEL_ID, 1));
+                executed.add(1L);
+                sequencer.finishTurn(CHANNEL_ID, 1);
+            }
+        });
+        sync.start();
+        assertTrue(syncArrived.await(1, TimeUnit.SECONDS));
+        // 等待同步批次进入 awaitTurn , 此时不能执行
+        Thread.sleep(100);
+        assertTrue(executed.isEmpty());
+        assertEquals(0, sequencer.nextSequence(CHANNEL_ID));
+
+        // 之后单向批次 0 到达 , 立即执行
+        assertTrue(sequencer.awaitTurn(CHANNEL_ID, 0));
+        executed.add(0L);
+        sequencer.finishTurn(CHANNEL_ID, 0);
+
+        sync.join(1000);
+        assertFalse(sync.isAlive());
+        assertEquals(2, executed.size());
+        assertEquals(0L, (long) executed.get(0));
+        assertEquals(1L, (long) executed.get(1));
+        assertEquals(2, sequencer.nextSequence(CHANNEL_ID));
+    }
+
+    @Test
+    public void continuesAfterTimeoutWhenSequenceIsMissing() {
+        BatchSequencer sequencer = new BatchSequencer(50);
+        // 批次 0 发送失败 , 批次 1 等待超时后执行
+        assertFalse(sequencer.awaitTurn(CHANNEL_ID, 1));
+        sequencer.finishTurn(CHANNEL_ID, 1);
+        assertEquals(2, sequencer.nextSequence(CHANNEL_ID));
+        // 其它通道不受影响
+        assertTrue(sequencer.awaitTurn(CHANNEL_ID + 1, 0));
+    }
+}
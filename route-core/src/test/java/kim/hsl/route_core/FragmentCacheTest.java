@@ -0,0 +1,73 @@
+package kim.hsl.route_core;
+
+import androidx.fragment.app.Fragment;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fragment 实例缓存测试
+ */
+public class FragmentCacheTest {
+
+    public static class FirstFragment extends Fragment {
+    }
+
+    public static class SecondFragment extends Fragment {
+    }
+
+    @Test
+    public void obtainsRecycledInstanceOnce() {
+        FragmentCache cache = new FragmentCache();
+        cache.setCacheable(FirstFragment.class);
+        assertTrue(cache.isCacheable(FirstFragment.class));
+        assertFalse(cache.isCacheable(SecondFragment.class));
+
+        FirstFragment fragment = new FirstFragment();
+        assertNull(cache.obtain(FirstFragment.class));
+        cache.recycle(fragment);
+        // 只取出同一类型的实例 , 取出后不再被缓存持有
+        assertNull(cache.obtain(SecondFragment.class));
+        assertSame(fragment, cache.obtain(FirstFragment.class));
+        assertNull(cache.obtain(FirstFragment.class));
+    }
+
+    @Test
+    public void keepsMostRecentInstancesWithinMaxSize() {
+        FragmentCache cache = new FragmentCache();
+        cache.setMaxSize(2);
+        FirstFragment oldest = new FirstFragment();
+        FirstFragment older = new FirstFragment();
+        FirstFragment newest = new FirstFragment();
+        cache.recycle(oldest);
+        cache.recycle(older);
+        cache.recycle(newest);
+        assertEquals(2, cache.size());
+        assertSame(newest, cache.obtain(FirstFragment.class));
+        assertSame(older, cache.obtain(FirstFragment.class));
+        assertNull(cache.obtain(FirstFragment.class));
+
+        // 缓存个数为 0 时不缓存
+        cache.recycle(oldest);
+        cache.setMaxSize(0);
+        assertEquals(0, cache.size());
+        cache.recycle(oldest);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void skipsRecycleOnConfigurationChange() {
+        FragmentCache cache = new FragmentCache();
+        FirstFragment fragment = new FirstFragment();
+        // 屏幕旋转等配置变化导致的销毁 , FragmentManager 会重新创建该 Fragment , 不放回缓存
+        cache.onDestroy(fragment, true);
+        assertEquals(0, cache.size());
+        assertNull(cache.obtain(FirstFragment.class));
+
+        // 从 FragmentManager 中移除导致的销毁 , 放回缓存
+        cache.onDestroy(fragment, false);
+        assertEquals(1, cache.size());
+        assertSame(fragment, cache.obtain(FirstFragment.class));
+    }
+}
@@ -0,0 +1,39 @@
+package kim.hsl.route_core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二进制路由表读取测试
+ */
+public class RouteTableTest {
+
+    private static final byte[] CONTENT = RouteTableFormat.write(Arrays.asList(
+            new RouteTableFormat.Record("app", "/app/MainActivity", "java.lang.String", RouteMeta.TYPE_ACTIVITY)));
+
+    @Test
+    public void readsExactSizeWithoutGrowing() throws Exception {
+        ByteBuffer table = RouteTable.read(new ByteArrayInputStream(CONTENT), CONTENT.length);
+        assertEquals(CONTENT.length, table.remaining());
+        // 长度正确时只分配一次缓冲区
+        assertEquals(CONTENT.length, table.array().length);
+        assertEquals(1, new RouteTable("app", table).routeCount());
+    }
+
+    @Test
+    public void growsWhenSizeHintIsTooSmall() throws Exception {
+        ByteBuffer table = RouteTable.read(new ByteArrayInputStream(CONTENT), 0);
+        assertEquals(CONTENT.length, table.remaining());
+        byte[] bytes = new byte[table.remaining()];
+        table.duplicate().get(bytes);
+        assertArrayEquals(CONTENT, bytes);
+    }
+}
@@ -0,0 +1,113 @@
+package kim.hsl.route_core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import kim.hsl.route_core.template.IService;
+
+import static org.junit.Assert.*;
+
+/**
+ * ServiceRegistry 测试
+ * 1. 并发获取同一个服务时 , 服务只创建一次
+ * 2. 创建一个服务时不阻塞获取其它服务
+ *
+ * 多线程竞争下获取服务的耗时见 router-benchmark 模块的 ServiceBenchmark
+ */
+public class ServiceRegistryTest {
+
+    private static final int THREAD_COUNT = 8;
+
+    public static class TestService implements IService {
+    }
+
+    public static class OtherService implements IService {
+    }
+
+    @Test
+    public void createsServiceOnceUnderContention() throws Exception {
+        final ServiceRegistry registry = new ServiceRegistry();
+        final AtomicInteger createCount = new AtomicInteger();
+        final ServiceRegistry.Creator creator = new ServiceRegistry.Creator() {
+            @Override
+            public IService create(Class<?> clazz) throws Exception {
+                createCount.incrementAndGet();
+                // 模拟耗时的服务创建
+                Thread.sleep(50);
+                return (IService) clazz.getConstructor().newInstance();
+            }
+        };
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREAD_COUNT);
+        final AtomicReferenceArray<IService> results = new AtomicReferenceArray<>(THREAD_COUNT);
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            final int index = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        results.set(index, registry.get(TestService.class, creator));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(1, createCount.get());
+        for (int i = 1; i < THREAD_COUNT; i++) {
+            assertSame(results.get(0), results.get(i));
+        }
+    }
+
+    @Test
+    public void creatingOneServiceDoesNotBlockOthers() throws Exception {
+        final ServiceRegistry registry = new ServiceRegistry();
+        final CountDownLatch creating = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // 第一个线程创建 TestService 时阻塞
+        Thread slow = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    registry.get(TestService.class, new ServiceRegistry.Creator() {
+                        @Override
+                        public IService create(Class<?> clazz) throws Exception {
+                            creating.countDown();
+                            release.await();
+                            return new TestService();
+                        }
+                    });
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        slow.start();
+        creating.await();
+
+        // TestService 创建过程中 , 获取 OtherService 不会被阻塞
+        IService other = registry.get(OtherService.class, new ServiceRegistry.Creator() {
+            @Override
+            public IService create(Class<?> clazz) {
+                return new OtherService();
+            }
+        });
+        assertNotNull(other);
+        assertNull(registry.peek(TestService.class));
+
+        release.countDown();
+        slow.join();
+        assertNotNull(registry.peek(TestService.class));
+    }
+}
@@ -0,0 +1,103 @@
+package kim.hsl.route_core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多进程共享路由表测试
+ */
+public class SharedRouteTableTest {
+
+    private static final List<String> CLASS_NAMES = Arrays.asList(
+            "kim.hsl.router.Router_Root_app", "kim.hsl.router.Router_Index_app");
+
+    private static final List<RouteTableFormat.Record> RECORDS = Arrays.asList(
+            new RouteTableFormat.Record("app", "/app/MainActivity", "java.lang.String", RouteMeta.TYPE_ACTIVITY),
+            new RouteTableFormat.Record("user", "/user/{id}", "java.lang.Integer", RouteMeta.TYPE_SERVICE));
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void parsesWrittenTable() {
+        byte[] content = SharedRouteTable.write("1|100", CLASS_NAMES, RECORDS);
+        SharedRouteTable sharedTable = SharedRouteTable.parse(ByteBuffer.wrap(content), "1|100");
+        assertNotNull(sharedTable);
+        assertEquals(CLASS_NAMES, sharedTable.getClassNames());
+
+        RouteTable routeTable = sharedTable.getRouteTable();
+        assertEquals(2, routeTable.routeCount());
+        int route = routeTable.find(RouteTableFormat.utf8("/user/{id}"), RouteTableFormat.utf8("user"));
+        RouteMeta routeMeta = routeTable.createRoute(route, "/user/{id}", "user");
+        assertEquals(Integer.class, routeMeta.getClazz());
+        assertEquals(RouteMeta.TYPE_SERVICE, routeMeta.getType());
+        // 共享路由表包括所有模块 , 替代所有模块的路由索引 , 包括类名被混淆的索引
+        assertTrue(routeTable.covers("app"));
+        assertTrue(routeTable.covers(null));
+
+        // APK 变化后版本不一致 , 截断或损坏的文件 , 都不使用
+        assertNull(SharedRouteTable.parse(ByteBuffer.wrap(content), "2|200"));
+        assertNull(SharedRouteTable.parse(ByteBuffer.wrap(content, 0, content.length - 1).slice(), "1|100"));
+        // 类名个数位于 魔数 , 格式版本 , 缓存版本 之后
+        content[4 + 4 + 4 + "1|100".length()] = 0x7F;
+        assertNull(SharedRouteTable.parse(ByteBuffer.wrap(content), "1|100"));
+    }
+
+    @Test
+    public void publishesOncePerVersion() throws Exception {
+        File dir = new File(mFolder.getRoot(), SharedRouteTable.DIR_NAME);
+        final AtomicInteger collectCount = new AtomicInteger();
+        SharedRouteTable.RouteCollector collector = new SharedRouteTable.RouteCollector() {
+            @Override
+            public List<RouteTableFormat.Record> collect() {
+                collectCount.incrementAndGet();
+                return RECORDS;
+            }
+        };
+
+        assertNull(SharedRouteTable.open(dir, "1|100"));
+        assertTrue(SharedRouteTable.publish(dir, "1|100", CLASS_NAMES, collector));
+        // 当前版本已经写出 , 不再收集路由
+        assertFalse(SharedRouteTable.publish(dir, "1|100", CLASS_NAMES, collector));
+        assertEquals(1, collectCount.get());
+        assertEquals(CLASS_NAMES, SharedRouteTable.open(dir, "1|100").getClassNames());
+
+        // 版本变化后重新写出 , 旧版本失效
+        assertTrue(SharedRouteTable.publish(dir, "2|200", CLASS_NAMES, collector));
+        assertEquals(2, collectCount.get());
+        assertNull(SharedRouteTable.open(dir, "1|100"));
+        assertNotNull(SharedRouteTable.open(dir, "2|200"));
+    }
+
+    @Test
+    public void clearRemovesPublishedTable() {
+        File dir = new File(mFolder.getRoot(), SharedRouteTable.DIR_NAME);
+        SharedRouteTable.RouteCollector collector = new SharedRouteTable.RouteCollector() {
+            @Override
+            public List<RouteTableFormat.Record> collect() {
+                return RECORDS;
+            }
+        };
+        assertTrue(SharedRouteTable.publish(dir, "1|100", CLASS_NAMES, collector));
+
+        // 路由类名与 APK 不一致时删除 , 同一版本下次启动时不再使用 , 重新写出
+        SharedRouteTable.clear(dir);
+        assertNull(SharedRouteTable.open(dir, "1|100"));
+        assertTrue(SharedRouteTable.publish(dir, "1|100", CLASS_NAMES, collector));
+        // 不存在时删除不报错
+        SharedRouteTable.clear(dir);
+        SharedRouteTable.clear(dir);
+    }
+}
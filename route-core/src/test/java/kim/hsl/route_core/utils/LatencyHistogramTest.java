@@ -0,0 +1,72 @@
+package kim.hsl.route_core.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram 测试
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void recordsIntoFixedBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 10us , 60us , 3ms , 1s
+        histogram.record(10_000L);
+        histogram.record(60_000L);
+        histogram.record(3_000_000L);
+        histogram.record(1_000_000_000L);
+
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot("test", histogram);
+        long[] buckets = snapshot.getBuckets();
+        assertEquals(LatencyHistogram.BUCKET_COUNT, buckets.length);
+        assertEquals(1, buckets[0]);
+        assertEquals(1, buckets[1]);
+        assertEquals(1, buckets[6]);
+        assertEquals(1, buckets[LatencyHistogram.BUCKET_COUNT - 1]);
+
+        assertEquals(4, snapshot.getCount());
+        assertEquals(1_000_000_000L, snapshot.getMaxNanos());
+        assertEquals(50, snapshot.getPercentileMicros(0.25));
+        assertEquals(5000, snapshot.getPercentileMicros(0.75));
+        assertEquals(1_000_000L, snapshot.getPercentileMicros(1.0));
+    }
+
+    @Test
+    public void snapshotDoesNotChange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000L);
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot("test", histogram);
+        histogram.record(1000L);
+        assertEquals(1, snapshot.getCount());
+    }
+
+    @Test
+    public void concurrentRecording() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10_000; j++) {
+                        histogram.record(j * 100L);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram.Snapshot("test", histogram);
+        long total = 0;
+        for (long bucket : snapshot.getBuckets()) {
+            total += bucket;
+        }
+        assertEquals(40_000, snapshot.getCount());
+        assertEquals(40_000, total);
+        assertEquals(9_999 * 100L, snapshot.getMaxNanos());
+    }
+}
@@ -0,0 +1,88 @@
+package kim.hsl.route_core.utils;
+
+import org.junit.Test;
+
+import java.net.URLDecoder;
+
+import static org.junit.Assert.*;
+
+/**
+ * UriParser 测试
+ */
+public class UriParserTest {
+
+    @Test
+    public void parsesPathAndQuery() {
+        UriParser parser = UriParser.obtain();
+        assertTrue(parser.parse("myapp://host/user/10001?age=18&name=Tom&&flag#top"));
+        assertEquals("/user/10001", parser.path());
+
+        String[] keys = {"age", "flag", "name"};
+        assertTrue(parser.nextParameter());
+        assertEquals(0, parser.keyIndex(keys));
+        assertEquals(18, parser.intValue());
+        assertTrue(parser.nextParameter());
+        assertEquals(2, parser.keyIndex(keys));
+        assertEquals("Tom", parser.stringValue());
+        // 空参数被跳过 , 没有 = 的参数值为空
+        assertTrue(parser.nextParameter());
+        assertEquals(1, parser.keyIndex(keys));
+        assertEquals("", parser.stringValue());
+        assertFalse(parser.nextParameter());
+
+        assertTrue(parser.parse("/app/MainActivity"));
+        assertEquals("/app/MainActivity", parser.path());
+        assertFalse(parser.nextParameter());
+
+        assertFalse(parser.parse("myapp://host"));
+        assertFalse(parser.parse("mailto:someone"));
+    }
+
+    @Test
+    public void decodesLikeUrlDecoder() throws Exception {
+        String query = "k%20%E4%BD%A0=a+b%2B%26%F0%9F%98%80c%E4%BD";
+        UriParser parser = UriParser.obtain();
+        assertTrue(parser.parse("myapp://host/search?" + query));
+        assertTrue(parser.nextParameter());
+        assertEquals("k 你", parser.key());
+        assertEquals(-1, parser.keyIndex(new String[]{"k", "k 你a"}));
+        assertEquals(1, parser.keyIndex(new String[]{"k", "k 你"}));
+        // 不完整的 UTF-8 序列解码为替换字符
+        assertEquals("a b+&😀c�", parser.stringValue());
+        assertEquals(URLDecoder.decode("a+b%2B%26%F0%9F%98%80c", "UTF-8") + "�", parser.stringValue());
+    }
+
+    @Test
+    public void parsesNumbers() {
+        UriParser parser = UriParser.obtain();
+        parser.setValue("-2147483648");
+        assertEquals(Integer.MIN_VALUE, parser.intValue());
+        parser.setValue("+9223372036854775807");
+        assertEquals(Long.MAX_VALUE, parser.longValue());
+        parser.setValue("127");
+        assertEquals(127, parser.byteValue());
+        parser.setValue("TRUE");
+        assertTrue(parser.booleanValue());
+        parser.setValue("0");
+        assertFalse(parser.booleanValue());
+        parser.setValue("1.5");
+        assertEquals(1.5, parser.doubleValue(), 0);
+
+        for (String value : new String[]{"", "-", "2147483648", "12a", "1.5"}) {
+            parser.setValue(value);
+            try {
+                parser.intValue();
+                fail(value);
+            } catch (NumberFormatException e) {
+                // 不是整数或超出范围
+            }
+        }
+        parser.setValue("128");
+        try {
+            parser.byteValue();
+            fail();
+        } catch (NumberFormatException e) {
+            // 超出范围
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package kim.hsl.router_annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 路由拦截器注解
+ * 该注解使用在实现了 IInterceptor 接口的类上面
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.CLASS)
+public @interface Interceptor {
+    /**
+     * 拦截器优先级 , 数值越小越先执行
+     * 优先级相同的拦截器按照类名排序 , 不同模块中的拦截器也一样
+     * @return
+     */
+    int priority() default 0;
+}
@@ -21,4 +21,36 @@ public @interface Route {
      * @return
      */
     String group() default "";
+
+    /**
+     * 是否在初始化完成后 , 主线程空闲时预加载该路由
+     * 预加载会提前加载路由分组和目标类 , 减少第一次跳转的耗时
+     * @return
+     */
+    boolean preload() default false;
+
+    /**
+     * 优先级 , 数值越大越优先
+     * 预加载时 , 优先级高的路由先预加载 ;
+     * IService 服务接口有多个实现时 , Router.service 返回优先级最高的实现 , Router.services 按照优先级排序
+     * @return
+     */
+    int priority() default 0;
+
+    /**
+     * 是否可以跨进程调用 , 只能用于 IService 服务
+     * 为 true 时为服务实现的 IService 子接口生成 Binder 代理 , 其它进程通过 Router.remoteService(接口) 调用 ,
+     * 服务在 RemoteServiceHost 所在的进程中执行
+     * 接口方法的参数和返回值只能是基本类型 , String 和 Bundle , 没有返回值的方法是单向调用
+     * @return
+     */
+    boolean remote() default false;
+
+    /**
+     * 是否缓存 Fragment 实例 , 只能用于 androidx.fragment.app.Fragment
+     * 为 true 时 Fragment 销毁后放回 Router 的 Fragment 缓存 , 下一次获取该路由时复用 , 不再创建新对象 ;
+     * 只有除 getArguments() 之外不保存状态的 Fragment 才能缓存
+     * @return
+     */
+    boolean cacheable() default false;
 }
@@ -0,0 +1,80 @@
+package kim.hsl.router_annotation.model;
+
+/**
+ * 运行时的路由信息 , 由生成的 Router_Group_ / Router_Index_ 类及二进制路由表创建 , 保存在 Warehouse.routes 中
+ *
+ * 创建后不再修改 , 多个线程可以直接共享 ;
+ * 路由类型使用 int 常量 , 分组名使用常量池中的字符串 , 每个路由只保存 1 个 int 和 3 个引用
+ *
+ * 注解处理器使用的路由信息 ( 包括注解节点 ) 在 router-compiler 模块中 , 不会打包到 APK 中
+ */
+public final class RouteMeta {
+
+    /**
+     * 路由类型 : Activity 界面
+     */
+    public static final int TYPE_ACTIVITY = 0;
+
+    /**
+     * 路由类型 : IService 服务
+     */
+    public static final int TYPE_SERVICE = 1;
+
+    /**
+     * 路由类型 : Fragment , 包括 android.app.Fragment 和 androidx.fragment.app.Fragment
+     */
+    public static final int TYPE_FRAGMENT = 2;
+
+    /**
+     * 路由类型 , TYPE_ACTIVITY / TYPE_SERVICE / TYPE_FRAGMENT , 同时是二进制路由表中的类型值
+     */
+    private final int type;
+
+    /**
+     * 被注解类
+     */
+    private final Class<?> clazz;
+
+    /**
+     * 路由地址
+     */
+    private final String path;
+
+    /**
+     * 路由分组 , 生成代码中的字符串常量已经在常量池中 , 同一分组的路由共享同一个字符串
+     */
+    private final String group;
+
+    public RouteMeta(int type, Class<?> clazz, String path, String group) {
+        this.type = type;
+        this.clazz = clazz;
+        this.path = path;
+        this.group = group;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public Class<?> getClazz() {
+        return clazz;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteMeta{" +
+                "type=" + type +
+                ", clazz=" + clazz +
+                ", path='" + path + '\'' +
+                ", group='" + group + '\'' +
+                '}';
+    }
+}
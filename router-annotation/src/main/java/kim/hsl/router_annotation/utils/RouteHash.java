@@ -0,0 +1,186 @@
+package kim.hsl.router_annotation.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 路由地址的最小完美哈希
+ *
+ * 注解处理器在编译时使用 build 方法为模块中的所有路由地址生成种子数组 ,
+ * 运行时使用 lookup 方法一次探测即可得到路由 ID ( 0 ~ n-1 ) ,
+ * 再与该 ID 对应的路由地址比较一次 , 即可确定是否命中
+ *
+ * 编译时和运行时必须使用同一个哈希函数 , 因此该类放在 router-annotation 模块中
+ */
+public final class RouteHash {
+
+    /**
+     * 为单个分桶查找种子的最大尝试次数
+     */
+    private static final int MAX_SEED = 1 << 20;
+
+    private RouteHash() {
+    }
+
+    /**
+     * 带种子的字符串哈希 , 返回非负数
+     * @param key 路由地址
+     * @param seed 种子
+     * @return
+     */
+    public static int hash(String key, int seed) {
+        // FNV-1a
+        int h = 0x811C9DC5 ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x01000193;
+        }
+        // 混淆高低位 , 使不同种子得到的结果分布更均匀
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & 0x7FFFFFFF;
+    }
+
+    /**
+     * 根据种子数组计算路由 ID
+     *
+     * 对于编译时参与构建的路由地址 , 返回其唯一的路由 ID
+     * 对于其它字符串 , 返回 0 ~ n-1 之间的任意值 , 需要调用者再比较一次路由地址
+     *
+     * @param seeds 编译时生成的种子数组
+     * @param key 路由地址
+     * @return 路由 ID
+     */
+    public static int lookup(int[] seeds, String key) {
+        return lookup(seeds, key, hash(key, 0));
+    }
+
+    /**
+     * 根据种子数组计算路由 ID , 使用已经计算好的种子 0 哈希值
+     *
+     * 种子 0 的哈希值与模块无关 , 在多个模块的索引中查找同一个路由地址时只需要计算一次 ,
+     * 每个模块最多再计算一次带种子的哈希
+     *
+     * @param seeds 编译时生成的种子数组
+     * @param key 路由地址
+     * @param hash0 路由地址的种子 0 哈希值 , 即 hash(key, 0)
+     * @return 路由 ID
+     */
+    public static int lookup(int[] seeds, String key, int hash0) {
+        int n = seeds.length;
+        int seed = seeds[hash0 % n];
+        if (seed < 0) {
+            // 分桶中只有一个路由地址 , 种子中直接保存了路由 ID
+            return -seed - 1;
+        }
+        return hash(key, seed) % n;
+    }
+
+    /**
+     * 为一组路由地址构建种子数组 ( 哈希 - 位移算法 )
+     *
+     * 1. 使用种子 0 将路由地址分到 n 个桶中
+     * 2. 按照桶的大小从大到小 , 为每个桶找到一个种子 , 使桶中所有路由地址映射到不同的空闲位置
+     * 3. 只有一个路由地址的桶 , 直接放到剩余的空闲位置 , 种子保存为 -(位置 + 1)
+     *
+     * @param keys 路由地址 , 不能重复
+     * @return 种子数组 , 长度与路由地址个数相同
+     */
+    public static int[] build(final List<String> keys) {
+        int n = keys.size();
+        int[] seeds = new int[n];
+        if (n == 0) {
+            return seeds;
+        }
+
+        // 分桶
+        final List<List<String>> buckets = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            buckets.add(new ArrayList<String>());
+        }
+        for (String key : keys) {
+            buckets.get(hash(key, 0) % n).add(key);
+        }
+
+        // 按照桶的大小从大到小处理
+        List<Integer> order = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return buckets.get(b).size() - buckets.get(a).size();
+            }
+        });
+
+        boolean[] occupied = new boolean[n];
+        int freeSlot = 0;
+        for (int bucketIndex : order) {
+            List<String> bucket = buckets.get(bucketIndex);
+            if (bucket.isEmpty()) {
+                break;
+            }
+
+            if (bucket.size() == 1) {
+                // 只有一个路由地址 , 直接放到空闲位置
+                while (occupied[freeSlot]) {
+                    freeSlot++;
+                }
+                occupied[freeSlot] = true;
+                seeds[bucketIndex] = -freeSlot - 1;
+                continue;
+            }
+
+            // 查找种子 , 使桶中所有路由地址映射到不同的空闲位置
+            int[] slots = new int[bucket.size()];
+            int seed = 1;
+            while (!tryPlace(bucket, seed, n, occupied, slots)) {
+                if (++seed >= MAX_SEED) {
+                    throw new IllegalStateException("无法为路由地址 " + bucket + " 生成完美哈希");
+                }
+            }
+            for (int slot : slots) {
+                occupied[slot] = true;
+            }
+            seeds[bucketIndex] = seed;
+        }
+        return seeds;
+    }
+
+    private static boolean tryPlace(List<String> bucket, int seed, int n, boolean[] occupied, int[] slots) {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = hash(bucket.get(i), seed) % n;
+            if (occupied[slot] || !used.add(slot)) {
+                return false;
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * 按照路由 ID 排列路由地址 , 编译时生成路由地址数组使用
+     * @param keys 路由地址
+     * @param seeds build 方法生成的种子数组
+     * @return 下标为路由 ID 的路由地址数组
+     */
+    public static String[] arrange(List<String> keys, int[] seeds) {
+        String[] arranged = new String[keys.size()];
+        for (String key : keys) {
+            int id = lookup(seeds, key);
+            if (arranged[id] != null) {
+                throw new IllegalStateException("路由地址哈希冲突 : " + key + " , " + arranged[id]);
+            }
+            arranged[id] = key;
+        }
+        return arranged;
+    }
+}
@@ -0,0 +1,319 @@
+package kim.hsl.router_annotation.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 二进制路由表格式
+ *
+ * 注解处理器在编译时使用 write 方法将模块的所有路由写出到 assets/router/模块名.rtab 中 ,
+ * 运行时将该文件映射到内存 , 直接在 ByteBuffer 上二分查找 , 不需要加载分组类 , 也不需要为每个路由创建 RouteMeta
+ *
+ * 文件结构 , 整数均为大端序 :
+ * 文件头 : MAGIC , VERSION , 分组个数 , 路由个数 , 字符串池偏移 , 文件长度 , 共 HEADER_SIZE 字节
+ * 分组索引 : 每个分组 GROUP_SIZE 字节 , 分组名偏移 , 第一个路由的序号 , 路由个数 , 按照分组名排序
+ * 路由记录 : 每个路由 ROUTE_SIZE 字节 , 路由地址偏移 , 类名偏移 , 路由类型 , 按照分组排序 , 同一分组内按照路由地址排序
+ * 字符串池 : 每个字符串为 2 字节长度 + UTF-8 字节
+ *
+ * 字符串偏移均为从文件开头计算的绝对偏移 , 字符串按照 UTF-8 字节的无符号值排序 ,
+ * 运行时只需要将查找的字符串编码一次 , 即可逐字节比较
+ *
+ * 编译时和运行时必须使用同一个格式 , 因此该类放在 router-annotation 模块中
+ */
+public final class RouteTableFormat {
+
+    /**
+     * 文件魔数 "RTAB"
+     */
+    public static final int MAGIC = 0x52544142;
+
+    /**
+     * 格式版本 , 格式变化时递增 , 运行时不识别的版本回退到生成的路由类
+     */
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 24;
+
+    public static final int GROUP_SIZE = 12;
+
+    public static final int ROUTE_SIZE = 12;
+
+    /**
+     * 路由表在 assets 中的目录
+     */
+    public static final String ASSET_DIR = "router";
+
+    /**
+     * 路由表文件后缀
+     */
+    public static final String ASSET_SUFFIX = ".rtab";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int OFFSET_GROUP_COUNT = 8;
+    private static final int OFFSET_ROUTE_COUNT = 12;
+    private static final int OFFSET_STRING_POOL = 16;
+    private static final int OFFSET_LENGTH = 20;
+
+    private RouteTableFormat() {
+    }
+
+    /**
+     * 模块路由表在 assets 中的路径
+     * @param moduleName 模块名
+     * @return 如 router/app.rtab
+     */
+    public static String assetPath(String moduleName) {
+        return ASSET_DIR + "/" + moduleName + ASSET_SUFFIX;
+    }
+
+    /**
+     * 编译时写出的一条路由
+     */
+    public static final class Record {
+        final String group;
+        final String path;
+        final String className;
+        final int type;
+
+        /**
+         * @param group 路由分组
+         * @param path 路由地址
+         * @param className 路由类的二进制类名 , 用于 Class.forName , 如 kim.hsl.app.Outer$Inner
+         * @param type 路由类型 , 即 RouteMeta.TYPE_ACTIVITY / RouteMeta.TYPE_SERVICE / RouteMeta.TYPE_FRAGMENT
+         */
+        public Record(String group, String path, String className, int type) {
+            this.group = group;
+            this.path = path;
+            this.className = className;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 将模块的所有路由写出为二进制路由表
+     * @param records 路由 , 路由地址不能重复
+     * @return 路由表文件内容
+     */
+    public static byte[] write(List<Record> records) {
+        Comparator<byte[]> comparator = new Comparator<byte[]>() {
+            @Override
+            public int compare(byte[] a, byte[] b) {
+                return RouteTableFormat.compare(a, b);
+            }
+        };
+
+        // 按照分组名 , 路由地址的 UTF-8 字节排序
+        Map<byte[], Map<byte[], Record>> groups = new TreeMap<>(comparator);
+        for (Record record : records) {
+            byte[] group = utf8(record.group);
+            Map<byte[], Record> groupRecords = groups.get(group);
+            if (groupRecords == null) {
+                groupRecords = new TreeMap<>(comparator);
+                groups.put(group, groupRecords);
+            }
+            groupRecords.put(utf8(record.path), record);
+        }
+
+        int stringPoolOffset = HEADER_SIZE + groups.size() * GROUP_SIZE + records.size() * ROUTE_SIZE;
+        StringPool stringPool = new StringPool(stringPoolOffset);
+
+        ByteBuffer index = ByteBuffer.allocate(stringPoolOffset);
+        index.putInt(MAGIC).putInt(VERSION).putInt(groups.size()).putInt(records.size())
+                .putInt(stringPoolOffset).putInt(0);
+
+        // 分组索引
+        int firstRoute = 0;
+        for (Map.Entry<byte[], Map<byte[], Record>> group : groups.entrySet()) {
+            index.putInt(stringPool.add(group.getKey()))
+                    .putInt(firstRoute)
+                    .putInt(group.getValue().size());
+            firstRoute += group.getValue().size();
+        }
+
+        // 路由记录
+        for (Map<byte[], Record> groupRecords : groups.values()) {
+            for (Map.Entry<byte[], Record> route : groupRecords.entrySet()) {
+                index.putInt(stringPool.add(route.getKey()))
+                        .putInt(stringPool.add(utf8(route.getValue().className)))
+                        .putInt(route.getValue().type);
+            }
+        }
+
+        byte[] pool = stringPool.toByteArray();
+        ByteBuffer table = ByteBuffer.allocate(stringPoolOffset + pool.length);
+        table.put(index.array()).put(pool);
+        table.putInt(OFFSET_LENGTH, table.capacity());
+        return table.array();
+    }
+
+    /**
+     * 检查路由表的文件头
+     * @param table 路由表
+     * @return 魔数 , 版本 , 长度都正确返回 true
+     */
+    public static boolean isValid(ByteBuffer table) {
+        return table.limit() >= HEADER_SIZE
+                && table.getInt(0) == MAGIC
+                && table.getInt(4) == VERSION
+                && table.getInt(OFFSET_LENGTH) == table.limit()
+                && table.getInt(OFFSET_STRING_POOL) <= table.limit();
+    }
+
+    /**
+     * 路由表中的路由个数
+     */
+    public static int routeCount(ByteBuffer table) {
+        return table.getInt(OFFSET_ROUTE_COUNT);
+    }
+
+    /**
+     * 查找路由
+     *
+     * 先在分组索引中二分查找分组 , 再在该分组的路由记录中二分查找路由地址 ,
+     * 只使用 ByteBuffer 的绝对位置读取方法 , 多个线程可以同时查找同一个路由表
+     *
+     * @param table 路由表
+     * @param group 路由分组的 UTF-8 编码
+     * @param path 路由地址的 UTF-8 编码
+     * @return 路由序号 , 没有找到返回 -1
+     */
+    public static int find(ByteBuffer table, byte[] group, byte[] path) {
+        int groupCount = table.getInt(OFFSET_GROUP_COUNT);
+        int low = 0;
+        int high = groupCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = HEADER_SIZE + mid * GROUP_SIZE;
+            int cmp = compare(table, table.getInt(position), group);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return findRoute(table, table.getInt(position + 4), table.getInt(position + 8), path,
+                        HEADER_SIZE + groupCount * GROUP_SIZE);
+            }
+        }
+        return -1;
+    }
+
+    private static int findRoute(ByteBuffer table, int firstRoute, int routeCount, byte[] path, int routesOffset) {
+        int low = firstRoute;
+        int high = firstRoute + routeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(table, table.getInt(routesOffset + mid * ROUTE_SIZE), path);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 路由的类名
+     * @param table 路由表
+     * @param route 路由序号
+     */
+    public static String className(ByteBuffer table, int route) {
+        return readString(table, table.getInt(routePosition(table, route) + 4));
+    }
+
+    /**
+     * 路由的类型 , 即 RouteMeta.TYPE_ACTIVITY / RouteMeta.TYPE_SERVICE / RouteMeta.TYPE_FRAGMENT
+     * @param table 路由表
+     * @param route 路由序号
+     */
+    public static int type(ByteBuffer table, int route) {
+        return table.getInt(routePosition(table, route) + 8);
+    }
+
+    private static int routePosition(ByteBuffer table, int route) {
+        return HEADER_SIZE + table.getInt(OFFSET_GROUP_COUNT) * GROUP_SIZE + route * ROUTE_SIZE;
+    }
+
+    private static String readString(ByteBuffer table, int offset) {
+        byte[] bytes = new byte[table.getShort(offset) & 0xFFFF];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = table.get(offset + 2 + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * 字符串的 UTF-8 编码
+     */
+    public static byte[] utf8(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    /**
+     * 比较字符串池中的字符串与 key , 按照 UTF-8 字节的无符号值比较
+     */
+    private static int compare(ByteBuffer table, int offset, byte[] key) {
+        int length = table.getShort(offset) & 0xFFFF;
+        int min = Math.min(length, key.length);
+        for (int i = 0; i < min; i++) {
+            int cmp = (table.get(offset + 2 + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int min = Math.min(a.length, b.length);
+        for (int i = 0; i < min; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * 字符串池 , 相同的字符串只写出一次
+     */
+    private static final class StringPool {
+        private final int mBaseOffset;
+        private final Map<String, Integer> mOffsets = new LinkedHashMap<>();
+        private final ByteArrayOutputStream mBytes = new ByteArrayOutputStream();
+
+        StringPool(int baseOffset) {
+            mBaseOffset = baseOffset;
+        }
+
+        int add(byte[] value) {
+            if (value.length > 0xFFFF) {
+                throw new IllegalArgumentException("字符串过长 : " + value.length + " 字节");
+            }
+            String key = new String(value, UTF_8);
+            Integer offset = mOffsets.get(key);
+            if (offset == null) {
+                offset = mBaseOffset + mBytes.size();
+                mBytes.write(value.length >>> 8);
+                mBytes.write(value.length);
+                mBytes.write(value, 0, value.length);
+                mOffsets.put(key, offset);
+            }
+            return offset;
+        }
+
+        byte[] toByteArray() {
+            return mBytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package kim.hsl.router_annotation.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 带参数和通配符的路由地址匹配树
+ *
+ * 路由地址按照 "/" 分为若干段 , 每一段可以是 :
+ * 1. 字面量 , 如 /user/list 中的 user 和 list , 必须完全相同
+ * 2. 参数 , 如 /user/{id} 中的 {id} , 匹配任意一个非空段 , 匹配到的值以参数名为键放入跳转参数中
+ * 3. 通配符 , 只能是最后一段 * , 匹配剩余的所有段 , 包括空
+ * 第一段是路由分组 , 必须是字面量
+ *
+ * 树的每条边是完整的一段 , 同一节点的字面量子节点按照段的字符串排序 , 查找时二分查找 ,
+ * 匹配耗时只与路由地址的长度有关 , 与路由个数无关
+ * 匹配优先级 : 字面量 > 参数 > 通配符 , 高优先级的分支匹配失败时回溯到低优先级的分支
+ *
+ * 注解处理器在编译时使用 build 方法构建匹配树 , 同时检查路由冲突 , 然后将树展开为数组写入生成的类中 ,
+ * 运行时使用这些数组创建匹配树 , 直接匹配 , 不需要再次构建
+ *
+ * 编译时和运行时必须使用同一个数据结构 , 因此该类放在 router-annotation 模块中
+ */
+public final class RouteTrie {
+
+    /**
+     * 节点数组中每个节点占用的 int 个数
+     * 第一条字面量边的序号 , 字面量边的个数 , 参数子节点 , 以该节点结尾的路由 ID , 以该节点下的通配符结尾的路由 ID
+     */
+    public static final int NODE_SIZE = 5;
+
+    private static final int FIRST_EDGE = 0;
+    private static final int EDGE_COUNT = 1;
+    private static final int PARAM_CHILD = 2;
+    private static final int ROUTE = 3;
+    private static final int WILDCARD = 4;
+
+    private static final String WILDCARD_SEGMENT = "*";
+
+    /**
+     * 节点数组 , 根节点为 0 号节点 , 每个节点 NODE_SIZE 个 int , 没有的子节点或路由为 -1
+     */
+    private final int[] mNodes;
+
+    /**
+     * 字面量边的目标节点 , 下标为边的序号
+     */
+    private final int[] mEdges;
+
+    /**
+     * 字面量边对应的段 , 下标为边的序号
+     */
+    private final String[] mLabels;
+
+    /**
+     * 路由地址模板 , 如 /user/{id}/orders/* , 下标为路由 ID
+     */
+    private final String[] mPatterns;
+
+    /**
+     * 每个路由的参数名 , 按照在路由地址中出现的顺序排列 , 下标为路由 ID
+     */
+    private final String[][] mParamNames;
+
+    /**
+     * 运行时使用编译时生成的数组创建匹配树
+     */
+    public RouteTrie(int[] nodes, int[] edges, String[] labels, String[] patterns) {
+        this.mNodes = nodes;
+        this.mEdges = edges;
+        this.mLabels = labels;
+        this.mPatterns = patterns;
+        this.mParamNames = new String[patterns.length][];
+        for (int i = 0; i < patterns.length; i++) {
+            mParamNames[i] = paramNames(patterns[i]);
+        }
+    }
+
+    public int[] nodes() {
+        return mNodes;
+    }
+
+    public int[] edges() {
+        return mEdges;
+    }
+
+    public String[] labels() {
+        return mLabels;
+    }
+
+    public String[] patterns() {
+        return mPatterns;
+    }
+
+    /**
+     * 匹配结果
+     */
+    public static final class Match {
+        /**
+         * 匹配到的路由地址模板 , 即 @Route 注解中的 path
+         */
+        public final String pattern;
+
+        /**
+         * 参数名
+         */
+        public final String[] names;
+
+        /**
+         * 参数值 , 与参数名一一对应
+         */
+        public final String[] values;
+
+        Match(String pattern, String[] names, String[] values) {
+            this.pattern = pattern;
+            this.names = names;
+            this.values = values;
+        }
+    }
+
+    /**
+     * 匹配路由地址
+     * @param path 路由地址 , 如 /user/10001/orders/2021/01
+     * @return 匹配结果 , 没有匹配的路由返回 null
+     */
+    public Match match(String path) {
+        if (path == null || !path.startsWith("/") || mPatterns.length == 0) {
+            return null;
+        }
+        // 参数值在路由地址中的起止位置 , 每个参数占用两个 int
+        int[] captures = new int[path.length() + 1];
+        int route = match(0, path, 1, captures, 0);
+        if (route < 0) {
+            return null;
+        }
+        String[] names = mParamNames[route];
+        String[] values = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = path.substring(captures[2 * i], captures[2 * i + 1]);
+        }
+        return new Match(mPatterns[route], names, values);
+    }
+
+    /**
+     * 从 node 节点开始 , 匹配路由地址中 start 位置开始的剩余部分
+     * @return 路由 ID , 没有匹配返回 -1
+     */
+    private int match(int node, String path, int start, int[] captures, int depth) {
+        int offset = node * NODE_SIZE;
+        if (start >= path.length()) {
+            // 路由地址已经匹配完 , 通配符可以匹配空
+            int route = mNodes[offset + ROUTE];
+            return route >= 0 ? route : mNodes[offset + WILDCARD];
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        // 字面量
+        int edge = findEdge(offset, path, start, end);
+        if (edge >= 0) {
+            int route = match(mEdges[edge], path, end + 1, captures, depth);
+            if (route >= 0) {
+                return route;
+            }
+        }
+
+        // 参数
+        int paramChild = mNodes[offset + PARAM_CHILD];
+        if (paramChild >= 0 && end > start) {
+            captures[2 * depth] = start;
+            captures[2 * depth + 1] = end;
+            int route = match(paramChild, path, end + 1, captures, depth + 1);
+            if (route >= 0) {
+                return route;
+            }
+        }
+
+        // 通配符
+        return mNodes[offset + WILDCARD];
+    }
+
+    /**
+     * 在节点的字面量边中二分查找路由地址的 [ start , end ) 段
+     * @return 边的序号 , 没有找到返回 -1
+     */
+    private int findEdge(int offset, String path, int start, int end) {
+        int low = mNodes[offset + FIRST_EDGE];
+        int high = low + mNodes[offset + EDGE_COUNT] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mLabels[mid], path, start, end);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 比较 label 与 path 的 [ start , end ) 段 , 不创建子字符串 , 顺序与 String.compareTo 相同
+     */
+    private static int compare(String label, String path, int start, int end) {
+        int length = end - start;
+        int min = Math.min(label.length(), length);
+        for (int i = 0; i < min; i++) {
+            int cmp = label.charAt(i) - path.charAt(start + i);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return label.length() - length;
+    }
+
+    /**
+     * 判断路由地址是否带有参数或通配符 , 带有 { } * 字符的路由地址都需要通过 checkPattern 检查格式
+     */
+    public static boolean isPattern(String path) {
+        return path.indexOf('{') >= 0 || path.indexOf('}') >= 0 || path.indexOf('*') >= 0;
+    }
+
+    /**
+     * 检查路由地址模板的格式 , 编译时调用
+     * @param path 路由地址
+     * @return 格式错误的原因 , 格式正确返回 null
+     */
+    public static String checkPattern(String path) {
+        if (!path.startsWith("/")) {
+            return "必须以 / 开头";
+        }
+        String[] segments = path.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                return "不能有空的路径段";
+            }
+            if (WILDCARD_SEGMENT.equals(segment)) {
+                if (i == 0) {
+                    return "第一段是路由分组 , 不能使用通配符";
+                }
+                if (i != segments.length - 1) {
+                    return "通配符 * 只能是最后一段";
+                }
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (i == 0) {
+                    return "第一段是路由分组 , 不能使用参数";
+                }
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || name.indexOf('{') >= 0 || name.indexOf('}') >= 0) {
+                    return "参数名 " + segment + " 格式错误";
+                }
+            } else if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0 || segment.indexOf('*') >= 0) {
+                return "参数和通配符必须是完整的一段 : " + segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 路由地址模板中的参数名
+     */
+    private static String[] paramNames(String pattern) {
+        List<String> names = new ArrayList<>();
+        for (String segment : pattern.substring(1).split("/")) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * 编译时构建匹配树
+     *
+     * 两个路由地址在替换参数名之后相同 , 如 /user/{id} 与 /user/{name} , 或 /user/* 与 /user/* ,
+     * 则任何路由地址都无法区分这两个路由 , 视为冲突
+     *
+     * @param patterns 路由地址模板 , 格式需要先通过 checkPattern 检查 , 下标即为路由 ID
+     * @return 匹配树
+     * @throws IllegalArgumentException 路由地址冲突
+     */
+    public static RouteTrie build(List<String> patterns) {
+        BuildNode root = new BuildNode();
+        for (int route = 0; route < patterns.size(); route++) {
+            String pattern = patterns.get(route);
+            BuildNode node = root;
+            String[] segments = pattern.substring(1).split("/");
+            boolean wildcard = false;
+            for (String segment : segments) {
+                if (WILDCARD_SEGMENT.equals(segment)) {
+                    wildcard = true;
+                    break;
+                }
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (node.paramChild == null) {
+                        node.paramChild = new BuildNode();
+                    }
+                    node = node.paramChild;
+                } else {
+                    BuildNode child = node.children.get(segment);
+                    if (child == null) {
+                        child = new BuildNode();
+                        node.children.put(segment, child);
+                    }
+                    node = child;
+                }
+            }
+
+            int existing = wildcard ? node.wildcard : node.route;
+            if (existing >= 0) {
+                throw new IllegalArgumentException("路由地址 " + pattern + " 与 " + patterns.get(existing) + " 冲突");
+            }
+            if (wildcard) {
+                node.wildcard = route;
+            } else {
+                node.route = route;
+            }
+        }
+
+        // 按照广度优先展开为数组 , 同一节点的字面量边连续存放
+        List<BuildNode> nodes = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<BuildNode> targets = new ArrayList<>();
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            BuildNode node = nodes.get(i);
+            node.firstEdge = labels.size();
+            for (Map.Entry<String, BuildNode> child : node.children.entrySet()) {
+                labels.add(child.getKey());
+                targets.add(child.getValue());
+                child.getValue().index = nodes.size();
+                nodes.add(child.getValue());
+            }
+            if (node.paramChild != null) {
+                node.paramChild.index = nodes.size();
+                nodes.add(node.paramChild);
+            }
+        }
+
+        int[] nodeArray = new int[nodes.size() * NODE_SIZE];
+        for (int i = 0; i < nodes.size(); i++) {
+            BuildNode node = nodes.get(i);
+            int offset = i * NODE_SIZE;
+            nodeArray[offset + FIRST_EDGE] = node.firstEdge;
+            nodeArray[offset + EDGE_COUNT] = node.children.size();
+            nodeArray[offset + PARAM_CHILD] = node.paramChild == null ? -1 : node.paramChild.index;
+            nodeArray[offset + ROUTE] = node.route;
+            nodeArray[offset + WILDCARD] = node.wildcard;
+        }
+        int[] edgeArray = new int[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            edgeArray[i] = targets.get(i).index;
+        }
+        return new RouteTrie(nodeArray, edgeArray, labels.toArray(new String[0]),
+                patterns.toArray(new String[0]));
+    }
+
+    /**
+     * 编译时构建使用的节点
+     */
+    private static final class BuildNode {
+        /**
+         * 字面量子节点 , 按照段排序 , 与运行时二分查找的顺序一致
+         */
+        final Map<String, BuildNode> children = new TreeMap<>();
+        BuildNode paramChild;
+        int route = -1;
+        int wildcard = -1;
+        int index;
+        int firstEdge;
+    }
+}
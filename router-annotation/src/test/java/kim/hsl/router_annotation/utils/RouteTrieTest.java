@@ -0,0 +1,162 @@
+package kim.hsl.router_annotation.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 路由地址匹配树 , 与逐个尝试正则表达式的匹配结果对比
+ */
+public class RouteTrieTest {
+
+    private static final List<String> PATTERNS = Arrays.asList(
+            "/user/{id}",
+            "/user/me",
+            "/user/{id}/orders/*",
+            "/user/{uid}/profile",
+            "/user/me/profile",
+            "/shop/{shopId}/item/{itemId}",
+            "/shop/{shopId}/item/{itemId}/reviews",
+            "/shop/list",
+            "/files/*",
+            "/a/{x}/b",
+            "/a/c/{y}");
+
+    @Test
+    public void match_precedence() {
+        RouteTrie trie = RouteTrie.build(PATTERNS);
+
+        // 字面量优先于参数
+        assertEquals("/user/me", trie.match("/user/me").pattern);
+        assertEquals("/user/me/profile", trie.match("/user/me/profile").pattern);
+
+        RouteTrie.Match match = trie.match("/user/10001/orders/2021/01");
+        assertEquals("/user/{id}/orders/*", match.pattern);
+        assertArrayEquals(new String[]{"id"}, match.names);
+        assertArrayEquals(new String[]{"10001"}, match.values);
+
+        // 字面量分支匹配失败后回溯到参数分支
+        match = trie.match("/a/c/b");
+        assertEquals("/a/c/{y}", match.pattern);
+        match = trie.match("/a/c/d");
+        assertEquals("/a/c/{y}", match.pattern);
+        match = trie.match("/user/me/orders/1");
+        assertEquals("/user/{id}/orders/*", match.pattern);
+        assertArrayEquals(new String[]{"me"}, match.values);
+
+        // 通配符匹配空
+        assertEquals("/files/*", trie.match("/files").pattern);
+
+        match = trie.match("/shop/7/item/42/reviews");
+        assertArrayEquals(new String[]{"shopId", "itemId"}, match.names);
+        assertArrayEquals(new String[]{"7", "42"}, match.values);
+
+        assertNull(trie.match("/user"));
+        assertNull(trie.match("/user//profile"));
+        assertNull(trie.match("/shop/7/item"));
+        assertNull(trie.match("/missing/route"));
+    }
+
+    @Test
+    public void match_sameAsRegex() {
+        RouteTrie trie = RouteTrie.build(PATTERNS);
+        List<Pattern> regexes = new ArrayList<>();
+        for (String pattern : PATTERNS) {
+            regexes.add(toRegex(pattern));
+        }
+
+        String[] words = {"user", "me", "orders", "profile", "shop", "item", "reviews", "list", "files",
+                "a", "b", "c", "x", "10001", ""};
+        Random random = new Random(20210101L);
+        for (int i = 0; i < 100000; i++) {
+            StringBuilder path = new StringBuilder();
+            int segments = 1 + random.nextInt(6);
+            for (int s = 0; s < segments; s++) {
+                path.append('/').append(words[random.nextInt(s == 0 ? words.length - 1 : words.length)]);
+            }
+
+            RouteTrie.Match match = trie.match(path.toString());
+            boolean regexMatched = false;
+            for (Pattern regex : regexes) {
+                if (regex.matcher(path).matches()) {
+                    regexMatched = true;
+                    break;
+                }
+            }
+            if (match == null) {
+                if (regexMatched) {
+                    fail("正则表达式匹配 , 匹配树没有匹配 : " + path);
+                }
+                continue;
+            }
+
+            // 匹配树返回的路由 , 其正则表达式必须匹配 , 且参数值相同
+            Matcher matcher = regexes.get(PATTERNS.indexOf(match.pattern)).matcher(path);
+            assertTrue(match.pattern + " 不匹配 " + path, matcher.matches());
+            for (int g = 0; g < match.values.length; g++) {
+                assertEquals(path.toString(), matcher.group(g + 1), match.values[g]);
+            }
+        }
+    }
+
+    @Test
+    public void build_conflict() {
+        assertConflict("/user/{id}", "/user/{name}");
+        assertConflict("/files/*", "/files/*");
+        assertConflict("/user/list", "/user/list");
+        // 参数名不同但位置不冲突
+        assertNotNull(RouteTrie.build(Arrays.asList("/user/{id}/a", "/user/{name}/b")));
+    }
+
+    @Test
+    public void checkPattern() {
+        assertNull(RouteTrie.checkPattern("/user/{id}/orders/*"));
+        assertNotNull(RouteTrie.checkPattern("/{group}/list"));
+        assertNotNull(RouteTrie.checkPattern("/user/*/orders"));
+        assertNotNull(RouteTrie.checkPattern("/user/{}"));
+        assertNotNull(RouteTrie.checkPattern("/user/id{id}"));
+        assertNotNull(RouteTrie.checkPattern("/user//{id}"));
+    }
+
+    private static void assertConflict(String a, String b) {
+        try {
+            RouteTrie.build(Arrays.asList(a, b));
+            fail(a + " 与 " + b + " 应该冲突");
+        } catch (IllegalArgumentException e) {
+            // 冲突
+        }
+    }
+
+    /**
+     * 将路由地址模板转换为正则表达式 , 参数匹配一个非空段 , 通配符匹配剩余的所有段 , 允许结尾的 /
+     */
+    static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder("^");
+        String[] segments = pattern.substring(1).split("/");
+        for (String segment : segments) {
+            if ("*".equals(segment)) {
+                regex.append("(?:/.*)?");
+                return Pattern.compile(regex.append('$').toString());
+            }
+            regex.append('/');
+            if (segment.startsWith("{")) {
+                regex.append("([^/]+)");
+            } else {
+                regex.append(Pattern.quote(segment));
+            }
+        }
+        return Pattern.compile(regex.append("/?$").toString());
+    }
+}
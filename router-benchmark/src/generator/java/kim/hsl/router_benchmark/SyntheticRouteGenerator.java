@@ -0,0 +1,154 @@
+package kim.hsl.router_benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * 生成基准测试使用的合成路由表
+ *
+ * 每 1000 个路由组成一个模块 , 每个模块 10 个分组 , 每个分组 100 个 Activity 路由 ,
+ * 每个分组的第一个 Activity 带有 @Extra 字段 , 每个模块的第一个分组带有 2 个 IService 服务
+ * 大型应用的路由分散在多个组件模块中 , 另外单个类的常量池和方法体大小有限 , 不能把 10 万个路由生成到一个模块中
+ *
+ * 源码生成后 , 按模块分别调用 javac 运行 router-compiler 注解处理器 , 与组件模块的编译过程一致
+ *
+ * 参数 : 规模名称 路由个数 源码输出目录 class 输出目录 编译 classpath 注解处理器 classpath
+ * 如 : s10k 10000 build/generated/synthetic/s10k build/classes/synthetic/s10k ...
+ */
+public class SyntheticRouteGenerator {
+
+    public static final int ROUTES_PER_MODULE = 1000;
+    public static final int GROUPS_PER_MODULE = 10;
+    public static final int ROUTES_PER_GROUP = ROUTES_PER_MODULE / GROUPS_PER_MODULE;
+    public static final int SERVICES_PER_MODULE = 2;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            throw new IllegalArgumentException("参数 : 规模名称 路由个数 源码输出目录 class 输出目录 编译classpath 注解处理器classpath");
+        }
+        String scale = args[0];
+        int routeCount = Integer.parseInt(args[1]);
+        File sourceDir = new File(args[2]);
+        File classDir = new File(args[3]);
+        String classpath = args[4];
+        String processorPath = args[5];
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("需要使用 JDK 运行 , 当前运行环境没有 javac");
+        }
+
+        int moduleCount = Math.max(1, routeCount / ROUTES_PER_MODULE);
+        for (int module = 0; module < moduleCount; module++) {
+            String moduleName = scale + "_m" + module;
+            File moduleSourceDir = new File(sourceDir, moduleName);
+            List<File> sources = generateModule(scale, module, moduleSourceDir);
+            compileModule(compiler, moduleName, sources, new File(sourceDir, moduleName + "_apt"),
+                    classDir, classpath, processorPath);
+        }
+        System.out.println("SyntheticRouteGenerator : " + scale + " 生成 " + moduleCount + " 个模块 , "
+                + moduleCount * ROUTES_PER_MODULE + " 个路由");
+    }
+
+    /**
+     * 生成一个模块的源码 , 每个分组一个源文件 , 路由 Activity 为其中的静态内部类
+     */
+    private static List<File> generateModule(String scale, int module, File moduleSourceDir)
+            throws IOException {
+        List<File> sources = new ArrayList<>();
+        for (int group = 0; group < GROUPS_PER_MODULE; group++) {
+            String packageName = "kim.hsl.benchmark." + scale + ".m" + module + ".g" + group;
+            String groupName = groupName(scale, module, group);
+
+            StringBuilder code = new StringBuilder();
+            code.append("package ").append(packageName).append(";\n\n")
+                    .append("import android.app.Activity;\n")
+                    .append("import kim.hsl.route_core.template.IService;\n")
+                    .append("import kim.hsl.router_annotation.Extra;\n")
+                    .append("import kim.hsl.router_annotation.Route;\n\n")
+                    .append("public final class Routes {\n");
+            for (int route = 0; route < ROUTES_PER_GROUP; route++) {
+                code.append("    @Route(path = \"").append(routePath(groupName, route)).append("\")\n")
+                        .append("    public static class R").append(route).append(" extends Activity {\n");
+                if (route == 0) {
+                    code.append("        @Extra public String name;\n")
+                            .append("        @Extra public int age;\n")
+                            .append("        @Extra public long id;\n")
+                            .append("        @Extra public boolean vip;\n")
+                            .append("        @Extra public String city;\n")
+                            .append("        @Extra public int level;\n")
+                            .append("        @Extra public long timestamp;\n")
+                            .append("        @Extra public double score;\n");
+                }
+                code.append("    }\n\n");
+            }
+            if (group == 0) {
+                for (int service = 0; service < SERVICES_PER_MODULE; service++) {
+                    code.append("    @Route(path = \"").append(servicePath(groupName, service)).append("\")\n")
+                            .append("    public static class Service").append(service)
+                            .append(" implements IService {\n    }\n\n");
+                }
+            }
+            code.append("}\n");
+
+            File file = new File(moduleSourceDir, packageName.replace('.', File.separatorChar)
+                    + File.separator + "Routes.java");
+            file.getParentFile().mkdirs();
+            try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(code.toString());
+            }
+            sources.add(file);
+        }
+        return sources;
+    }
+
+    /**
+     * 编译一个模块 , 运行 router-compiler 注解处理器生成路由表
+     */
+    private static void compileModule(JavaCompiler compiler, String moduleName, List<File> sources,
+                                      File generatedDir, File classDir, String classpath,
+                                      String processorPath) throws IOException {
+        generatedDir.mkdirs();
+        classDir.mkdirs();
+        List<String> options = Arrays.asList(
+                "-encoding", "UTF-8",
+                "-nowarn",
+                "-source", "8",
+                "-target", "8",
+                "-classpath", classpath,
+                "-processorpath", processorPath,
+                "-AmoduleName=" + moduleName,
+                "-s", generatedDir.getPath(),
+                "-d", classDir.getPath());
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null,
+                StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sources);
+            if (!compiler.getTask(null, fileManager, null, options, null, units).call()) {
+                throw new IllegalStateException("编译合成模块失败 : " + moduleName);
+            }
+        }
+    }
+
+    public static String groupName(String scale, int module, int group) {
+        return scale + "_m" + module + "_g" + group;
+    }
+
+    public static String routePath(String groupName, int route) {
+        return "/" + groupName + "/r" + route;
+    }
+
+    public static String servicePath(String groupName, int service) {
+        return "/" + groupName + "/service" + service;
+    }
+}
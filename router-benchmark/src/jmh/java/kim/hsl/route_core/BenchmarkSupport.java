@@ -0,0 +1,163 @@
+package kim.hsl.route_core;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kim.hsl.route_core.template.IRouteGroup;
+import kim.hsl.route_core.template.IRouteIndex;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+
+/**
+ * 基准测试公共代码
+ *
+ * 合成路由表由 SyntheticRouteGenerator 生成 , 每个规模分为若干个模块 , 模块名为 规模_m序号 ,
+ * 这里按照插件注册的方式 , 将各模块生成的路由类依次传入 Router.register , 并加载各模块的二进制路由表 ,
+ * 然后将路由框架标记为初始化完成
+ *
+ * 基准测试类放在 kim.hsl.route_core 包中 , 以便访问 Warehouse 等包内可见的类
+ */
+final class BenchmarkSupport {
+
+    /**
+     * 需要注册的路由类前缀 , 与 Router.REGISTER_CLASS_PREFIXES 一致
+     */
+    private static final String[] REGISTER_CLASS_PREFIXES = {
+            "kim.hsl.router.Router_Root_",
+            "kim.hsl.router.Router_Index_",
+            "kim.hsl.router.Router_Factory_",
+            "kim.hsl.router.Router_Extra_",
+            "kim.hsl.router.Router_Interceptors_",
+            "kim.hsl.router.Router_Matcher_",
+            "kim.hsl.router.Router_Services_",
+            "kim.hsl.router.Router_Remote_"
+    };
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 清空路由仓库 , 然后注册指定规模的所有模块
+     * @param scale 规模名称 , 如 s10k
+     * @return 注册的模块名称
+     */
+    static List<String> register(String scale) throws Exception {
+        Warehouse.groupsIndex.clear();
+        Warehouse.routes.clear();
+        Warehouse.routeIndexes.clear();
+        Warehouse.tableIndexes.clear();
+        Warehouse.routeTables.clear();
+        Warehouse.routeMatchers.clear();
+        Warehouse.factories.clear();
+        Warehouse.extrasIndex.clear();
+        Warehouse.interceptorRoots.clear();
+        Warehouse.groupLocks.clear();
+        Warehouse.services = new ServiceRegistry();
+        Warehouse.fragments = new FragmentCache();
+        Warehouse.serviceIndex.clear();
+        Warehouse.remoteServices.clear();
+
+        Method register = Router.class.getDeclaredMethod("register", Object.class);
+        register.setAccessible(true);
+
+        List<String> modules = new ArrayList<>();
+        for (int module = 0; ; module++) {
+            String moduleName = scale + "_m" + module;
+            if (!exists(REGISTER_CLASS_PREFIXES[0] + moduleName)) {
+                break;
+            }
+            // 二进制路由表由注解处理器写出到 class 输出目录中 , 与 Router.init 相同 , 在注册路由类之前加载
+            InputStream in = BenchmarkSupport.class.getClassLoader()
+                    .getResourceAsStream("assets/" + RouteTableFormat.assetPath(moduleName));
+            if (in != null) {
+                try {
+                    Warehouse.routeTables.add(new RouteTable(moduleName, RouteTable.read(in, in.available())));
+                } finally {
+                    in.close();
+                }
+            }
+            for (String prefix : REGISTER_CLASS_PREFIXES) {
+                String className = prefix + moduleName;
+                if (exists(className)) {
+                    register.invoke(null, Class.forName(className).getConstructor().newInstance());
+                }
+            }
+            modules.add(moduleName);
+        }
+        if (modules.isEmpty()) {
+            throw new IllegalStateException("没有找到合成路由表 " + scale
+                    + " , 请先执行 generateSynthetic" + Character.toUpperCase(scale.charAt(0)) + scale.substring(1));
+        }
+
+        markReady();
+        return modules;
+    }
+
+    /**
+     * 获取所有模块的路由地址 , 按照模块顺序排列
+     */
+    static String[] paths() {
+        List<String> paths = new ArrayList<>();
+        addPaths(Warehouse.routeIndexes, paths);
+        // 有二进制路由表的模块 , 路由索引被路由表替代
+        addPaths(Warehouse.tableIndexes, paths);
+        return paths.toArray(new String[0]);
+    }
+
+    private static void addPaths(List<IRouteIndex> routeIndexes, List<String> paths) {
+        for (IRouteIndex routeIndex : routeIndexes) {
+            for (String path : routeIndex.paths()) {
+                if (path != null) {
+                    paths.add(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * 创建所有分组对象 , 之后基准测试只统计 loadInto 的耗时
+     */
+    static IRouteGroup[] groups() throws Exception {
+        List<IRouteGroup> groups = new ArrayList<>();
+        for (Class<? extends IRouteGroup> groupClass : Warehouse.groupsIndex.values()) {
+            groups.add(groupClass.getConstructor().newInstance());
+        }
+        return groups.toArray(new IRouteGroup[0]);
+    }
+
+    /**
+     * 将所有分组加载到 Warehouse.routes 中
+     */
+    static void loadAllGroups() throws Exception {
+        for (IRouteGroup group : groups()) {
+            group.loadInto(Warehouse.routes);
+        }
+        Warehouse.groupsIndex.clear();
+    }
+
+    /**
+     * 将路由框架标记为初始化完成 , 跳转和参数注入不再等待初始化
+     */
+    private static void markReady() throws Exception {
+        Field initStarted = Router.class.getDeclaredField("mInitStarted");
+        initStarted.setAccessible(true);
+        ((AtomicBoolean) initStarted.get(null)).set(true);
+
+        Field readyLatch = Router.class.getDeclaredField("mReadyLatch");
+        readyLatch.setAccessible(true);
+        ((CountDownLatch) readyLatch.get(null)).countDown();
+    }
+
+    private static boolean exists(String className) {
+        try {
+            Class.forName(className, false, BenchmarkSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
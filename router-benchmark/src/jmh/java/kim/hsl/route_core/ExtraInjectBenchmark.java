@@ -0,0 +1,73 @@
+package kim.hsl.route_core;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import kim.hsl.route_core.template.IExtra;
+
+/**
+ * 参数注入 , 目标 Activity 带有 8 个 @Extra 字段 , Intent 中带有全部 8 个参数
+ *
+ * inject : Router.inject , 包括注入器缓存查找和耗时统计
+ * loadExtra : 直接调用生成的 _Extra 注入器
+ *
+ * 注入耗时与路由规模无关 , 只使用 1k 规模的合成路由表
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ExtraInjectBenchmark {
+
+    private static final String SCALE = "s1k";
+
+    private Activity mActivity;
+    private IExtra mExtra;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkSupport.register(SCALE);
+
+        Class<?> activityClass = Class.forName("kim.hsl.benchmark." + SCALE + ".m0.g0.Routes$R0");
+        Bundle extras = new Bundle();
+        extras.putString("name", "Router");
+        extras.putInt("age", 18);
+        extras.putLong("id", 10001L);
+        extras.putBoolean("vip", true);
+        extras.putString("city", "Beijing");
+        extras.putInt("level", 3);
+        extras.putLong("timestamp", 1600000000000L);
+        extras.putDouble("score", 99.5);
+        Intent intent = new Intent();
+        intent.putExtras(extras);
+
+        mActivity = (Activity) activityClass.getConstructor().newInstance();
+        mActivity.setIntent(intent);
+
+        Warehouse.ExtraEntry entry = Warehouse.extrasIndex.get(activityClass);
+        mExtra = entry.extraRoot.create(entry.id);
+    }
+
+    @Benchmark
+    public Activity inject() {
+        Router.inject(mActivity);
+        return mActivity;
+    }
+
+    @Benchmark
+    public Activity loadExtra() {
+        mExtra.loadExtra(mActivity);
+        return mActivity;
+    }
+}
@@ -0,0 +1,77 @@
+package kim.hsl.route_core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import kim.hsl.route_core.template.IRouteGroup;
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 路由分组加载 , 每次调用 IRouteGroup.loadInto 将一个分组 ( 100 个路由 ) 装载到新的映射表中
+ *
+ * concurrentHashMap : 与 Warehouse.routes 相同的映射表类型
+ * hashMap : 对照组 , 只统计生成代码创建 RouteMeta 和写入映射表的耗时
+ * presized : 与 Router.loadGroup 相同 , 按照 IRouteGroup.routeCount 预设容量后装载 , 再合并到 ConcurrentHashMap
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GroupLoadBenchmark {
+
+    @Param({"s1k", "s10k", "s100k"})
+    public String scale;
+
+    private IRouteGroup[] mGroups;
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkSupport.register(scale);
+        mGroups = BenchmarkSupport.groups();
+    }
+
+    private IRouteGroup next() {
+        int index = mIndex + 1;
+        if (index == mGroups.length) {
+            index = 0;
+        }
+        mIndex = index;
+        return mGroups[index];
+    }
+
+    @Benchmark
+    public Map<String, RouteMeta> concurrentHashMap() {
+        Map<String, RouteMeta> atlas = new ConcurrentHashMap<>();
+        next().loadInto(atlas);
+        return atlas;
+    }
+
+    @Benchmark
+    public Map<String, RouteMeta> hashMap() {
+        Map<String, RouteMeta> atlas = new HashMap<>();
+        next().loadInto(atlas);
+        return atlas;
+    }
+
+    @Benchmark
+    public Map<String, RouteMeta> presized() {
+        IRouteGroup group = next();
+        Map<String, RouteMeta> groupRoutes = new HashMap<>((int) (group.routeCount() / 0.75f) + 1);
+        group.loadInto(groupRoutes);
+        Map<String, RouteMeta> atlas = new ConcurrentHashMap<>();
+        atlas.putAll(groupRoutes);
+        return atlas;
+    }
+}
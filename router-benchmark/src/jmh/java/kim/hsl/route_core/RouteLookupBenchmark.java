@@ -0,0 +1,81 @@
+package kim.hsl.route_core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 路由查找
+ *
+ * findRoute : Router.findRoute , 先探测没有二进制路由表的模块的最小完美哈希索引 , 再查找映射表 , 包括耗时统计
+ * warehouseGet : 所有分组都已加载后 , 直接查找 Warehouse.routes 映射表
+ * routeTable : 在各模块的二进制路由表中二分查找 , 命中后加载目标类并创建 RouteMeta
+ * missing : 查找不存在的路由 , 需要探测所有模块的索引和路由表
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RouteLookupBenchmark {
+
+    @Param({"s1k", "s10k", "s100k"})
+    public String scale;
+
+    private String[] mPaths;
+    private String[] mGroups;
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkSupport.register(scale);
+        mPaths = BenchmarkSupport.paths();
+        mGroups = new String[mPaths.length];
+        for (int i = 0; i < mPaths.length; i++) {
+            mGroups[i] = Router.extractGroup(mPaths[i]);
+        }
+        BenchmarkSupport.loadAllGroups();
+    }
+
+    /**
+     * 依次查找所有路由 , 避免一直命中同一个缓存行
+     */
+    private int next() {
+        int index = mIndex + 1;
+        if (index == mPaths.length) {
+            index = 0;
+        }
+        mIndex = index;
+        return index;
+    }
+
+    @Benchmark
+    public RouteMeta findRoute() {
+        int index = next();
+        return Router.findRoute(mPaths[index], mGroups[index]);
+    }
+
+    @Benchmark
+    public RouteMeta warehouseGet() {
+        return Warehouse.routes.get(mPaths[next()]);
+    }
+
+    @Benchmark
+    public RouteMeta routeTable() {
+        int index = next();
+        return Router.findRouteInTables(mPaths[index], mGroups[index]);
+    }
+
+    @Benchmark
+    public RouteMeta missing() {
+        return Router.findRoute("/missing/route", "missing");
+    }
+}
@@ -0,0 +1,91 @@
+package kim.hsl.route_core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import kim.hsl.router_annotation.utils.RouteTrie;
+
+/**
+ * 带参数 / 通配符的路由地址匹配
+ *
+ * trie : RouteTrie 匹配树 , 耗时与路由地址长度有关 , 与路由个数无关
+ * regex : 对照组 , 将每个路由地址模板转换为正则表达式 , 依次尝试直到匹配
+ *
+ * 路由地址模板为 /g序号/item/{id}/detail 和 /g序号/user/{id}/orders/* , 查找的路由地址随机分布在所有模板中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RouteMatchBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int routes;
+
+    private RouteTrie mTrie;
+    private Pattern[] mRegexes;
+    private String[] mPaths;
+    private int mIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; patterns.size() < routes; i++) {
+            patterns.add("/g" + i + "/item/{id}/detail");
+            patterns.add("/g" + i + "/user/{id}/orders/*");
+        }
+        mTrie = RouteTrie.build(patterns);
+
+        mRegexes = new Pattern[patterns.size()];
+        for (int i = 0; i < mRegexes.length; i++) {
+            mRegexes[i] = Pattern.compile("^" + patterns.get(i)
+                    .replace("{id}", "([^/]+)")
+                    .replace("/*", "(?:/.*)?") + "$");
+        }
+
+        Random random = new Random(1);
+        mPaths = new String[1024];
+        for (int i = 0; i < mPaths.length; i++) {
+            int group = random.nextInt(patterns.size() / 2);
+            mPaths[i] = random.nextBoolean()
+                    ? "/g" + group + "/item/" + random.nextInt(100000) + "/detail"
+                    : "/g" + group + "/user/" + random.nextInt(100000) + "/orders/2021/" + random.nextInt(12);
+        }
+    }
+
+    private String next() {
+        int index = (mIndex + 1) & (mPaths.length - 1);
+        mIndex = index;
+        return mPaths[index];
+    }
+
+    @Benchmark
+    public RouteTrie.Match trie() {
+        return mTrie.match(next());
+    }
+
+    @Benchmark
+    public String regex() {
+        String path = next();
+        for (Pattern regex : mRegexes) {
+            Matcher matcher = regex.matcher(path);
+            if (matcher.matches()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,117 @@
+package kim.hsl.route_core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import kim.hsl.route_core.template.IService;
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 多线程同时获取 IService 服务
+ *
+ * registry : 直接从 ServiceRegistry 获取已经创建的服务
+ * synchronizedMap : 对比 , 在同一个锁中查找并按需创建服务 , 即 ServiceRegistry 之前的实现方式
+ * navigation : 通过 Router.build(path).navigation() 获取服务 , 包括路由查找和耗时统计
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class ServiceBenchmark {
+
+    /**
+     * 所有线程共享的服务路由
+     */
+    @State(Scope.Benchmark)
+    public static class Services {
+        @Param({"s1k", "s10k", "s100k"})
+        public String scale;
+
+        String[] paths;
+        Class<?>[] classes;
+
+        /**
+         * 使用同一个锁保护的服务映射表
+         */
+        final Map<Class<?>, IService> synchronizedMap =
+                Collections.synchronizedMap(new HashMap<Class<?>, IService>());
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchmarkSupport.register(scale);
+            List<String> paths = new ArrayList<>();
+            List<Class<?>> classes = new ArrayList<>();
+            for (String path : BenchmarkSupport.paths()) {
+                RouteMeta routeMeta = Router.findRoute(path, Router.extractGroup(path));
+                if (routeMeta.getType() == RouteMeta.TYPE_SERVICE) {
+                    paths.add(path);
+                    classes.add(routeMeta.getClazz());
+                }
+            }
+            this.paths = paths.toArray(new String[0]);
+            this.classes = classes.toArray(new Class<?>[0]);
+        }
+    }
+
+    /**
+     * 每个线程依次获取所有服务
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        int next(int length) {
+            int next = index + 1;
+            if (next == length) {
+                next = 0;
+            }
+            index = next;
+            return next;
+        }
+    }
+
+    private static final ServiceRegistry.Creator CREATOR = new ServiceRegistry.Creator() {
+        @Override
+        public IService create(Class<?> clazz) throws Exception {
+            return (IService) clazz.getConstructor().newInstance();
+        }
+    };
+
+    @Benchmark
+    public IService registry(Services services, Cursor cursor) throws Exception {
+        return Warehouse.services.get(services.classes[cursor.next(services.classes.length)], CREATOR);
+    }
+
+    @Benchmark
+    public IService synchronizedMap(Services services, Cursor cursor) throws Exception {
+        Class<?> clazz = services.classes[cursor.next(services.classes.length)];
+        Map<Class<?>, IService> map = services.synchronizedMap;
+        synchronized (map) {
+            IService service = map.get(clazz);
+            if (service == null) {
+                service = CREATOR.create(clazz);
+                map.put(clazz, service);
+            }
+            return service;
+        }
+    }
+
+    @Benchmark
+    public Object navigation(Services services, Cursor cursor) {
+        return Router.getInstance().build(services.paths[cursor.next(services.paths.length)]).navigation();
+    }
+}
@@ -0,0 +1,101 @@
+package kim.hsl.route_core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+import kim.hsl.route_core.utils.UriParser;
+
+/**
+ * 深度链接参数解析 , 将 5 个查询参数转换为 @Extra 字段的类型
+ *
+ * parser : UriParser 只扫描一次 URI , 参数名二分查找 , 整数直接从字符数组解析
+ * decode : 对照组 , 与 Uri.getQueryParameter 相同 , 按参数名查找 , 每个参数都创建解码后的字符串 , 再转换类型
+ *
+ * 运行时加上 -prof gc 可以对比每次解析分配的内存 , parser 只分配路由地址字符串 , decode 为每个参数分配解码后的字符串
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UriParseBenchmark {
+
+    private static final String URI = "myapp://example.com/user/10001/orders"
+            + "?age=18&from=push&height=180&id=9223372036854775&vip=true&utm_source=mail%20campaign";
+
+    /**
+     * 目标界面的参数名 , 与生成的 _Extra 注入器中的 URI_KEYS 相同 , 已排序
+     */
+    private static final String[] KEYS = {"age", "height", "id", "name", "vip"};
+
+    @Benchmark
+    public long parser() {
+        UriParser parser = UriParser.obtain();
+        parser.parse(URI);
+        long sum = parser.path().length();
+        while (parser.nextParameter()) {
+            switch (parser.keyIndex(KEYS)) {
+                case 0:
+                case 1:
+                    sum += parser.intValue();
+                    break;
+                case 2:
+                    sum += parser.longValue();
+                    break;
+                case 4:
+                    sum += parser.booleanValue() ? 1 : 0;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long decode() throws UnsupportedEncodingException {
+        int query = URI.indexOf('?');
+        int pathStart = URI.indexOf('/', URI.indexOf("//") + 2);
+        long sum = URI.substring(pathStart, query).length();
+        sum += Integer.parseInt(getQueryParameter(URI, query, "age"));
+        sum += Integer.parseInt(getQueryParameter(URI, query, "height"));
+        sum += Long.parseLong(getQueryParameter(URI, query, "id"));
+        String name = getQueryParameter(URI, query, "name");
+        sum += name == null ? 0 : name.length();
+        sum += Boolean.parseBoolean(getQueryParameter(URI, query, "vip")) ? 1 : 0;
+        return sum;
+    }
+
+    /**
+     * 与 android.net.Uri.getQueryParameter 相同 , 每次从头扫描查询字符串 , 命中后创建解码后的参数值
+     */
+    private static String getQueryParameter(String uri, int query, String key)
+            throws UnsupportedEncodingException {
+        String encodedKey = URLEncoder.encode(key, "UTF-8");
+        int start = query + 1;
+        int length = uri.length();
+        while (start < length) {
+            int end = uri.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            int separator = uri.indexOf('=', start);
+            if (separator > end || separator < 0) {
+                separator = end;
+            }
+            if (separator - start == encodedKey.length()
+                    && uri.regionMatches(start, encodedKey, 0, encodedKey.length())) {
+                return separator == end ? "" : URLDecoder.decode(uri.substring(separator + 1, end), "UTF-8");
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+}
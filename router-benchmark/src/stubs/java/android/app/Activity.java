@@ -0,0 +1,23 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Activity extends Context {
+    private Intent mIntent;
+
+    public Intent getIntent() {
+        return mIntent;
+    }
+
+    public void setIntent(Intent intent) {
+        this.mIntent = intent;
+    }
+
+    public boolean isChangingConfigurations() {
+        return false;
+    }
+}
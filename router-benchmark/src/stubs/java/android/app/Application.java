@@ -0,0 +1,12 @@
+package android.app;
+
+import android.content.Context;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Application extends Context {
+    public static String getProcessName() {
+        return "kim.hsl.benchmark";
+    }
+}
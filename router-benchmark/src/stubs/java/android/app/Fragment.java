@@ -0,0 +1,11 @@
+package android.app;
+
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Fragment {
+    public void setArguments(Bundle args) {
+    }
+}
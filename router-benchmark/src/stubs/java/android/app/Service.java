@@ -0,0 +1,19 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.IBinder;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public abstract class Service extends Context {
+    public void onCreate() {
+    }
+
+    public final Application getApplication() {
+        throw new UnsupportedOperationException("基准测试中不支持 Service");
+    }
+
+    public abstract IBinder onBind(Intent intent);
+}
@@ -0,0 +1,26 @@
+package android.content;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public final class ComponentName {
+    private final String mPackage;
+    private final String mClass;
+
+    public ComponentName(String pkg, String cls) {
+        this.mPackage = pkg;
+        this.mClass = cls;
+    }
+
+    public ComponentName(Context context, Class<?> cls) {
+        this(context.getPackageName(), cls.getName());
+    }
+
+    public String getPackageName() {
+        return mPackage;
+    }
+
+    public String getClassName() {
+        return mClass;
+    }
+}
@@ -0,0 +1,32 @@
+package android.content;
+
+import android.database.Cursor;
+import android.net.Uri;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public abstract class ContentProvider {
+    public final Context getContext() {
+        return null;
+    }
+
+    public abstract boolean onCreate();
+
+    public abstract Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                                 String sortOrder);
+
+    public abstract String getType(Uri uri);
+
+    public abstract Uri insert(Uri uri, ContentValues values);
+
+    public abstract int delete(Uri uri, String selection, String[] selectionArgs);
+
+    public abstract int update(Uri uri, ContentValues values, String selection, String[] selectionArgs);
+
+    public void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+    }
+}
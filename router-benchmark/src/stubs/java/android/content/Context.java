@@ -0,0 +1,51 @@
+package android.content;
+
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.content.res.AssetManager;
+
+import java.io.File;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Context {
+    public static final int MODE_PRIVATE = 0;
+    public static final int MODE_MULTI_PROCESS = 4;
+    public static final int BIND_AUTO_CREATE = 0x0001;
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public String getPackageName() {
+        return "kim.hsl.benchmark";
+    }
+
+    public PackageManager getPackageManager() {
+        throw new UnsupportedOperationException("基准测试中不支持 PackageManager");
+    }
+
+    public ApplicationInfo getApplicationInfo() {
+        return new ApplicationInfo();
+    }
+
+    public File getFilesDir() {
+        return new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    public AssetManager getAssets() {
+        throw new UnsupportedOperationException("基准测试中不支持 AssetManager");
+    }
+
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        throw new UnsupportedOperationException("基准测试中不支持 SharedPreferences");
+    }
+
+    public void startActivity(Intent intent) {
+    }
+
+    public boolean bindService(Intent service, ServiceConnection connection, int flags) {
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package android.content;
+
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Intent {
+    public static final int FLAG_ACTIVITY_NEW_TASK = 0x10000000;
+
+    private ComponentName mComponent;
+    private Bundle mExtras;
+    private int mFlags;
+
+    public Intent() {
+    }
+
+    public Intent(Context context, Class<?> cls) {
+        mComponent = new ComponentName(context, cls);
+    }
+
+    public Intent setComponent(ComponentName component) {
+        mComponent = component;
+        return this;
+    }
+
+    public ComponentName getComponent() {
+        return mComponent;
+    }
+
+    public Intent setFlags(int flags) {
+        mFlags = flags;
+        return this;
+    }
+
+    public Intent addFlags(int flags) {
+        mFlags |= flags;
+        return this;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public Intent putExtras(Bundle extras) {
+        if (mExtras == null) {
+            mExtras = new Bundle(extras);
+        } else {
+            mExtras.putAll(extras);
+        }
+        return this;
+    }
+
+    public Bundle getExtras() {
+        return mExtras == null ? null : new Bundle(mExtras);
+    }
+}
@@ -0,0 +1,12 @@
+package android.content;
+
+import android.os.IBinder;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public interface ServiceConnection {
+    void onServiceConnected(ComponentName name, IBinder service);
+
+    void onServiceDisconnected(ComponentName name);
+}
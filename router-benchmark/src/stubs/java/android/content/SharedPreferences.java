@@ -0,0 +1,26 @@
+package android.content;
+
+import java.util.Set;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public interface SharedPreferences {
+    String getString(String key, String defaultValue);
+
+    Set<String> getStringSet(String key, Set<String> defaultValues);
+
+    int getInt(String key, int defaultValue);
+
+    Editor edit();
+
+    interface Editor {
+        Editor putString(String key, String value);
+
+        Editor putStringSet(String key, Set<String> values);
+
+        Editor clear();
+
+        void apply();
+    }
+}
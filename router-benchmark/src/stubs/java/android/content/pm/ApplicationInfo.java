@@ -0,0 +1,16 @@
+package android.content.pm;
+
+import android.os.Bundle;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class ApplicationInfo {
+    public static final int FLAG_DEBUGGABLE = 1 << 1;
+
+    public String sourceDir;
+    public String[] splitSourceDirs;
+    public String dataDir;
+    public int flags;
+    public Bundle metaData;
+}
@@ -0,0 +1,9 @@
+package android.content.pm;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class PackageInfo {
+    public int versionCode;
+    public long lastUpdateTime;
+}
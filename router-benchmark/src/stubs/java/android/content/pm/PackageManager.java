@@ -0,0 +1,17 @@
+package android.content.pm;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public abstract class PackageManager {
+    public static final int GET_META_DATA = 0x00000080;
+
+    public static class NameNotFoundException extends Exception {
+    }
+
+    public abstract ApplicationInfo getApplicationInfo(String packageName, int flags)
+            throws NameNotFoundException;
+
+    public abstract PackageInfo getPackageInfo(String packageName, int flags)
+            throws NameNotFoundException;
+}
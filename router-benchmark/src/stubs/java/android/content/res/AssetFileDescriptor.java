@@ -0,0 +1,24 @@
+package android.content.res;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class AssetFileDescriptor {
+    public FileInputStream createInputStream() throws IOException {
+        throw new UnsupportedOperationException("基准测试中不支持 AssetFileDescriptor");
+    }
+
+    public long getStartOffset() {
+        return 0;
+    }
+
+    public long getLength() {
+        return 0;
+    }
+
+    public void close() throws IOException {
+    }
+}
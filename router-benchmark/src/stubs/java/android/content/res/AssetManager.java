@@ -0,0 +1,23 @@
+package android.content.res;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public final class AssetManager {
+    public static final int ACCESS_BUFFER = 3;
+
+    public String[] list(String path) throws IOException {
+        throw new UnsupportedOperationException("基准测试中不支持 AssetManager");
+    }
+
+    public AssetFileDescriptor openFd(String fileName) throws IOException {
+        throw new UnsupportedOperationException("基准测试中不支持 AssetManager");
+    }
+
+    public InputStream open(String fileName, int accessMode) throws IOException {
+        throw new UnsupportedOperationException("基准测试中不支持 AssetManager");
+    }
+}
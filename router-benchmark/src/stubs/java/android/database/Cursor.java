@@ -0,0 +1,7 @@
+package android.database;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public interface Cursor {
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Binder implements IBinder {
+
+    protected boolean onTransact(int code, Parcel data, Parcel reply, int flags) throws RemoteException {
+        return false;
+    }
+
+    @Override
+    public final boolean transact(int code, Parcel data, Parcel reply, int flags) throws RemoteException {
+        return onTransact(code, data, reply, flags);
+    }
+}
@@ -0,0 +1,20 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Handler {
+    public Handler(Looper looper) {
+    }
+
+    public final boolean post(Runnable runnable) {
+        return true;
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+    }
+}
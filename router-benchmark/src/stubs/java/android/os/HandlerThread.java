@@ -0,0 +1,14 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class HandlerThread extends Thread {
+    public HandlerThread(String name) {
+        super(name);
+    }
+
+    public Looper getLooper() {
+        return null;
+    }
+}
@@ -0,0 +1,11 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public interface IBinder {
+    int FIRST_CALL_TRANSACTION = 0x00000001;
+    int FLAG_ONEWAY = 0x00000001;
+
+    boolean transact(int code, Parcel data, Parcel reply, int flags) throws RemoteException;
+}
@@ -0,0 +1,24 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public final class Looper {
+    private static final Looper sMainLooper = new Looper();
+    private static final MessageQueue sQueue = new MessageQueue();
+
+    public static Looper getMainLooper() {
+        return sMainLooper;
+    }
+
+    /**
+     * 基准测试线程都不是主线程
+     */
+    public static Looper myLooper() {
+        return null;
+    }
+
+    public static MessageQueue myQueue() {
+        return sQueue;
+    }
+}
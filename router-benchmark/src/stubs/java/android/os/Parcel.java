@@ -0,0 +1,55 @@
+package android.os;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public final class Parcel {
+
+    public static Parcel obtain() {
+        throw new UnsupportedOperationException("基准测试中不支持 Parcel");
+    }
+
+    public void recycle() {
+    }
+
+    public void writeInterfaceToken(String descriptor) {
+    }
+
+    public void enforceInterface(String descriptor) {
+    }
+
+    public int dataAvail() {
+        return 0;
+    }
+
+    public int dataPosition() {
+        return 0;
+    }
+
+    public void setDataPosition(int position) {
+    }
+
+    public void setDataSize(int size) {
+    }
+
+    public void writeInt(int value) {
+    }
+
+    public int readInt() {
+        return 0;
+    }
+
+    public void writeLong(long value) {
+    }
+
+    public long readLong() {
+        return 0;
+    }
+
+    public void writeString(String value) {
+    }
+
+    public String readString() {
+        return null;
+    }
+}
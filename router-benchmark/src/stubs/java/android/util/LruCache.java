@@ -0,0 +1,36 @@
+package android.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> mMap;
+
+    public LruCache(final int maxSize) {
+        mMap = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public final synchronized V get(K key) {
+        return mMap.get(key);
+    }
+
+    public final synchronized V put(K key, V value) {
+        return mMap.put(key, value);
+    }
+
+    public final synchronized V remove(K key) {
+        return mMap.remove(key);
+    }
+
+    public final synchronized void evictAll() {
+        mMap.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package androidx.fragment.app;
+
+import android.os.Bundle;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class Fragment implements LifecycleOwner {
+    public void setArguments(Bundle args) {
+    }
+
+    public final Object getHost() {
+        return null;
+    }
+
+    public final FragmentActivity getActivity() {
+        return null;
+    }
+
+    @Override
+    public Lifecycle getLifecycle() {
+        throw new UnsupportedOperationException("基准测试中不支持 Lifecycle");
+    }
+}
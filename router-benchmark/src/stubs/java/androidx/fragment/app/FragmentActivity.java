@@ -0,0 +1,9 @@
+package androidx.fragment.app;
+
+import android.app.Activity;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public class FragmentActivity extends Activity {
+}
@@ -0,0 +1,14 @@
+package androidx.lifecycle;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public abstract class Lifecycle {
+    public abstract void addObserver(LifecycleObserver observer);
+
+    public abstract void removeObserver(LifecycleObserver observer);
+
+    public enum Event {
+        ON_CREATE, ON_START, ON_RESUME, ON_PAUSE, ON_STOP, ON_DESTROY, ON_ANY
+    }
+}
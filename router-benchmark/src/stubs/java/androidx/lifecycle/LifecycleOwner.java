@@ -0,0 +1,8 @@
+package androidx.lifecycle;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public interface LifecycleOwner {
+    Lifecycle getLifecycle();
+}
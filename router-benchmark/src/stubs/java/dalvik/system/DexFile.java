@@ -0,0 +1,25 @@
+package dalvik.system;
+
+import java.io.IOException;
+import java.util.Enumeration;
+
+/**
+ * JVM 基准测试使用的 Android 桩类 , 只实现路由框架用到的方法
+ */
+public final class DexFile {
+    public DexFile(String fileName) throws IOException {
+        throw new IOException("基准测试中不支持 DexFile");
+    }
+
+    public static DexFile loadDex(String sourcePathName, String outputPathName, int flags)
+            throws IOException {
+        throw new IOException("基准测试中不支持 DexFile");
+    }
+
+    public Enumeration<String> entries() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void close() throws IOException {
+    }
+}
@@ -0,0 +1,189 @@
+package kim.hsl.router_compiler;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+import kim.hsl.router_annotation.Extra;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+/**
+ * 生成模块的参数注入器注册表 Router_Extra_模块名
+ *
+ * 各 Activity 的参数注入器由 ExtraProcessor 生成 , 每个注入器只依赖一个 Activity ,
+ * 是 isolating 增量注解处理器 ; 注册表依赖本模块所有使用了 @Extra 注解的类 ,
+ * 由该 aggregating 增量注解处理器单独生成 ; 两个注解处理器都不占用 @Extra 注解 , 执行顺序不影响生成结果
+ */
+// 注解处理器接收的参数
+@SupportedOptions("moduleName")
+// 自动注册注解处理器
+@AutoService(Processor.class)
+// 支持的注解类型
+@SupportedAnnotationTypes({"kim.hsl.router_annotation.Extra"})
+// 支持的 Java 版本
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public class ExtraIndexProcessor extends AbstractProcessor {
+
+    /**
+     * 注解处理器中使用 Messager 对象打印日志
+     */
+    private Messager mMessager;
+
+    /**
+     * 用于写出生成的 Java 代码
+     */
+    private Filer mFiler;
+
+    /**
+     * 注解节点工具
+     */
+    private Elements mElementUtils;
+
+    /**
+     * 获取的 moduleName 参数
+     */
+    private String mModuleName;
+
+    /**
+     * 生成注册表的批次 , 每个包含 @Extra 注解的轮次生成一个注册表
+     * 第一个注册表的类名为 Router_Extra_模块名 , 之后轮次的为 Router_Extra_模块名_批次 , 运行时合并
+     */
+    private int mBatch;
+
+    /**
+     * 该函数在初始化时调用 , 相当于构造函数
+     * @param processingEnvironment
+     */
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnvironment) {
+        super.init(processingEnvironment);
+        this.mMessager = processingEnvironment.getMessager();
+        this.mFiler = processingEnvironment.getFiler();
+        this.mElementUtils = processingEnvironment.getElementUtils();
+
+        // 获取 moduleName 参数
+        Map<String, String> options = processingEnvironment.getOptions();
+        if (options != null){
+            mModuleName = options.get("moduleName");
+        }
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        if (set == null || set.isEmpty()){
+            // 本轮没有 @Extra 注解
+            return false;
+        }
+
+        // 收集 @Extra 注解字段所在的类 , 类型检查由 ExtraProcessor 完成
+        // 按照类名排序 , 保证每次生成的注入器 ID 一致
+        Map<String, TypeElement> targets = new TreeMap<>();
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(Extra.class)) {
+            TypeElement targetElement = (TypeElement) element.getEnclosingElement();
+            targets.put(targetElement.getQualifiedName().toString(), targetElement);
+        }
+        if (!targets.isEmpty()) {
+            generateExtraRoot(new ArrayList<>(targets.values()));
+        }
+        // 不声明占用 @Extra 注解 , 之后由 ExtraProcessor 生成各类的参数注入器
+        return false;
+    }
+
+    /**
+     * 生成模块的参数注入器注册表 Router_Extra_模块名
+     *
+     * 为每个 Activity 的参数注入器分配一个 ID , 生成 switch 语句根据 ID 直接 new 注入器 ,
+     * 运行时 Router.inject 不需要通过 Class.forName 查找 Activity 类名 + "_Extra"
+     *
+     * @param targets 本轮次中使用了 @Extra 注解的类 , 按照类名排序
+     */
+    private void generateExtraRoot(List<TypeElement> targets) {
+        // 获取 kim.hsl.route_core.template.IExtraRoot 类节点
+        TypeElement iExtraRoot = mElementUtils.getTypeElement("kim.hsl.route_core.template.IExtraRoot");
+        // 获取 kim.hsl.route_core.template.IExtra 类节点
+        TypeElement iExtra = mElementUtils.getTypeElement("kim.hsl.route_core.template.IExtra");
+
+        String className = "Router_Extra_" + (mBatch == 0 ? mModuleName : mModuleName + "_" + mBatch);
+        mBatch++;
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(className)
+                .addSuperinterface(ClassName.get(iExtraRoot))
+                .addModifiers(PUBLIC);
+
+        // private static final Class<?>[] TARGETS = new Class<?>[]{...};
+        // 注入目标较多时 , 数组初始化代码拆分到多个子方法中 , 与 Router_Factory_ 相同
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        List<CodeBlock> targetCodes = new ArrayList<>();
+        List<CodeBlock> createCodes = new ArrayList<>();
+        for (TypeElement target : targets) {
+            targetCodes.add(CodeBlock.of("$T.class", ClassName.get(target)));
+            createCodes.add(CodeBlock.of("new $T()", ExtraProcessor.getExtraClassName(target)));
+        }
+        FieldSpec targetsField = FieldSpec.builder(ArrayTypeName.of(classType), "TARGETS",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(RouterProcessor.arrayInitializer(typeBuilder, classType, "Targets", targetCodes))
+                .build();
+
+        MethodSpec targetsMethod = MethodSpec.methodBuilder("targets")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ArrayTypeName.of(classType))
+                .addStatement("return TARGETS")
+                .build();
+
+        // public IExtra create(int id)
+        MethodSpec.Builder createBuilder = MethodSpec.methodBuilder("create")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ClassName.get(iExtra))
+                .addParameter(int.class, "id");
+        RouterProcessor.addIdSwitch(typeBuilder, createBuilder, ClassName.get(iExtra), createCodes,
+                CodeBlock.of("throw new $T($S + id)", IllegalArgumentException.class, className + " : 未知的注入器 ID "));
+
+        typeBuilder.addField(targetsField)
+                .addMethod(targetsMethod)
+                .addMethod(createBuilder.build());
+        for (TypeElement target : targets) {
+            typeBuilder.addOriginatingElement(target);
+        }
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeBuilder.build()).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
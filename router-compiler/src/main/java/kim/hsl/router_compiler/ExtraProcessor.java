@@ -3,17 +3,17 @@ package kim.hsl.router_compiler;
 import com.google.auto.service.AutoService;
 import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
-import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,7 +40,6 @@ import javax.tools.Diagnostic;
 
 import kim.hsl.router_annotation.Extra;
 import kim.hsl.router_annotation.Route;
-import kim.hsl.router_annotation.model.RouteBean;
 
 import static javax.lang.model.element.Modifier.PUBLIC;
 
@@ -54,6 +53,16 @@ import static javax.lang.model.element.Modifier.PUBLIC;
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class ExtraProcessor extends AbstractProcessor {
 
+    /**
+     * Parcelable 数组在 Bundle 中的类型名称 , 需要特殊处理
+     */
+    private static final String PARCELABLE_ARRAY = "ParcelableArray";
+
+    private static final ClassName BUNDLE = ClassName.get("android.os", "Bundle");
+    private static final ClassName PARCELABLE = ClassName.get("android.os", "Parcelable");
+    private static final ClassName URI_CONVERTER = ClassName.get("kim.hsl.route_core.template", "IUriConverter");
+    private static final ClassName URI_PARSER = ClassName.get("kim.hsl.route_core.utils", "UriParser");
+
     /**
      * 注解处理器中使用 Messager 对象打印日志
      */
@@ -82,8 +91,10 @@ public class ExtraProcessor extends AbstractProcessor {
      * 获取所有需要注入的节点集合 , 并按照其父节点 Activity 进行分组
      * 键 ( Key ) : Activity 节点
      * 值 ( Value ) : Activity 中被 @Extra 注解的属性节点
+     *
+     * 只保存当前轮次的节点 , 每轮处理前清空 , 避免后续轮次重复生成之前轮次的类
      */
-    private Map<TypeElement, List<Element>> mActivity2Field = new HashMap<>();
+    private Map<TypeElement, List<Element>> mActivity2Field = new LinkedHashMap<>();
 
 
     /**
@@ -129,6 +140,8 @@ public class ExtraProcessor extends AbstractProcessor {
             return false;
         }
 
+        mActivity2Field.clear();
+
         // 获取被 @Extra 注解的属性节点集合
         Set<? extends Element> elements = roundEnvironment.getElementsAnnotatedWith(Extra.class);
 
@@ -158,6 +171,9 @@ public class ExtraProcessor extends AbstractProcessor {
 
         // 获取 Activity 类型
         TypeMirror activityTypeMirror = mElementUtils.getTypeElement("android.app.Activity").asType();
+        // 获取 Fragment 类型 , 模块没有依赖 androidx.fragment 时为 null
+        TypeElement fragmentElement = mElementUtils.getTypeElement("android.app.Fragment");
+        TypeElement androidxFragmentElement = mElementUtils.getTypeElement("androidx.fragment.app.Fragment");
         // 获取 IExtra 接口类型节点
         TypeElement IExtra = mElementUtils.getTypeElement("kim.hsl.route_core.template.IExtra");
 
@@ -170,9 +186,13 @@ public class ExtraProcessor extends AbstractProcessor {
 
             // 获取 Activity 类
             TypeElement rawClassElement = entry.getKey();
-            // 如果该类不是 Activity 子类 , 直接抛出异常
-            if (!mTypeUtils.isSubtype(rawClassElement.asType(), activityTypeMirror)) {
-                throw new RuntimeException("ExtraProcessor Activity 类型错误");
+            // Activity 从 Intent 中读取跳转参数 , Fragment 从 arguments 中读取跳转参数
+            boolean isActivity = mTypeUtils.isSubtype(rawClassElement.asType(), activityTypeMirror);
+            boolean isFragment = isSubtype(rawClassElement, androidxFragmentElement)
+                    || isSubtype(rawClassElement, fragmentElement);
+            // 如果该类不是 Activity 或 Fragment 子类 , 直接抛出异常
+            if (!isActivity && !isFragment) {
+                throw new RuntimeException("ExtraProcessor Activity / Fragment 类型错误 : " + rawClassElement);
             }
 
             // 创建 void loadExtra(Object target) 方法
@@ -189,22 +209,57 @@ public class ExtraProcessor extends AbstractProcessor {
 
             mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : 开始循环 Map 元素个数" + entry.getValue().size());
 
+            // IService 服务字段不从跳转参数中获取 , 先于跳转参数注入
+            for (Element element : entry.getValue()) {
+                if (isServiceField(element)) {
+                    addServiceStatement(element, builder);
+                }
+            }
+
+            // 只获取一次跳转参数 Bundle , 之后所有字段都从该 Bundle 中读取
+            // Bundle extras = t.getIntent().getExtras(); 或 Bundle extras = t.getArguments();
+            // if (extras == null || extras.isEmpty()) return;
+            builder.addStatement(isActivity ? "$T extras = t.getIntent().getExtras()" : "$T extras = t.getArguments()",
+                    BUNDLE)
+                    .beginControlFlow("if (extras == null || extras.isEmpty())")
+                    .addStatement("return")
+                    .endControlFlow();
+
             // 遍历被 @Extra 标注的属性字段
-            for (int i = 0; i < entry.getValue().size(); i++) {
-                Element element = entry.getValue().get(i);
-                buildStatement(element, builder);
+            for (Element element : entry.getValue()) {
+                if (!isServiceField(element)) {
+                    buildStatement(element, builder);
+                }
             }
 
             mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : 结束循环 Map 元素个数" + entry.getValue().size());
 
 
             // 生成 java 类名, 原来的 Activity 类名基础上添加 "_Extra" 后缀
-            String extraClassName = rawClassElement.getSimpleName() + "_Extra";
+            ClassName extraClass = getExtraClassName(rawClassElement);
 
             // 创建 Java 类
-            TypeSpec typeSpec = TypeSpec.classBuilder(extraClassName)
+            // 每个注入器只依赖一个 Activity , 该注解处理器在 Gradle 中声明为 isolating 增量注解处理器
+            TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(extraClass)
                     .addSuperinterface(ClassName.get(IExtra))   // 实现 IExtra 接口
-                    .addModifiers(PUBLIC)   //
+                    .addModifiers(PUBLIC)
+                    .addOriginatingElement(rawClassElement);
+
+            // 跳转参数名称常量 , 与生成的跳转构建器共用
+            // public static final String KEY_AGE = "age";
+            for (Element element : entry.getValue()) {
+                if (!isServiceField(element)) {
+                    typeBuilder.addField(FieldSpec.builder(String.class, getKeyName(element),
+                            PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                            .initializer("$S", getExtraName(element))
+                            .build());
+                }
+            }
+
+            // 深度链接参数转换 , Router.dispatch(Uri) 使用
+            addUriConverter(typeBuilder, entry.getValue());
+
+            TypeSpec typeSpec = typeBuilder
                     .addMethod(builder.build()) // 设置函数
                     .build();   // 正式创建
 
@@ -220,195 +275,490 @@ public class ExtraProcessor extends AbstractProcessor {
 
 
             mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : 生成文件结束 : " + mModuleName + " " +javaFile.toString());
+
+            // 同时使用了 @Route 注解的界面 , 生成类型安全的跳转构建器 , Fragment 通过 Router 获取
+            if (isActivity && rawClassElement.getAnnotation(Route.class) != null) {
+                generateNavigator(rawClassElement, extraClass, entry.getValue());
+            }
+        }
+
+        // 不占用 @Extra 注解 , ExtraIndexProcessor 无论在之前还是之后执行 , 都能收到该注解生成注入器注册表
+        return false;
+    }
+
+    /**
+     * 参数注入器实现 IUriConverter 接口 , 生成如下代码 :
+     *
+     * private static final String[] URI_KEYS = {KEY_AGE, KEY_NAME};
+     * public String[] keys() { return URI_KEYS; }
+     * public void convert(int index, UriParser parser, Bundle extras) {
+     *     switch (index) {
+     *         case 0: extras.putInt(KEY_AGE, parser.intValue()); break;
+     *         case 1: extras.putString(KEY_NAME, parser.stringValue()); break;
+     *     }
+     * }
+     *
+     * 只有基本类型和 String 类型的字段可以从 URI 字符串转换 , 参数名称按照字符串排序 , 运行时二分查找
+     *
+     * @param typeBuilder 参数注入器类
+     * @param fields 被 @Extra 注解的字段
+     */
+    private void addUriConverter(TypeSpec.Builder typeBuilder, List<Element> fields) {
+        Map<String, Element> uriFields = new TreeMap<>();
+        for (Element element : fields) {
+            if (!isServiceField(element) && getUriValueMethod(element) != null) {
+                uriFields.put(getExtraName(element), element);
+            }
+        }
+
+        List<String> keyNames = new ArrayList<>();
+        for (Element element : uriFields.values()) {
+            keyNames.add(getKeyName(element));
+        }
+        typeBuilder.addSuperinterface(URI_CONVERTER)
+                .addField(FieldSpec.builder(String[].class, "URI_KEYS",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{$L}", String.join(", ", keyNames))
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("keys")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(String[].class)
+                        .addStatement("return URI_KEYS")
+                        .build());
+
+        MethodSpec.Builder convertBuilder = MethodSpec.methodBuilder("convert")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(int.class, "index")
+                .addParameter(URI_PARSER, "parser")
+                .addParameter(BUNDLE, "extras")
+                .beginControlFlow("switch (index)");
+        int index = 0;
+        for (Element element : uriFields.values()) {
+            convertBuilder.addCode("case $L:\n$>", index++)
+                    .addStatement("extras.put$L($L, parser.$L())",
+                            getBundleType(element), getKeyName(element), getUriValueMethod(element))
+                    .addStatement("break")
+                    .addCode("$<");
+        }
+        convertBuilder.endControlFlow();
+        typeBuilder.addMethod(convertBuilder.build());
+    }
+
+    /**
+     * 获取字段类型对应的 UriParser 取值方法 , 如 int 对应 intValue
+     * @param element 被 @Extra 注解的字段
+     * @return 取值方法名称 , 无法从 URI 字符串转换的类型返回 null
+     */
+    private String getUriValueMethod(Element element) {
+        TypeMirror typeMirror = element.asType();
+        if (typeMirror.getKind().isPrimitive()) {
+            return typeMirror.toString() + "Value";
         }
-        return true;
+        if (typeMirror.toString().equals("java.lang.String")) {
+            return "stringValue";
+        }
+        return null;
+    }
+
+    /**
+     * 判断类节点是否是指定类型的子类
+     * @param element 类节点
+     * @param typeElement 类型节点 , 模块没有依赖该类型时为 null
+     */
+    private boolean isSubtype(TypeElement element, TypeElement typeElement) {
+        return typeElement != null && mTypeUtils.isSubtype(element.asType(), typeElement.asType());
+    }
+
+    /**
+     * 获取参数注入器类名 , 与 Activity 在同一个包中 , 类名为 Activity 类名 + "_Extra"
+     * ExtraIndexProcessor 生成注入器注册表时使用相同的规则
+     * @param activityElement Activity 类节点
+     */
+    static ClassName getExtraClassName(TypeElement activityElement) {
+        return ClassName.get(ClassName.get(activityElement).packageName(),
+                activityElement.getSimpleName() + "_Extra");
+    }
+
+    /**
+     * 生成类型安全的跳转构建器 , 类名为 模块名 + Activity 类名 + "Nav" , 如 Library3MainActivityNav
+     *
+     * 使用方式 : Library3MainActivityNav.builder().name("Tom").age(18).navigate(context);
+     *
+     * 1. 跳转参数保存在与 @Extra 字段类型一致的成员变量中 , 基本类型不会装箱
+     * 2. 使用位掩码记录设置过的参数 , 跳转时创建一个预设容量的 Bundle , 只写入设置过的参数
+     * 3. 跳转参数名称使用 _Extra 注入器中的常量
+     * 4. 缓存 ComponentName , 直接启动目标界面 , 不需要查找路由表
+     *
+     * @param activityElement Activity 类节点
+     * @param extraClass 该 Activity 的参数注入器类
+     * @param fields 被 @Extra 注解的字段
+     */
+    private void generateNavigator(TypeElement activityElement, ClassName extraClass, List<Element> fields) {
+        ClassName activityClass = ClassName.get(activityElement);
+        ClassName navClass = ClassName.get(activityClass.packageName(),
+                getModulePrefix() + activityElement.getSimpleName() + "Nav");
+        ClassName contextClass = ClassName.get("android.content", "Context");
+        ClassName intentClass = ClassName.get("android.content", "Intent");
+        ClassName componentClass = ClassName.get("android.content", "ComponentName");
+        ClassName activityBaseClass = ClassName.get("android.app", "Activity");
+
+        // 跳转参数字段 , 不包括 IService 服务字段
+        List<Element> extraFields = new ArrayList<>();
+        for (Element element : fields) {
+            if (!isServiceField(element)) {
+                extraFields.add(element);
+            }
+        }
+        if (extraFields.size() > Long.SIZE) {
+            throw new RuntimeException("ExtraProcessor : " + activityClass
+                    + " 的跳转参数超过 " + Long.SIZE + " 个 , 无法生成跳转构建器");
+        }
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(navClass)
+                .addModifiers(PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(activityElement)
+                .addJavadoc("$T 的跳转构建器\n", activityClass);
+
+        // 缓存的 ComponentName , 同一个应用中不会变化
+        // private static volatile ComponentName sComponent;
+        typeBuilder.addField(componentClass, "sComponent", Modifier.PRIVATE, Modifier.STATIC, Modifier.VOLATILE);
+        // 已设置的参数位掩码
+        typeBuilder.addField(long.class, "mSetFlags", Modifier.PRIVATE);
+
+        typeBuilder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+        typeBuilder.addMethod(MethodSpec.methodBuilder("builder")
+                .addModifiers(PUBLIC, Modifier.STATIC)
+                .returns(navClass)
+                .addStatement("return new $T()", navClass)
+                .build());
+
+        // 每个跳转参数生成一个成员变量和一个设置方法
+        // public Library3MainActivityNav age(int age) { this.age = age; mSetFlags |= 1L << 1; return this; }
+        for (int i = 0; i < extraFields.size(); i++) {
+            Element element = extraFields.get(i);
+            TypeName typeName = TypeName.get(element.asType());
+            String fieldName = element.getSimpleName().toString();
+            typeBuilder.addField(typeName, fieldName, Modifier.PRIVATE);
+            typeBuilder.addMethod(MethodSpec.methodBuilder(fieldName)
+                    .addModifiers(PUBLIC)
+                    .returns(navClass)
+                    .addParameter(typeName, fieldName)
+                    .addStatement("this.$L = $L", fieldName, fieldName)
+                    .addStatement("mSetFlags |= 1L << $L", i)
+                    .addStatement("return this")
+                    .build());
+        }
+
+        // 将设置过的参数写入预设容量的 Bundle
+        MethodSpec.Builder extrasBuilder = MethodSpec.methodBuilder("buildExtras")
+                .addModifiers(Modifier.PRIVATE)
+                .returns(BUNDLE)
+                .addStatement("$T extras = new $T($T.bitCount(mSetFlags))", BUNDLE, BUNDLE, Long.class);
+        for (int i = 0; i < extraFields.size(); i++) {
+            Element element = extraFields.get(i);
+            String fieldName = element.getSimpleName().toString();
+            String bundleType = getBundleType(element);
+            extrasBuilder.beginControlFlow("if ((mSetFlags & (1L << $L)) != 0)", i);
+            TypeName typeName = TypeName.get(element.asType());
+            if (typeName instanceof ParameterizedTypeName
+                    && !((ParameterizedTypeName) typeName).rawType.equals(ClassName.get(ArrayList.class))) {
+                // Bundle 只接收 ArrayList , List 类型的字段需要拷贝
+                extrasBuilder.addStatement("extras.put$L($T.$L, $L == null ? null : new $T<>($L))",
+                        bundleType, extraClass, getKeyName(element), fieldName,
+                        ArrayList.class, fieldName);
+            } else {
+                extrasBuilder.addStatement("extras.put$L($T.$L, $L)",
+                        bundleType, extraClass, getKeyName(element), fieldName);
+            }
+            extrasBuilder.endControlFlow();
+        }
+        extrasBuilder.addStatement("return extras");
+        typeBuilder.addMethod(extrasBuilder.build());
+
+        // 获取缓存的 ComponentName
+        typeBuilder.addMethod(MethodSpec.methodBuilder("component")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(componentClass)
+                .addParameter(contextClass, "context")
+                .addStatement("$T component = sComponent", componentClass)
+                .beginControlFlow("if (component == null)")
+                .addStatement("component = new $T(context.getPackageName(), $S)",
+                        componentClass, activityClass.reflectionName())
+                .addStatement("sComponent = component")
+                .endControlFlow()
+                .addStatement("return component")
+                .build());
+
+        // 创建跳转 Intent
+        typeBuilder.addMethod(MethodSpec.methodBuilder("intent")
+                .addModifiers(PUBLIC)
+                .returns(intentClass)
+                .addParameter(contextClass, "context")
+                .addStatement("$T intent = new $T().setComponent(component(context))", intentClass, intentClass)
+                .beginControlFlow("if (mSetFlags != 0)")
+                .addStatement("intent.putExtras(buildExtras())")
+                .endControlFlow()
+                .addStatement("return intent")
+                .build());
+
+        // 启动目标界面
+        typeBuilder.addMethod(MethodSpec.methodBuilder("navigate")
+                .addModifiers(PUBLIC)
+                .addParameter(contextClass, "context")
+                .addStatement("$T intent = intent(context)", intentClass)
+                .beginControlFlow("if (!(context instanceof $T))", activityBaseClass)
+                // 非 Activity 上下文启动界面需要新建任务栈
+                .addStatement("intent.addFlags($T.FLAG_ACTIVITY_NEW_TASK)", intentClass)
+                .endControlFlow()
+                .addStatement("context.startActivity(intent)")
+                .build());
+
+        JavaFile javaFile = JavaFile.builder(navClass.packageName(), typeBuilder.build()).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 跳转构建器类名前缀 , 模块名首字母大写 , 并去掉不能用于类名的字符
+     */
+    private String getModulePrefix() {
+        StringBuilder prefix = new StringBuilder();
+        boolean upper = true;
+        for (char c : mModuleName.toCharArray()) {
+            if (!Character.isJavaIdentifierPart(c) || c == '_') {
+                upper = true;
+                continue;
+            }
+            prefix.append(upper ? Character.toUpperCase(c) : c);
+            upper = false;
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * 获取跳转参数名称常量的名称 , 如 字段 userName 对应 KEY_USER_NAME
+     * @param element 被 @Extra 注解的字段
+     */
+    String getKeyName(Element element) {
+        String fieldName = element.getSimpleName().toString();
+        StringBuilder keyName = new StringBuilder("KEY_");
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                keyName.append('_');
+            }
+            keyName.append(Character.toUpperCase(c));
+        }
+        return keyName.toString();
     }
 
     /**
      * 拼装如下代码
-     * t.a = t.getIntent().getStringExtra("a");
+     * t.a = extras.getString(KEY_A);
+     * t.b = extras.getInt(KEY_B, t.b);
      * @param element
      */
     public void buildStatement(Element element, MethodSpec.Builder builder) {
         TypeMirror typeMirror = element.asType();
-        int type = typeMirror.getKind().ordinal();
 
         //属性名 String text 获得text
         String fieldName = element.getSimpleName().toString();
-        //获得注解 name值 , 默认是传入的 name 注解属性值
-        String extraName = element.getAnnotation(Extra.class).name();
+        // 跳转参数名称
+        String extraName = getExtraName(element);
+        // 跳转参数名称常量
+        String keyName = getKeyName(element);
+        // Bundle 中对应的 getXxx 方法的类型名称
+        String bundleType = getBundleType(element);
 
         mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : " + mModuleName + " 处理注解类型 : " + typeMirror.toString() + " , 字段名称 : " + fieldName + " , 注解属性值 : " + extraName);
 
-        if (extraName == null || extraName.length() == 0) {
-            // 如果 name 注解属性值为空 , 则取值 字段名称
-            extraName = fieldName;
-        }
-
-        mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : extraName : " + extraName);
-
-
         String defaultValue = "t." + fieldName;
-        String statement = defaultValue + " = t.getIntent().";
-        if (type == TypeKind.BOOLEAN.ordinal()) {
-            statement += "getBooleanExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.BYTE.ordinal()) {
-            statement += "getByteExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.SHORT.ordinal()) {
-            statement += "getShortExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.INT.ordinal()) {
-            statement += "getIntExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.LONG.ordinal()) {
-            statement += "getLongExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.CHAR.ordinal()) {
-            statement += "getCharExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.FLOAT.ordinal()) {
-            statement += "getFloatExtra($S, " + defaultValue + ")";
-        } else if (type == TypeKind.DOUBLE.ordinal()) {
-            statement += "getDoubleExtra($S, " + defaultValue + ")";
-        } else{
-            //数组类型
-            if (type == TypeKind.ARRAY.ordinal()) {
-                addArrayStatement(statement, fieldName, extraName, typeMirror, element, builder);
-            } else {
-                // 对象类型
-                addObjectStatement(statement, fieldName, extraName, typeMirror, element, builder);
-            }
-            return;
+        if (typeMirror.getKind().isPrimitive()) {
+            // 基本类型 , 没有该参数时保留字段原来的值
+            // t.age = extras.getInt(KEY_AGE, t.age);
+            builder.addStatement("$L = extras.get$L($L, $L)", defaultValue, bundleType, keyName, defaultValue);
+        } else if (PARCELABLE_ARRAY.equals(bundleType)) {
+            // Parcelable 数组 , 需要逐个转换为字段的元素类型
+            ArrayTypeName arrayTypeName = (ArrayTypeName) ClassName.get(typeMirror);
+            builder.addStatement("$T[] " + fieldName + " = extras.getParcelableArray($L)", PARCELABLE, keyName);
+            builder.beginControlFlow("if( null != $L)", fieldName);
+            builder.addStatement(defaultValue + " = new $T[" + fieldName + ".length]", arrayTypeName.componentType)
+                    .beginControlFlow("for (int i = 0; i < " + fieldName + ".length; i++)")
+                    .addStatement(defaultValue + "[i] = ($T)" + fieldName + "[i]", arrayTypeName.componentType)
+                    .endControlFlow();
+            builder.endControlFlow();
+        } else {
+            // 对象类型
+            // t.name = extras.getString(KEY_NAME);
+            builder.addStatement("$L = extras.get$L($L)", defaultValue, bundleType, keyName);
         }
-        builder.addStatement(statement, extraName);
 
         mMessager.printMessage(Diagnostic.Kind.NOTE, "ExtraProcessor : extraName : " + extraName + " 生成完毕");
     }
 
-    private void addArrayStatement(String statement, String fieldName, String extraName, TypeMirror
-            typeMirror, Element elementm , MethodSpec.Builder builder) {
+    /**
+     * 获取跳转参数名称 , 默认是 @Extra 注解的 name 属性值 , 为空时使用字段名称
+     * @param element 被 @Extra 注解的字段
+     * @return
+     */
+    String getExtraName(Element element) {
+        String extraName = element.getAnnotation(Extra.class).name();
+        if (extraName == null || extraName.length() == 0) {
+            // 如果 name 注解属性值为空 , 则取值 字段名称
+            extraName = element.getSimpleName().toString();
+        }
+        return extraName;
+    }
 
-        // 获取 Parcelable 类型
-        TypeMirror parcelableType = mElementUtils.getTypeElement("android.os.Parcelable").asType();
+    /**
+     * 获取字段类型在 Bundle 中对应的类型名称
+     * 如 int 对应 Bundle.getInt / Bundle.putInt 中的 "Int"
+     *
+     * @param element 被 @Extra 注解的字段
+     * @return Bundle 中的类型名称
+     */
+    String getBundleType(Element element) {
+        TypeMirror typeMirror = element.asType();
+        switch (typeMirror.getKind()) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case CHAR:
+                return "Char";
+            case FLOAT:
+                return "Float";
+            case DOUBLE:
+                return "Double";
+            case ARRAY:
+                return getArrayBundleType(typeMirror, element);
+            default:
+                return getObjectBundleType(typeMirror, element);
+        }
+    }
 
+    private String getArrayBundleType(TypeMirror typeMirror, Element element) {
         // 处理数组
         switch (typeMirror.toString()) {
             case "boolean[]":
-                statement += "getBooleanArrayExtra($S)";
-                break;
+                return "BooleanArray";
             case "int[]":
-                statement += "getIntArrayExtra($S)";
-                break;
+                return "IntArray";
             case "short[]":
-                statement += "getShortArrayExtra($S)";
-                break;
+                return "ShortArray";
             case "float[]":
-                statement += "getFloatArrayExtra($S)";
-                break;
+                return "FloatArray";
             case "double[]":
-                statement += "getDoubleArrayExtra($S)";
-                break;
+                return "DoubleArray";
             case "byte[]":
-                statement += "getByteArrayExtra($S)";
-                break;
+                return "ByteArray";
             case "char[]":
-                statement += "getCharArrayExtra($S)";
-                break;
+                return "CharArray";
             case "long[]":
-                statement += "getLongArrayExtra($S)";
-                break;
+                return "LongArray";
             case "java.lang.String[]":
-                statement += "getStringArrayExtra($S)";
-                break;
+                return "StringArray";
             default:
                 // 处理 Parcelable 数组
-                String defaultValue = "t." + fieldName;
                 // object数组 componentType 获得 object类型
                 ArrayTypeName arrayTypeName = (ArrayTypeName) ClassName.get(typeMirror);
                 TypeElement typeElement = mElementUtils.getTypeElement(arrayTypeName
                         .componentType.toString());
 
                 // 如果不是 Parcelable 抛异常退出
-                if (!mTypeUtils.isSubtype(typeElement.asType(), parcelableType)) {
+                if (!mTypeUtils.isSubtype(typeElement.asType(), getParcelableType())) {
                     throw new RuntimeException("不支持的 Extra 类型 : " + typeMirror);
                 }
-
-                // 字符串格式
-                statement = "$T[] " + fieldName + " = t.getIntent()" + ".getParcelableArrayExtra" + "($S)";
-                builder.addStatement(statement, parcelableType, extraName);
-                builder.beginControlFlow("if( null != $L)", fieldName);
-                statement = defaultValue + " = new $T[" + fieldName + ".length]";
-                builder.addStatement(statement, arrayTypeName.componentType)
-                        .beginControlFlow("for (int i = 0; i < " + fieldName + "" +
-                                ".length; " +
-                                "i++)")
-                        .addStatement(defaultValue + "[i] = ($T)" + fieldName + "[i]",
-                                arrayTypeName.componentType)
-                        .endControlFlow();
-                builder.endControlFlow();
-                return;
+                return PARCELABLE_ARRAY;
         }
-        builder.addStatement(statement, extraName);
     }
 
-    private void addObjectStatement(String statement, String fieldName, String extraName,
-                                    TypeMirror typeMirror,
-                                    Element element, MethodSpec.Builder builder) {
+    private String getObjectBundleType(TypeMirror typeMirror, Element element) {
         // 获取 Parcelable 类型
-        TypeMirror parcelableType = mElementUtils.getTypeElement("android.os.Parcelable").asType();
-        // 获取 IService 类型
-        TypeMirror iServiceType = mElementUtils.getTypeElement("kim.hsl.route_core.template.IService").asType();
+        TypeMirror parcelableType = getParcelableType();
 
         if (mTypeUtils.isSubtype(typeMirror, parcelableType)) {
-            statement += "getParcelableExtra($S)";
-
+            return "Parcelable";
         } else if (typeMirror.toString().equals("java.lang.String")) {
-            statement += "getStringExtra($S)";
-
-        } else if (mTypeUtils.isSubtype(typeMirror, iServiceType)) {
-
-            ClassName routerClassName = ClassName.get("kim.hsl.route_core", "Router");
+            return "String";
+        }
 
-            statement = "t." + fieldName + " = ($T) $T.getInstance().build($S).navigation()";
-            builder.addStatement(statement, TypeName.get(element.asType()), routerClassName,
-                    extraName);
-            return;
+        // List
+        TypeName typeName = ClassName.get(typeMirror);
+        //泛型
+        if (!(typeName instanceof ParameterizedTypeName)) {
+            throw new RuntimeException("Not Support Extra Type : " + typeMirror + " " +
+                    element);
+        }
 
+        //list 或 arraylist
+        ClassName rawType = ((ParameterizedTypeName) typeName).rawType;
+        //泛型类型
+        List<TypeName> typeArguments = ((ParameterizedTypeName) typeName)
+                .typeArguments;
+        if (!rawType.toString().equals("java.util.ArrayList") && !rawType.toString()
+                .equals("java.util.List")) {
+            throw new RuntimeException("Not Support Inject Type:" + typeMirror + " " +
+                    element);
+        }
+        if (typeArguments.isEmpty() || typeArguments.size() != 1) {
+            throw new RuntimeException("List Must Specify Generic Type:" + typeArguments);
+        }
+        TypeName typeArgumentName = typeArguments.get(0);
+        TypeElement typeElement = mElementUtils.getTypeElement(typeArgumentName
+                .toString());
+
+        // Parcelable 类型
+        if (mTypeUtils.isSubtype(typeElement.asType(), parcelableType)) {
+            return "ParcelableArrayList";
+        } else if (typeElement.asType().toString().equals("java.lang.String")) {
+            return "StringArrayList";
+        } else if (typeElement.asType().toString().equals("java.lang.Integer")) {
+            return "IntegerArrayList";
         } else {
-            // List
-            TypeName typeName = ClassName.get(typeMirror);
-            //泛型
-            if (typeName instanceof ParameterizedTypeName) {
-                //list 或 arraylist
-                ClassName rawType = ((ParameterizedTypeName) typeName).rawType;
-                //泛型类型
-                List<TypeName> typeArguments = ((ParameterizedTypeName) typeName)
-                        .typeArguments;
-                if (!rawType.toString().equals("java.util.ArrayList") && !rawType.toString()
-                        .equals("java.util.List")) {
-                    throw new RuntimeException("Not Support Inject Type:" + typeMirror + " " +
-                            element);
-                }
-                if (typeArguments.isEmpty() || typeArguments.size() != 1) {
-                    throw new RuntimeException("List Must Specify Generic Type:" + typeArguments);
-                }
-                TypeName typeArgumentName = typeArguments.get(0);
-                TypeElement typeElement = mElementUtils.getTypeElement(typeArgumentName
-                        .toString());
-
-                // Parcelable 类型
-                if (mTypeUtils.isSubtype(typeElement.asType(), parcelableType)) {
-                    statement += "getParcelableArrayListExtra($S)";
-                } else if (typeElement.asType().toString().equals("java.lang.String")) {
-                    statement += "getStringArrayListExtra($S)";
-                } else if (typeElement.asType().toString().equals("java.lang.Integer")) {
-                    statement += "getIntegerArrayListExtra($S)";
-                } else {
-                    throw new RuntimeException("Not Support Generic Type : " + typeMirror + " " +
-                            element);
-                }
-            } else {
-                throw new RuntimeException("Not Support Extra Type : " + typeMirror + " " +
-                        element);
-            }
+            throw new RuntimeException("Not Support Generic Type : " + typeMirror + " " +
+                    element);
+        }
+    }
+
+    /**
+     * 判断字段是否是 IService 服务 , 服务通过路由获取 , 不从跳转参数中获取
+     */
+    boolean isServiceField(Element element) {
+        TypeMirror typeMirror = element.asType();
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return false;
         }
-        builder.addStatement(statement, extraName);
+        // 获取 IService 类型
+        TypeMirror iServiceType = mElementUtils.getTypeElement("kim.hsl.route_core.template.IService").asType();
+        return mTypeUtils.isSubtype(typeMirror, iServiceType);
+    }
+
+    /**
+     * 拼装如下代码
+     * t.service = (ComponentService) Router.getInstance().build("/library2/StringService").navigation();
+     */
+    private void addServiceStatement(Element element, MethodSpec.Builder builder) {
+        ClassName routerClassName = ClassName.get("kim.hsl.route_core", "Router");
+        String statement = "t." + element.getSimpleName() + " = ($T) $T.getInstance().build($S).navigation()";
+        builder.addStatement(statement, TypeName.get(element.asType()), routerClassName,
+                getExtraName(element));
     }
 
+    private TypeMirror getParcelableType() {
+        return mElementUtils.getTypeElement("android.os.Parcelable").asType();
+    }
 }
@@ -0,0 +1,220 @@
+package kim.hsl.router_compiler;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import kim.hsl.router_annotation.Interceptor;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+// 注解处理器接收的参数
+@SupportedOptions("moduleName")
+// 自动注册注解处理器
+@AutoService(Processor.class)
+// 支持的注解类型
+@SupportedAnnotationTypes({"kim.hsl.router_annotation.Interceptor"})
+// 支持的 Java 版本
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public class InterceptorProcessor extends AbstractProcessor {
+
+    /**
+     * 注解处理器中使用 Messager 对象打印日志
+     */
+    private Messager mMessager;
+
+    /**
+     * 用于写出生成的 Java 代码
+     */
+    private Filer mFiler;
+
+    /**
+     * 注解节点工具
+     */
+    private Elements mElementUtils;
+    /**
+     * 类工具
+     */
+    private Types mTypeUtils;
+
+    /**
+     * 获取的 moduleName 参数
+     */
+    private String mModuleName;
+
+    /**
+     * 生成拦截器注册表的批次 , 每个包含 @Interceptor 注解的轮次生成一个注册表
+     * 第一个注册表的类名为 Router_Interceptors_模块名 , 之后轮次的为 Router_Interceptors_模块名_批次 ,
+     * 运行时所有注册表中的拦截器按照优先级合并
+     */
+    private int mBatch;
+
+    /**
+     * 该函数在初始化时调用 , 相当于构造函数
+     * @param processingEnvironment
+     */
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnvironment) {
+        super.init(processingEnvironment);
+        this.mMessager = processingEnvironment.getMessager();
+        this.mFiler = processingEnvironment.getFiler();
+        this.mElementUtils = processingEnvironment.getElementUtils();
+        this.mTypeUtils = processingEnvironment.getTypeUtils();
+
+        // 获取 moduleName 参数
+        Map<String, String> options = processingEnvironment.getOptions();
+        if (options != null){
+            mModuleName = options.get("moduleName");
+        }
+    }
+
+    /**
+     * 收集本模块所有 @Interceptor 注解的拦截器 , 生成拦截器注册表 Router_Interceptors_模块名
+     *
+     * @param set
+     * @param roundEnvironment
+     * @return
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
+        if (set == null || set.isEmpty()){
+            // 本轮没有 @Interceptor 注解
+            return false;
+        }
+
+        // 获取 IInterceptor 接口类型节点
+        TypeElement iInterceptor = mElementUtils.getTypeElement("kim.hsl.route_core.template.IInterceptor");
+
+        // 获取被 @Interceptor 注解的类节点 , 检查类型后在本轮次中生成拦截器注册表
+        List<TypeElement> interceptors = new ArrayList<>();
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(Interceptor.class)) {
+            if (element.getKind() != ElementKind.CLASS
+                    || !mTypeUtils.isSubtype(element.asType(), iInterceptor.asType())) {
+                throw new RuntimeException("@Interceptor 注解的类 " + element + " 必须实现 IInterceptor 接口");
+            }
+            // 拦截器由生成的注册表直接 new 创建 , 拦截器类必须是 public 的
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                throw new RuntimeException("@Interceptor 注解的类 " + element + " 必须是 public 的");
+            }
+            interceptors.add((TypeElement) element);
+            mMessager.printMessage(Diagnostic.Kind.NOTE, "InterceptorProcessor : " + mModuleName
+                    + " 添加拦截器 : " + element + " , 优先级 : " + element.getAnnotation(Interceptor.class).priority());
+        }
+        if (!interceptors.isEmpty()) {
+            generateInterceptorRoot(interceptors);
+        }
+
+        return true;
+    }
+
+    /**
+     * 生成模块的拦截器注册表 Router_Interceptors_模块名
+     *
+     * 按照优先级为每个拦截器分配一个 ID , 生成 switch 语句根据 ID 直接 new 拦截器 ,
+     * 运行时不需要反射
+     *
+     * 该注解处理器在 Gradle 中声明为 aggregating 增量注解处理器 , 所有拦截器类都是注册表的 originating element
+     *
+     * @param interceptors 本轮次中 @Interceptor 注解的类节点
+     */
+    private void generateInterceptorRoot(List<TypeElement> interceptors) {
+        // 获取 IInterceptor 接口类型节点
+        TypeElement iInterceptor = mElementUtils.getTypeElement("kim.hsl.route_core.template.IInterceptor");
+        String className = "Router_Interceptors_" + (mBatch == 0 ? mModuleName : mModuleName + "_" + mBatch);
+        mBatch++;
+
+        // 按照优先级从小到大排序 , 优先级相同时按照类名排序 , 保证每次生成的代码一致
+        Collections.sort(interceptors, new Comparator<TypeElement>() {
+            @Override
+            public int compare(TypeElement left, TypeElement right) {
+                int result = Integer.compare(left.getAnnotation(Interceptor.class).priority(),
+                        right.getAnnotation(Interceptor.class).priority());
+                if (result != 0) {
+                    return result;
+                }
+                return left.getQualifiedName().toString().compareTo(right.getQualifiedName().toString());
+            }
+        });
+
+        // 获取 kim.hsl.route_core.template.IInterceptorRoot 类节点
+        TypeElement iInterceptorRoot = mElementUtils.getTypeElement("kim.hsl.route_core.template.IInterceptorRoot");
+
+        // private static final int[] PRIORITIES = new int[]{...};
+        List<CodeBlock> priorityCodes = new ArrayList<>();
+        for (TypeElement interceptor : interceptors) {
+            priorityCodes.add(CodeBlock.of("$L", interceptor.getAnnotation(Interceptor.class).priority()));
+        }
+        FieldSpec prioritiesField = FieldSpec.builder(int[].class, "PRIORITIES",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new int[]{$L}", CodeBlock.join(priorityCodes, ", "))
+                .build();
+
+        MethodSpec prioritiesMethod = MethodSpec.methodBuilder("priorities")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(int[].class)
+                .addStatement("return PRIORITIES")
+                .build();
+
+        // public IInterceptor create(int id)
+        MethodSpec.Builder createBuilder = MethodSpec.methodBuilder("create")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ClassName.get(iInterceptor))
+                .addParameter(int.class, "id")
+                .beginControlFlow("switch (id)");
+        for (int id = 0; id < interceptors.size(); id++) {
+            createBuilder.addStatement("case $L: return new $T()", id, ClassName.get(interceptors.get(id)));
+        }
+        createBuilder.addStatement("default: throw new $T($S + id)",
+                IllegalArgumentException.class, className + " : 未知的拦截器 ID ")
+                .endControlFlow();
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(className)
+                .addSuperinterface(ClassName.get(iInterceptorRoot))
+                .addModifiers(PUBLIC)
+                .addField(prioritiesField)
+                .addMethod(prioritiesMethod)
+                .addMethod(createBuilder.build());
+        for (TypeElement interceptor : interceptors) {
+            typeBuilder.addOriginatingElement(interceptor);
+        }
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeBuilder.build()).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
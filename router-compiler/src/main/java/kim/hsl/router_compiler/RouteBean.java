@@ -0,0 +1,69 @@
+package kim.hsl.router_compiler;
+
+import javax.lang.model.element.Element;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+
+/**
+ * 注解处理器中存储路由节点信息的 Bean , 只在编译时使用
+ * 运行时的路由信息为生成代码创建的 RouteMeta
+ */
+class RouteBean {
+
+    /**
+     * 路由类型 , RouteMeta.TYPE_ACTIVITY / RouteMeta.TYPE_SERVICE / RouteMeta.TYPE_FRAGMENT
+     */
+    private final int type;
+
+    /**
+     * 被注解的节点
+     */
+    private final Element element;
+
+    /**
+     * 路由地址
+     */
+    private final String routeAddress;
+
+    /**
+     * 路由组 , 没有设置时在检查路由地址时从路由地址中截取
+     */
+    private String routeGroup;
+
+    RouteBean(int type, Element element, String routeAddress, String routeGroup) {
+        this.type = type;
+        this.element = element;
+        this.routeAddress = routeAddress;
+        this.routeGroup = routeGroup;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public Element getElement() {
+        return element;
+    }
+
+    public String getRouteAddress() {
+        return routeAddress;
+    }
+
+    public String getRouteGroup() {
+        return routeGroup;
+    }
+
+    public void setRouteGroup(String routeGroup) {
+        this.routeGroup = routeGroup;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteBean{" +
+                "type=" + type +
+                ", element=" + element +
+                ", routeAddress='" + routeAddress + '\'' +
+                ", routeGroup='" + routeGroup + '\'' +
+                '}';
+    }
+}
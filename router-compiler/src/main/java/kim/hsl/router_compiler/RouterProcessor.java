@@ -1,20 +1,33 @@
 package kim.hsl.router_compiler;
 
 import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -27,15 +40,26 @@ import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
 
 import kim.hsl.router_annotation.Route;
-import kim.hsl.router_annotation.model.RouteBean;
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteHash;
+import kim.hsl.router_annotation.utils.RouteTableFormat;
+import kim.hsl.router_annotation.utils.RouteTrie;
 
 import static javax.lang.model.element.Modifier.PUBLIC;
 
@@ -49,6 +73,19 @@ import static javax.lang.model.element.Modifier.PUBLIC;
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class RouterProcessor extends AbstractProcessor {
 
+    /**
+     * 生成的单个方法中最多包含的路由语句个数
+     * 每条 atlas.put(new RouteMeta(...)) 语句约 20 个 dex 指令单元 , 超过该个数时拆分到多个子方法中 ,
+     * 避免生成 ART 不进行 JIT / AOT 编译的超大方法 , 以及超出 64KB 的方法体大小限制
+     */
+    static final int MAX_STATEMENTS_PER_METHOD = 50;
+
+    /**
+     * 生成的静态数组初始化方法中最多包含的元素个数
+     * 超过该个数时拆分到多个子方法中 , 避免静态初始化方法超出 64KB 的方法体大小限制
+     */
+    static final int MAX_ARRAY_ELEMENTS_PER_METHOD = 1000;
+
     /**
      * 注解处理器中使用 Messager 对象打印日志
      */
@@ -87,6 +124,23 @@ public class RouterProcessor extends AbstractProcessor {
      */
     private Map<String, String> mRootMap = new TreeMap<>();
 
+    /**
+     * 生成路由表的批次 , 每个包含 @Route 注解的轮次生成一批路由表
+     * 第一批路由表的类名为 Router_Xxx_模块名 , 之后其它注解处理器生成的类中的路由 ,
+     * 在后续轮次中生成类名为 Router_Xxx_模块名_批次 的路由表 , 运行时按照类名前缀注册 , 与第一批合并
+     */
+    private int mBatch;
+
+    /**
+     * 当前批次的路由表名称 , 即生成的类名中 Router_Xxx_ 之后的部分
+     */
+    private String mTableName;
+
+    /**
+     * 之前批次已经生成的路由分组 , 分组类只能生成一次 , 后续批次的路由不能再使用这些分组
+     */
+    private Set<String> mGeneratedGroups = new HashSet<>();
+
     /**
      * 该函数在初始化时调用 , 相当于构造函数
      * @param processingEnvironment
@@ -125,23 +179,99 @@ public class RouterProcessor extends AbstractProcessor {
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnvironment) {
         //mMessager.printMessage(Diagnostic.Kind.NOTE, "RouterProcessor : " + mModuleName + " process ");
         if (set == null || set.isEmpty()){
-            // 如果没有检测到注解 , 直接退出
-            //mMessager.printMessage(Diagnostic.Kind.NOTE, "RouterProcessor : 检测到注解为空 , 直接退出 mModuleName : " + mModuleName);
+            // 本轮没有 @Route 注解
             return false;
         }
 
         // 获取被 @Route 注解的节点
         // 这些 注解节点 都是类节点 , TypeElement 类型的
-        Set<? extends Element> routeElements = roundEnvironment.getElementsAnnotatedWith(Route.class);
+        // 在出现 @Route 注解的轮次中立即生成路由表 , 生成的类在下一轮次中编译 , 不会在最后一轮生成文件 ;
+        // 之后其它注解处理器生成的类中的路由 , 在其所在的轮次中生成下一批路由表
+        List<Element> routeElements = new ArrayList<>(roundEnvironment.getElementsAnnotatedWith(Route.class));
+        if (!routeElements.isEmpty()) {
+            // 按照类名排序 , 保证每次生成的路由表一致
+            Collections.sort(routeElements, new Comparator<Element>() {
+                @Override
+                public int compare(Element a, Element b) {
+                    return ((TypeElement) a).getQualifiedName().toString()
+                            .compareTo(((TypeElement) b).getQualifiedName().toString());
+                }
+            });
+            generateTables(routeElements);
+        }
+        return true;
+    }
+
+    /**
+     * 生成本模块当前批次的所有路由表
+     *
+     * 该注解处理器在 Gradle 中声明为 aggregating 增量注解处理器 ,
+     * 生成的每个类都将对应的 @Route 注解类设置为 originating element ,
+     * 修改某个路由类时 , Gradle 只重新生成受影响的路由表
+     *
+     * @param routeElements 本轮次中 @Route 注解的类节点
+     */
+    private void generateTables(List<Element> routeElements) {
+        mGroupMap.clear();
+        mRootMap.clear();
+        mTableName = mBatch == 0 ? mModuleName : mModuleName + "_" + mBatch;
+        mBatch++;
+
         generateRouteClass(routeElements);
 
+        // 分组类已经在之前的批次中生成时 , 无法再生成同名的分组类
+        for (String group : mGroupMap.keySet()) {
+            if (!mGeneratedGroups.add(group)) {
+                throw new RuntimeException("RouterProcessor : " + mModuleName + " 的路由分组 " + group
+                        + " 已经在之前的轮次中生成 , 之后轮次生成的类中的路由需要使用新的分组");
+            }
+        }
+
         // 生成 路由组件 分组表 对应的 Java 路由表 类
         generateGroupTable();
 
         // 生成 Root 路由表 , 组名 <-> 路由表类
         generateRootTable();
 
-        return true;
+        // 生成 最小完美哈希 路由索引
+        generateIndexTable();
+
+        // 检查路由冲突 , 生成 带参数 / 通配符的路由地址匹配树
+        generateMatcherTable();
+
+        // 生成 对象工厂 , 运行时不使用反射创建路由分组和服务
+        generateFactoryTable();
+
+        // 生成 服务接口索引 , 运行时根据接口获取服务
+        generateServiceTable();
+
+        // 生成 跨进程服务代理 , 其它进程通过 Binder 批量调用服务
+        generateRemoteTable();
+
+        // 生成 二进制路由表 , 运行时直接映射到内存中查找
+        generateRouteTableAsset();
+    }
+
+    /**
+     * 将路由类设置为生成类的 originating element , 用于 Gradle 增量编译
+     * @param typeBuilder 生成的类
+     * @param routeBeans 生成的类依赖的路由
+     */
+    private void addOriginatingElements(TypeSpec.Builder typeBuilder, Collection<RouteBean> routeBeans) {
+        for (RouteBean routeBean : routeBeans) {
+            typeBuilder.addOriginatingElement(routeBean.getElement());
+        }
+    }
+
+    /**
+     * 本模块的所有路由
+     */
+    private List<RouteBean> getAllRoutes() {
+        List<RouteBean> routeBeans = new ArrayList<>();
+        for (ArrayList<RouteBean> groupRoutes : mGroupMap.values()) {
+            routeBeans.addAll(groupRoutes);
+        }
+        return routeBeans;
     }
 
     /**
@@ -176,29 +306,277 @@ public class RouterProcessor extends AbstractProcessor {
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(rootParameterSpec);
 
+        // 生成 Root 类
+        String rootClassName = "Router_Root_" + mTableName;
+
+        // 创建 Java 类
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(rootClassName)
+                .addSuperinterface(ClassName.get(iRouteRoot))
+                .addModifiers(PUBLIC);
+
         // 生成函数体
+        List<CodeBlock> statements = new ArrayList<>();
         for (Map.Entry<String, String> entry : mRootMap.entrySet()) {
-            loadIntoMethodBuilder.addStatement(
+            statements.add(CodeBlock.of(
                     "routes.put($S, $T.class)",
                     entry.getKey(),
                     ClassName.get("kim.hsl.router", entry.getValue())
-            );
+            ));
         }
+        addChunkedStatements(typeBuilder, loadIntoMethodBuilder, rootParameterSpec, statements);
+        typeBuilder.addMethod(loadIntoMethodBuilder.build());
+        addOriginatingElements(typeBuilder, getAllRoutes());
+        TypeSpec typeSpec = typeBuilder.build();
 
-        // 生成 Root 类
-        String rootClassName = "Router_Root_" + mModuleName;
+        // 生成 Java 源文件
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeSpec).build();
 
-        // 创建 Java 类
-        TypeSpec typeSpec = TypeSpec.classBuilder(rootClassName)
-                .addSuperinterface(ClassName.get(iRouteRoot))
+        // 写出到文件中
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 生成模块的最小完美哈希路由索引 Router_Index_模块名
+     *
+     * 编译时为本模块的所有路由地址构建最小完美哈希 , 生成种子数组和按路由 ID 排列的路由地址数组 ,
+     * 运行时一次哈希探测 + 一次字符串比较即可找到路由 , 不需要 HashMap 查找
+     */
+    private void generateIndexTable() {
+        // 获取 kim.hsl.route_core.template.IRouteIndex 类节点
+        TypeElement iRouteIndex = mElementUtils.getTypeElement("kim.hsl.route_core.template.IRouteIndex");
+
+        // 创建 Java 类 Router_Index_模块名
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder("Router_Index_" + mTableName)
+                .addSuperinterface(ClassName.get(iRouteIndex))
+                .addModifiers(PUBLIC);
+
+        // 收集本模块的所有路由信息 , 键为路由地址
+        Map<String, RouteBean> routeBeans = new TreeMap<>();
+        for (ArrayList<RouteBean> groupRoutes : mGroupMap.values()) {
+            for (RouteBean routeBean : groupRoutes) {
+                if (routeBeans.put(routeBean.getRouteAddress(), routeBean) != null) {
+                    throw new RuntimeException("路由地址 " + routeBean.getRouteAddress() + " 重复");
+                }
+            }
+        }
+
+        // 构建最小完美哈希 , 路由地址按照路由 ID 排列
+        List<String> paths = new ArrayList<>(routeBeans.keySet());
+        int[] seeds = RouteHash.build(paths);
+        String[] arrangedPaths = RouteHash.arrange(paths, seeds);
+
+        // 种子数组 private static final int[] SEEDS = new int[]{...};
+        List<CodeBlock> seedCodes = new ArrayList<>();
+        for (int seed : seeds) {
+            seedCodes.add(CodeBlock.of("$L", seed));
+        }
+        FieldSpec seedsField = FieldSpec.builder(int[].class, "SEEDS",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, TypeName.INT, "Seeds", seedCodes))
+                .build();
+
+        // 路由地址数组 private static final String[] PATHS = new String[]{...};
+        List<CodeBlock> pathCodes = new ArrayList<>();
+        for (String path : arrangedPaths) {
+            pathCodes.add(CodeBlock.of("$S", path));
+        }
+        FieldSpec pathsField = FieldSpec.builder(String[].class, "PATHS",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, ClassName.get(String.class), "Paths", pathCodes))
+                .build();
+
+        // 已创建的路由信息 , 第一次查找时创建
+        TypeName routesType = ParameterizedTypeName.get(
+                ClassName.get(AtomicReferenceArray.class), ClassName.get(RouteMeta.class));
+        FieldSpec routesField = FieldSpec.builder(routesType, "mRoutes",
+                Modifier.PRIVATE, Modifier.FINAL)
+                .initializer("new $T($L)", routesType, arrangedPaths.length)
+                .build();
+
+        // 需要预加载的路由 ID , 按照预加载优先级从大到小排列 , 优先级相同时按照路由地址排列
+        Map<String, Integer> routeIds = new HashMap<>();
+        List<RouteBean> preloadRoutes = new ArrayList<>();
+        for (int id = 0; id < arrangedPaths.length; id++) {
+            routeIds.put(arrangedPaths[id], id);
+            RouteBean routeBean = routeBeans.get(arrangedPaths[id]);
+            if (routeBean.getElement().getAnnotation(Route.class).preload()) {
+                preloadRoutes.add(routeBean);
+            }
+        }
+        Collections.sort(preloadRoutes, new Comparator<RouteBean>() {
+            @Override
+            public int compare(RouteBean left, RouteBean right) {
+                int result = Integer.compare(right.getElement().getAnnotation(Route.class).priority(),
+                        left.getElement().getAnnotation(Route.class).priority());
+                if (result != 0) {
+                    return result;
+                }
+                return left.getRouteAddress().compareTo(right.getRouteAddress());
+            }
+        });
+        List<CodeBlock> preloadCodes = new ArrayList<>();
+        for (RouteBean routeBean : preloadRoutes) {
+            preloadCodes.add(CodeBlock.of("$L", routeIds.get(routeBean.getRouteAddress())));
+        }
+        FieldSpec preloadsField = FieldSpec.builder(int[].class, "PRELOADS",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, TypeName.INT, "Preloads", preloadCodes))
+                .build();
+
+        MethodSpec preloadsMethod = MethodSpec.methodBuilder("preloads")
+                .addAnnotation(Override.class)
                 .addModifiers(PUBLIC)
-                .addMethod(loadIntoMethodBuilder.build())
+                .returns(int[].class)
+                .addStatement("return PRELOADS")
                 .build();
 
-        // 生成 Java 源文件
+        MethodSpec seedsMethod = MethodSpec.methodBuilder("seeds")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(int[].class)
+                .addStatement("return SEEDS")
+                .build();
+
+        MethodSpec pathsMethod = MethodSpec.methodBuilder("paths")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(String[].class)
+                .addStatement("return PATHS")
+                .build();
+
+        MethodSpec routeMethod = MethodSpec.methodBuilder("route")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(RouteMeta.class)
+                .addParameter(int.class, "id")
+                .addStatement("$T routeMeta = mRoutes.get(id)", RouteMeta.class)
+                .beginControlFlow("if (routeMeta == null)")
+                .addStatement("routeMeta = createRoute(id)")
+                .addStatement("mRoutes.set(id, routeMeta)")
+                .endControlFlow()
+                .addStatement("return routeMeta")
+                .build();
+
+        // 根据路由 ID 创建路由信息
+        // 路由较多时 , 按照路由 ID 范围拆分到多个子方法中 , 先根据 id / MAX_STATEMENTS_PER_METHOD 选择子方法
+        MethodSpec.Builder createRouteBuilder = MethodSpec.methodBuilder("createRoute")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(RouteMeta.class)
+                .addParameter(int.class, "id");
+        if (arrangedPaths.length <= MAX_STATEMENTS_PER_METHOD) {
+            addCreateRouteCases(createRouteBuilder, routeBeans, arrangedPaths, 0, arrangedPaths.length);
+        } else {
+            createRouteBuilder.beginControlFlow("switch (id / $L)", MAX_STATEMENTS_PER_METHOD);
+            for (int start = 0, chunk = 0; start < arrangedPaths.length;
+                 start += MAX_STATEMENTS_PER_METHOD, chunk++) {
+                MethodSpec.Builder chunkBuilder = MethodSpec.methodBuilder("createRoute" + chunk)
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .returns(RouteMeta.class)
+                        .addParameter(int.class, "id");
+                addCreateRouteCases(chunkBuilder, routeBeans, arrangedPaths, start,
+                        Math.min(start + MAX_STATEMENTS_PER_METHOD, arrangedPaths.length));
+                typeBuilder.addMethod(chunkBuilder.build());
+                createRouteBuilder.addStatement("case $L: return createRoute$L(id)", chunk, chunk);
+            }
+            createRouteBuilder.addStatement("default: return null")
+                    .endControlFlow();
+        }
+
+        typeBuilder.addField(seedsField)
+                .addField(pathsField)
+                .addField(routesField)
+                .addField(preloadsField)
+                .addMethod(seedsMethod)
+                .addMethod(pathsMethod)
+                .addMethod(routeMethod)
+                .addMethod(preloadsMethod)
+                .addMethod(createRouteBuilder.build());
+        addOriginatingElements(typeBuilder, routeBeans.values());
+        TypeSpec typeSpec = typeBuilder.build();
+
         JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeSpec).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-        // 写出到文件中
+    /**
+     * 生成模块的路由地址匹配树 Router_Matcher_模块名
+     *
+     * 先使用本模块的所有路由地址构建匹配树 , 检查路由冲突 , 如 /user/{id} 与 /user/{name} ;
+     * 然后只使用带参数 / 通配符的路由地址构建匹配树 , 展开为数组写入生成的类中 ,
+     * 不带参数的路由地址仍然通过最小完美哈希索引精确查找
+     * 本模块没有带参数 / 通配符的路由地址时 , 不生成该类
+     */
+    private void generateMatcherTable() {
+        List<RouteBean> routeBeans = getAllRoutes();
+        Collections.sort(routeBeans, new Comparator<RouteBean>() {
+            @Override
+            public int compare(RouteBean a, RouteBean b) {
+                return a.getRouteAddress().compareTo(b.getRouteAddress());
+            }
+        });
+
+        List<String> paths = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        List<RouteBean> patternRoutes = new ArrayList<>();
+        for (RouteBean routeBean : routeBeans) {
+            paths.add(routeBean.getRouteAddress());
+            if (RouteTrie.isPattern(routeBean.getRouteAddress())) {
+                patterns.add(routeBean.getRouteAddress());
+                patternRoutes.add(routeBean);
+            }
+        }
+
+        try {
+            RouteTrie.build(paths);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("RouterProcessor : " + e.getMessage());
+        }
+        if (patterns.isEmpty()) {
+            return;
+        }
+        RouteTrie trie = RouteTrie.build(patterns);
+
+        // 获取 kim.hsl.route_core.template.IRouteMatcher 类节点
+        TypeElement iRouteMatcher = mElementUtils.getTypeElement("kim.hsl.route_core.template.IRouteMatcher");
+
+        // 创建 Java 类 Router_Matcher_模块名
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder("Router_Matcher_" + mTableName)
+                .addSuperinterface(ClassName.get(iRouteMatcher))
+                .addModifiers(PUBLIC);
+
+        List<CodeBlock> nodeCodes = new ArrayList<>();
+        for (int node : trie.nodes()) {
+            nodeCodes.add(CodeBlock.of("$L", node));
+        }
+        List<CodeBlock> edgeCodes = new ArrayList<>();
+        for (int edge : trie.edges()) {
+            edgeCodes.add(CodeBlock.of("$L", edge));
+        }
+        List<CodeBlock> labelCodes = new ArrayList<>();
+        for (String label : trie.labels()) {
+            labelCodes.add(CodeBlock.of("$S", label));
+        }
+        List<CodeBlock> patternCodes = new ArrayList<>();
+        for (String pattern : trie.patterns()) {
+            patternCodes.add(CodeBlock.of("$S", pattern));
+        }
+
+        // private static final int[] NODES = new int[]{...}; 等数组字段 , 以及返回这些数组的方法
+        addArrayField(typeBuilder, TypeName.INT, "NODES", "nodes", "Nodes", nodeCodes);
+        addArrayField(typeBuilder, TypeName.INT, "EDGES", "edges", "Edges", edgeCodes);
+        addArrayField(typeBuilder, ClassName.get(String.class), "LABELS", "labels", "Labels", labelCodes);
+        addArrayField(typeBuilder, ClassName.get(String.class), "PATTERNS", "patterns", "Patterns", patternCodes);
+        addOriginatingElements(typeBuilder, patternRoutes);
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeBuilder.build()).build();
         try {
             javaFile.writeTo(mFiler);
         } catch (IOException e) {
@@ -206,6 +584,918 @@ public class RouterProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * 生成静态数组字段 , 以及实现接口方法返回该数组
+     * private static final int[] NODES = new int[]{...};
+     * public int[] nodes() { return NODES; }
+     */
+    private void addArrayField(TypeSpec.Builder typeBuilder, TypeName componentType, String fieldName,
+                               String methodName, String initializerName, List<CodeBlock> elements) {
+        ArrayTypeName arrayType = ArrayTypeName.of(componentType);
+        typeBuilder.addField(FieldSpec.builder(arrayType, fieldName,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, componentType, initializerName, elements))
+                .build());
+        typeBuilder.addMethod(MethodSpec.methodBuilder(methodName)
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(arrayType)
+                .addStatement("return $N", fieldName)
+                .build());
+    }
+
+    /**
+     * 生成 createRoute 方法中 [ start , end ) 范围内路由 ID 的 switch 语句
+     * case 0: return new RouteMeta(...);
+     */
+    private void addCreateRouteCases(MethodSpec.Builder methodBuilder, Map<String, RouteBean> routeBeans,
+                                     String[] arrangedPaths, int start, int end) {
+        methodBuilder.beginControlFlow("switch (id)");
+        for (int id = start; id < end; id++) {
+            methodBuilder.addStatement("case $L: return $L", id,
+                    newRouteMetaCode(routeBeans.get(arrangedPaths[id])));
+        }
+        methodBuilder.addStatement("default: return null")
+                .endControlFlow();
+    }
+
+    /**
+     * 将语句写入方法中
+     * 语句个数超过 MAX_STATEMENTS_PER_METHOD 时 , 拆分到多个私有静态子方法中 ,
+     * 如 loadInto0 , loadInto1 ... , 原方法中依次调用这些子方法
+     *
+     * @param typeBuilder 生成的类 , 子方法添加到该类中
+     * @param methodBuilder 原方法
+     * @param parameter 原方法的参数 , 子方法使用相同的参数
+     * @param statements 语句 , 只能使用 parameter 参数
+     */
+    private void addChunkedStatements(TypeSpec.Builder typeBuilder, MethodSpec.Builder methodBuilder,
+                                      ParameterSpec parameter, List<CodeBlock> statements) {
+        if (statements.size() <= MAX_STATEMENTS_PER_METHOD) {
+            for (CodeBlock statement : statements) {
+                methodBuilder.addStatement(statement);
+            }
+            return;
+        }
+
+        String methodName = methodBuilder.build().name;
+        for (int start = 0, chunk = 0; start < statements.size(); start += MAX_STATEMENTS_PER_METHOD, chunk++) {
+            MethodSpec.Builder chunkBuilder = MethodSpec.methodBuilder(methodName + chunk)
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .addParameter(parameter);
+            int end = Math.min(start + MAX_STATEMENTS_PER_METHOD, statements.size());
+            for (CodeBlock statement : statements.subList(start, end)) {
+                chunkBuilder.addStatement(statement);
+            }
+            typeBuilder.addMethod(chunkBuilder.build());
+            methodBuilder.addStatement("$L$L($N)", methodName, chunk, parameter);
+        }
+    }
+
+    /**
+     * 生成静态数组字段的初始化代码
+     * 元素个数不超过 MAX_ARRAY_ELEMENTS_PER_METHOD 时 , 直接生成 new int[]{...} ;
+     * 否则生成 newXxx 静态方法创建数组 , 并拆分到多个 fillXxx 子方法中为数组元素赋值
+     *
+     * @param typeBuilder 生成的类 , 子方法添加到该类中
+     * @param componentType 数组元素类型
+     * @param name 子方法名称后缀 , 如 Paths 对应 newPaths , fillPaths0 ...
+     * @param elements 数组元素
+     * @return 数组字段的初始化代码
+     */
+    static CodeBlock arrayInitializer(TypeSpec.Builder typeBuilder, TypeName componentType,
+                                      String name, List<CodeBlock> elements) {
+        int[] weights = new int[elements.size()];
+        Arrays.fill(weights, 1);
+        return arrayInitializer(typeBuilder, componentType, name, elements, weights);
+    }
+
+    /**
+     * 生成静态数组字段的初始化代码 , 按照元素的权重拆分子方法 , 每个子方法中元素的权重之和不超过 MAX_ARRAY_ELEMENTS_PER_METHOD
+     * @param weights 每个元素的权重 , 如二维数组中每一行的元素个数
+     */
+    private static CodeBlock arrayInitializer(TypeSpec.Builder typeBuilder, TypeName componentType,
+                                              String name, List<CodeBlock> elements, int[] weights) {
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+        if (totalWeight <= MAX_ARRAY_ELEMENTS_PER_METHOD) {
+            return CodeBlock.of("new $T[]{$L}", componentType, CodeBlock.join(elements, ", "));
+        }
+
+        ArrayTypeName arrayType = ArrayTypeName.of(componentType);
+        MethodSpec.Builder newBuilder = MethodSpec.methodBuilder("new" + name)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(arrayType)
+                .addStatement("$T array = new $L", arrayType, newArrayCode(componentType, elements.size()));
+        int start = 0;
+        int chunk = 0;
+        while (start < elements.size()) {
+            MethodSpec.Builder fillBuilder = MethodSpec.methodBuilder("fill" + name + chunk)
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .addParameter(arrayType, "array");
+            // 至少放入一个元素 , 之后权重之和超过上限时换到下一个子方法
+            int weight = 0;
+            int i = start;
+            do {
+                fillBuilder.addStatement("array[$L] = $L", i, elements.get(i));
+                weight += weights[i];
+                i++;
+            } while (i < elements.size() && weight + weights[i] <= MAX_ARRAY_ELEMENTS_PER_METHOD);
+            typeBuilder.addMethod(fillBuilder.build());
+            newBuilder.addStatement("fill$L$L(array)", name, chunk);
+            start = i;
+            chunk++;
+        }
+        newBuilder.addStatement("return array");
+        typeBuilder.addMethod(newBuilder.build());
+        return CodeBlock.of("new$L()", name);
+    }
+
+    /**
+     * 生成二维静态数组字段的初始化代码 , 如 new Class<?>[][]{{A.class}, {B.class, C.class}}
+     * 每一行作为外层数组的一个元素 , 按照行中的元素个数拆分子方法 ;
+     * 元素个数超过 MAX_ARRAY_ELEMENTS_PER_METHOD 的行 , 单独生成 newXxxRowN 方法创建
+     *
+     * @param typeBuilder 生成的类 , 子方法添加到该类中
+     * @param componentType 每一行的数组元素类型
+     * @param name 子方法名称后缀
+     * @param rows 每一行的数组元素
+     * @return 二维数组字段的初始化代码
+     */
+    static CodeBlock arrayInitializer2D(TypeSpec.Builder typeBuilder, TypeName componentType,
+                                        String name, List<List<CodeBlock>> rows) {
+        List<CodeBlock> rowCodes = new ArrayList<>(rows.size());
+        int[] weights = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            List<CodeBlock> row = rows.get(i);
+            if (row.size() > MAX_ARRAY_ELEMENTS_PER_METHOD) {
+                rowCodes.add(arrayInitializer(typeBuilder, componentType, name + "Row" + i, row));
+                weights[i] = 1;
+            } else {
+                rowCodes.add(CodeBlock.of("new $T[]{$L}", componentType, CodeBlock.join(row, ", ")));
+                weights[i] = Math.max(row.size(), 1);
+            }
+        }
+        return arrayInitializer(typeBuilder, ArrayTypeName.of(componentType), name, rowCodes, weights);
+    }
+
+    /**
+     * 创建数组的代码 , 多维数组的长度写在第一维上 , 如 int[5] , Class<?>[5][]
+     */
+    private static CodeBlock newArrayCode(TypeName componentType, int length) {
+        int dimensions = 0;
+        TypeName elementType = componentType;
+        while (elementType instanceof ArrayTypeName) {
+            elementType = ((ArrayTypeName) elementType).componentType;
+            dimensions++;
+        }
+        StringBuilder brackets = new StringBuilder();
+        for (int i = 0; i < dimensions; i++) {
+            brackets.append("[]");
+        }
+        return CodeBlock.of("$T[$L]$L", elementType, length, brackets);
+    }
+
+    /**
+     * 生成根据 ID 返回对象的 switch 语句 , 每个分支为 case ID: return 表达式;
+     * 分支个数超过 MAX_STATEMENTS_PER_METHOD 时 , 按照 ID 范围拆分到多个私有静态子方法中 ,
+     * 如 create0 , create1 ... , 原方法先根据 id / MAX_STATEMENTS_PER_METHOD 选择子方法
+     *
+     * @param typeBuilder 生成的类 , 子方法添加到该类中
+     * @param methodBuilder 原方法 , 只有一个 int id 参数
+     * @param returnType 原方法的返回值类型
+     * @param values 下标为 ID 的返回值表达式
+     * @param defaultStatement ID 不存在时执行的语句 , 如 throw new IllegalArgumentException(...)
+     */
+    static void addIdSwitch(TypeSpec.Builder typeBuilder, MethodSpec.Builder methodBuilder, TypeName returnType,
+                            List<CodeBlock> values, CodeBlock defaultStatement) {
+        if (values.size() <= MAX_STATEMENTS_PER_METHOD) {
+            addIdCases(methodBuilder, values, 0, values.size(), defaultStatement);
+            return;
+        }
+
+        String methodName = methodBuilder.build().name;
+        methodBuilder.beginControlFlow("switch (id / $L)", MAX_STATEMENTS_PER_METHOD);
+        for (int start = 0, chunk = 0; start < values.size(); start += MAX_STATEMENTS_PER_METHOD, chunk++) {
+            MethodSpec.Builder chunkBuilder = MethodSpec.methodBuilder(methodName + chunk)
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .returns(returnType)
+                    .addParameter(int.class, "id");
+            addIdCases(chunkBuilder, values, start, Math.min(start + MAX_STATEMENTS_PER_METHOD, values.size()),
+                    defaultStatement);
+            typeBuilder.addMethod(chunkBuilder.build());
+            methodBuilder.addStatement("case $L: return $L$L(id)", chunk, methodName, chunk);
+        }
+        methodBuilder.addStatement("default: $L", defaultStatement)
+                .endControlFlow();
+    }
+
+    /**
+     * 生成 [ start , end ) 范围内 ID 的 switch 语句
+     */
+    private static void addIdCases(MethodSpec.Builder methodBuilder, List<CodeBlock> values, int start, int end,
+                                   CodeBlock defaultStatement) {
+        methodBuilder.beginControlFlow("switch (id)");
+        for (int id = start; id < end; id++) {
+            methodBuilder.addStatement("case $L: return $L", id, values.get(id));
+        }
+        methodBuilder.addStatement("default: $L", defaultStatement)
+                .endControlFlow();
+    }
+
+    /**
+     * 生成模块的二进制路由表 assets/router/模块名.rtab , 格式见 RouteTableFormat
+     *
+     * 写出到 class 输出目录 , 与其它 Java 资源一起打包到 APK 根目录下 , 即 APK 的 assets/router 目录中
+     */
+    private void generateRouteTableAsset() {
+        List<RouteBean> routeBeans = getAllRoutes();
+        List<RouteTableFormat.Record> records = new ArrayList<>();
+        Element[] originatingElements = new Element[routeBeans.size()];
+        for (int i = 0; i < routeBeans.size(); i++) {
+            RouteBean routeBean = routeBeans.get(i);
+            TypeElement typeElement = (TypeElement) routeBean.getElement();
+            records.add(new RouteTableFormat.Record(
+                    routeBean.getRouteGroup(),
+                    routeBean.getRouteAddress(),
+                    // 内部类使用 Outer$Inner 形式的类名 , 运行时使用 Class.forName 加载
+                    mElementUtils.getBinaryName(typeElement).toString(),
+                    routeBean.getType()));
+            originatingElements[i] = typeElement;
+        }
+
+        try {
+            FileObject fileObject = mFiler.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "assets/" + RouteTableFormat.assetPath(mTableName), originatingElements);
+            OutputStream outputStream = fileObject.openOutputStream();
+            try {
+                outputStream.write(RouteTableFormat.write(records));
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.WARNING, "RouterProcessor : 生成二进制路由表失败 , "
+                    + "运行时使用生成的路由类 : " + e.getMessage());
+        }
+    }
+
+    /**
+     * 生成模块的对象工厂 Router_Factory_模块名
+     *
+     * 为本模块的每个路由分组类 , IService 服务类 和 Fragment 类分配一个类 ID ,
+     * 生成 switch 语句根据类 ID 直接 new 对象 , 运行时不需要反射 ;
+     * @Route(cacheable = true) 注解的 Fragment 的类 ID 记录在 CACHEABLE 数组中
+     */
+    private void generateFactoryTable() {
+        // 获取 kim.hsl.route_core.template.IRouteFactory 类节点
+        TypeElement iRouteFactory = mElementUtils.getTypeElement("kim.hsl.route_core.template.IRouteFactory");
+
+        // 需要创建的类 , 列表下标即为类 ID
+        List<ClassName> classNames = new ArrayList<>();
+
+        // 路由分组类 Router_Group_分组名
+        for (String groupClassName : mRootMap.values()) {
+            classNames.add(ClassName.get("kim.hsl.router", groupClassName));
+        }
+
+        // IService 服务类
+        for (ArrayList<RouteBean> groupRoutes : mGroupMap.values()) {
+            for (RouteBean routeBean : groupRoutes) {
+                if (routeBean.getType() == RouteMeta.TYPE_SERVICE) {
+                    classNames.add(ClassName.get((TypeElement) routeBean.getElement()));
+                }
+            }
+        }
+
+        // Fragment 类 , 以及可以缓存实例的 Fragment 的类 ID
+        List<CodeBlock> cacheableCodes = new ArrayList<>();
+        for (ArrayList<RouteBean> groupRoutes : mGroupMap.values()) {
+            for (RouteBean routeBean : groupRoutes) {
+                if (routeBean.getType() == RouteMeta.TYPE_FRAGMENT) {
+                    if (routeBean.getElement().getAnnotation(Route.class).cacheable()) {
+                        cacheableCodes.add(CodeBlock.of("$L", classNames.size()));
+                    }
+                    classNames.add(ClassName.get((TypeElement) routeBean.getElement()));
+                }
+            }
+        }
+
+        // private static final Class<?>[] CLASSES = new Class<?>[]{...};
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        List<CodeBlock> classCodes = new ArrayList<>();
+        for (ClassName className : classNames) {
+            classCodes.add(CodeBlock.of("$T.class", className));
+        }
+        // 创建 Java 类 Router_Factory_模块名
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder("Router_Factory_" + mTableName)
+                .addSuperinterface(ClassName.get(iRouteFactory))
+                .addModifiers(PUBLIC);
+
+        FieldSpec classesField = FieldSpec.builder(ArrayTypeName.of(classType), "CLASSES",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, classType, "Classes", classCodes))
+                .build();
+
+        MethodSpec classesMethod = MethodSpec.methodBuilder("classes")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ArrayTypeName.of(classType))
+                .addStatement("return CLASSES")
+                .build();
+
+        // private static final int[] CACHEABLE = new int[]{...};
+        FieldSpec cacheableField = FieldSpec.builder(int[].class, "CACHEABLE",
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(arrayInitializer(typeBuilder, TypeName.INT, "Cacheable", cacheableCodes))
+                .build();
+
+        MethodSpec cacheableMethod = MethodSpec.methodBuilder("cacheable")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(int[].class)
+                .addStatement("return CACHEABLE")
+                .build();
+
+        // public Object create(int id)
+        // 类较多时 , 按照类 ID 范围拆分到多个子方法中
+        MethodSpec.Builder createBuilder = MethodSpec.methodBuilder("create")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(Object.class)
+                .addParameter(int.class, "id");
+        List<CodeBlock> createCodes = new ArrayList<>();
+        for (ClassName className : classNames) {
+            createCodes.add(CodeBlock.of("new $T()", className));
+        }
+        addIdSwitch(typeBuilder, createBuilder, TypeName.OBJECT, createCodes, CodeBlock.of("throw new $T($S + id)",
+                IllegalArgumentException.class, "Router_Factory_" + mTableName + " : 未知的类 ID "));
+
+        typeBuilder.addField(classesField)
+                .addField(cacheableField)
+                .addMethod(classesMethod)
+                .addMethod(cacheableMethod)
+                .addMethod(createBuilder.build());
+        addOriginatingElements(typeBuilder, getAllRoutes());
+        TypeSpec typeSpec = typeBuilder.build();
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeSpec).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 生成模块的服务接口索引 Router_Services_模块名
+     *
+     * 记录本模块每个 IService 服务类实现的 IService 子接口 ( 包括父类和父接口实现的子接口 ) ,
+     * 每个接口的实现类按照 @Route 注解的 priority 从大到小排序 , 优先级相同时按照类名排序 ,
+     * 运行时 Router.service(接口) 直接从数组中获取实现类 , 不需要扫描类型
+     * 本模块没有实现 IService 子接口的服务时 , 不生成该类
+     */
+    private void generateServiceTable() {
+        TypeMirror iService = mElementUtils.getTypeElement("kim.hsl.route_core.template.IService").asType();
+
+        // 键 ( Key ) : 接口全类名 , 值 ( Value ) : 实现该接口的服务
+        Map<String, List<RouteBean>> interfaceMap = new TreeMap<>();
+        Map<String, TypeElement> interfaceElements = new HashMap<>();
+        List<RouteBean> serviceRoutes = new ArrayList<>();
+        for (RouteBean routeBean : getAllRoutes()) {
+            if (routeBean.getType() != RouteMeta.TYPE_SERVICE) {
+                continue;
+            }
+            Set<TypeElement> interfaces = new TreeSet<>(new Comparator<TypeElement>() {
+                @Override
+                public int compare(TypeElement a, TypeElement b) {
+                    return a.getQualifiedName().toString().compareTo(b.getQualifiedName().toString());
+                }
+            });
+            collectServiceInterfaces(routeBean.getElement().asType(), iService, interfaces);
+            for (TypeElement interfaceElement : interfaces) {
+                String interfaceName = interfaceElement.getQualifiedName().toString();
+                List<RouteBean> implementations = interfaceMap.get(interfaceName);
+                if (implementations == null) {
+                    implementations = new ArrayList<>();
+                    interfaceMap.put(interfaceName, implementations);
+                    interfaceElements.put(interfaceName, interfaceElement);
+                }
+                implementations.add(routeBean);
+            }
+            if (!interfaces.isEmpty()) {
+                serviceRoutes.add(routeBean);
+            }
+        }
+        if (interfaceMap.isEmpty()) {
+            return;
+        }
+
+        Comparator<RouteBean> priorityComparator = new Comparator<RouteBean>() {
+            @Override
+            public int compare(RouteBean a, RouteBean b) {
+                int cmp = Integer.compare(getPriority(b), getPriority(a));
+                if (cmp != 0) {
+                    return cmp;
+                }
+                return ((TypeElement) a.getElement()).getQualifiedName().toString()
+                        .compareTo(((TypeElement) b.getElement()).getQualifiedName().toString());
+            }
+        };
+
+        // private static final Class<?>[] INTERFACES = new Class<?>[]{ComponentService.class};
+        // private static final Class<?>[][] IMPLEMENTATIONS = new Class<?>[][]{{StringService.class}};
+        // private static final int[][] PRIORITIES = new int[][]{{0}};
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        List<CodeBlock> interfaceCodes = new ArrayList<>();
+        List<List<CodeBlock>> implementationCodes = new ArrayList<>();
+        List<List<CodeBlock>> priorityCodes = new ArrayList<>();
+        for (Map.Entry<String, List<RouteBean>> entry : interfaceMap.entrySet()) {
+            List<RouteBean> implementations = entry.getValue();
+            Collections.sort(implementations, priorityComparator);
+            interfaceCodes.add(CodeBlock.of("$T.class", ClassName.get(interfaceElements.get(entry.getKey()))));
+
+            List<CodeBlock> classCodes = new ArrayList<>();
+            List<CodeBlock> priorities = new ArrayList<>();
+            for (RouteBean routeBean : implementations) {
+                classCodes.add(CodeBlock.of("$T.class", ClassName.get((TypeElement) routeBean.getElement())));
+                priorities.add(CodeBlock.of("$L", getPriority(routeBean)));
+            }
+            implementationCodes.add(classCodes);
+            priorityCodes.add(priorities);
+        }
+
+        // 接口和实现类较多时 , 数组初始化代码拆分到多个子方法中
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder("Router_Services_" + mTableName)
+                .addSuperinterface(ClassName.get(mElementUtils.getTypeElement(
+                        "kim.hsl.route_core.template.IServiceIndex")))
+                .addModifiers(PUBLIC);
+        typeBuilder.addField(FieldSpec.builder(ArrayTypeName.of(classType), "INTERFACES",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(arrayInitializer(typeBuilder, classType, "Interfaces", interfaceCodes))
+                        .build())
+                .addField(FieldSpec.builder(ArrayTypeName.of(ArrayTypeName.of(classType)), "IMPLEMENTATIONS",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(arrayInitializer2D(typeBuilder, classType, "Implementations", implementationCodes))
+                        .build())
+                .addField(FieldSpec.builder(int[][].class, "PRIORITIES",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(arrayInitializer2D(typeBuilder, TypeName.INT, "Priorities", priorityCodes))
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("interfaces")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(ArrayTypeName.of(classType))
+                        .addStatement("return INTERFACES")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("implementations")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(ArrayTypeName.of(ArrayTypeName.of(classType)))
+                        .addStatement("return IMPLEMENTATIONS")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("priorities")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(int[][].class)
+                        .addStatement("return PRIORITIES")
+                        .build());
+        addOriginatingElements(typeBuilder, serviceRoutes);
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeBuilder.build()).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 生成模块的跨进程服务索引 Router_Remote_模块名
+     *
+     * 为 @Route(remote = true) 注解的服务实现的每个 IService 子接口生成 :
+     * 1. 代理类 , 实现该接口 , 将接口类名 , 方法 ID , 参数写入 RemoteChannel 的当前批次
+     * 2. invoke 方法中的 switch 语句 , 在服务所在进程中按照方法 ID 读取参数 , 调用服务 , 写入返回值
+     * 方法 ID 为方法在接口所有抽象方法中的下标 , 代理和调用代码在同一个类中生成 , 保证一致
+     * 本模块没有跨进程服务时 , 不生成该类
+     */
+    private void generateRemoteTable() {
+        TypeMirror iService = mElementUtils.getTypeElement("kim.hsl.route_core.template.IService").asType();
+
+        // 跨进程服务实现的接口 , 按照接口类名排序 , 列表下标即为接口 ID
+        Map<String, TypeElement> interfaceMap = new TreeMap<>();
+        // 键 ( Key ) : 接口全类名 , 值 ( Value ) : 跨进程调用该接口时执行的实现类
+        Map<String, TypeElement> implementationMap = new HashMap<>();
+        List<RouteBean> remoteRoutes = new ArrayList<>();
+        for (RouteBean routeBean : getAllRoutes()) {
+            if (routeBean.getType() != RouteMeta.TYPE_SERVICE
+                    || !routeBean.getElement().getAnnotation(Route.class).remote()) {
+                continue;
+            }
+            Set<TypeElement> interfaces = new HashSet<>();
+            collectServiceInterfaces(routeBean.getElement().asType(), iService, interfaces);
+            if (interfaces.isEmpty()) {
+                throw new RuntimeException("@Route(remote = true) 注解的服务 " + routeBean.getElement()
+                        + " 没有实现 IService 的子接口 , 无法生成跨进程代理");
+            }
+            TypeElement implementation = (TypeElement) routeBean.getElement();
+            for (TypeElement interfaceElement : interfaces) {
+                String interfaceName = interfaceElement.getQualifiedName().toString();
+                TypeElement existing = implementationMap.put(interfaceName, implementation);
+                if (existing != null) {
+                    throw new RuntimeException("接口 " + interfaceName + " 有多个 @Route(remote = true) 注解的实现 "
+                            + existing.getQualifiedName() + " , " + implementation.getQualifiedName()
+                            + " , 跨进程调用无法确定执行哪一个实现");
+                }
+                interfaceMap.put(interfaceName, interfaceElement);
+            }
+            remoteRoutes.add(routeBean);
+        }
+        if (interfaceMap.isEmpty()) {
+            return;
+        }
+
+        ClassName parcel = ClassName.get("android.os", "Parcel");
+        ClassName iServiceName = ClassName.get("kim.hsl.route_core.template", "IService");
+        ClassName remoteChannel = ClassName.get("kim.hsl.route_core", "RemoteChannel");
+        String className = "Router_Remote_" + mTableName;
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+
+        TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(className)
+                .addSuperinterface(ClassName.get(mElementUtils.getTypeElement(
+                        "kim.hsl.route_core.template.IRemoteIndex")))
+                .addModifiers(PUBLIC);
+
+        // public IService createProxy(int id, RemoteChannel channel)
+        MethodSpec.Builder createProxyBuilder = MethodSpec.methodBuilder("createProxy")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(iServiceName)
+                .addParameter(int.class, "id")
+                .addParameter(remoteChannel, "channel")
+                .beginControlFlow("switch (id)");
+
+        // public void invoke(int id, IService service, int method, Parcel data, Parcel reply)
+        MethodSpec.Builder invokeBuilder = MethodSpec.methodBuilder("invoke")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(int.class, "id")
+                .addParameter(iServiceName, "service")
+                .addParameter(int.class, "method")
+                .addParameter(parcel, "data")
+                .addParameter(parcel, "reply")
+                .beginControlFlow("switch (id)");
+
+        List<CodeBlock> interfaceCodes = new ArrayList<>();
+        List<CodeBlock> implementationCodes = new ArrayList<>();
+        Set<String> proxyNames = new HashSet<>();
+        int id = 0;
+        for (TypeElement interfaceElement : interfaceMap.values()) {
+            ClassName interfaceName = ClassName.get(interfaceElement);
+            String binaryName = mElementUtils.getBinaryName(interfaceElement).toString();
+            List<ExecutableElement> methods = getRemoteMethods(interfaceElement);
+            interfaceCodes.add(CodeBlock.of("$T.class", interfaceName));
+            implementationCodes.add(CodeBlock.of("$T.class",
+                    ClassName.get(implementationMap.get(interfaceElement.getQualifiedName().toString()))));
+
+            // 代理类 , 接口简单类名重复时加上接口 ID
+            String proxyName = interfaceElement.getSimpleName() + "_Proxy";
+            if (!proxyNames.add(proxyName)) {
+                proxyName = interfaceElement.getSimpleName() + "_Proxy" + id;
+                proxyNames.add(proxyName);
+            }
+            typeBuilder.addType(generateRemoteProxy(proxyName, interfaceName, binaryName, methods, remoteChannel));
+            createProxyBuilder.addStatement("case $L: return new $N(channel)", id, proxyName);
+
+            // 每个接口的调用代码放在单独的方法中 , 避免 invoke 方法过大
+            String invokeName = "invoke" + id;
+            typeBuilder.addMethod(generateRemoteInvoke(invokeName, interfaceName, methods, parcel));
+            invokeBuilder.addStatement("case $L: $N(($T) service, method, data, reply); return",
+                    id, invokeName, interfaceName);
+            id++;
+        }
+        createProxyBuilder.addStatement("default: throw new $T($S + id)",
+                IllegalArgumentException.class, className + " : 未知的接口 ID ")
+                .endControlFlow();
+        invokeBuilder.addStatement("default: throw new $T($S + id)",
+                IllegalArgumentException.class, className + " : 未知的接口 ID ")
+                .endControlFlow();
+
+        // private static final Class<?>[] INTERFACES = new Class<?>[]{ComponentService.class};
+        // private static final Class<?>[] IMPLEMENTATIONS = new Class<?>[]{StringService.class};
+        typeBuilder.addField(FieldSpec.builder(ArrayTypeName.of(classType), "INTERFACES",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T[]{$L}", classType, CodeBlock.join(interfaceCodes, ", "))
+                        .build())
+                .addField(FieldSpec.builder(ArrayTypeName.of(classType), "IMPLEMENTATIONS",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T[]{$L}", classType, CodeBlock.join(implementationCodes, ", "))
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("interfaces")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(ArrayTypeName.of(classType))
+                        .addStatement("return INTERFACES")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("implementations")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(ArrayTypeName.of(classType))
+                        .addStatement("return IMPLEMENTATIONS")
+                        .build())
+                .addMethod(createProxyBuilder.build())
+                .addMethod(invokeBuilder.build());
+        addOriginatingElements(typeBuilder, remoteRoutes);
+
+        JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeBuilder.build()).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 跨进程服务接口的所有抽象方法 , 包括父接口中的方法 , 列表下标即为方法 ID
+     * 同时检查参数和返回值类型是否可以写入 Parcel
+     * @param interfaceElement IService 子接口
+     * @return 抽象方法
+     */
+    private List<ExecutableElement> getRemoteMethods(TypeElement interfaceElement) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(mElementUtils.getAllMembers(interfaceElement))) {
+            // 跳过 Object 的方法 , 以及接口的 default / static 方法
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)
+                    || method.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                throw new RuntimeException("跨进程服务接口 " + interfaceElement + " 的方法 " + method
+                        + " 不能是泛型方法");
+            }
+            if (method.getReturnType().getKind() != TypeKind.VOID) {
+                checkRemoteType(interfaceElement, method, method.getReturnType());
+            }
+            for (VariableElement parameter : method.getParameters()) {
+                checkRemoteType(interfaceElement, method, parameter.asType());
+            }
+            // 生成的调用代码不处理受检异常
+            for (TypeMirror thrownType : method.getThrownTypes()) {
+                if (!mTypeUtils.isSubtype(thrownType, mElementUtils.getTypeElement("java.lang.RuntimeException").asType())
+                        && !mTypeUtils.isSubtype(thrownType, mElementUtils.getTypeElement("java.lang.Error").asType())) {
+                    throw new RuntimeException("跨进程服务接口 " + interfaceElement + " 的方法 " + method
+                            + " 不能声明受检异常 " + thrownType);
+                }
+            }
+            methods.add(method);
+        }
+        return methods;
+    }
+
+    /**
+     * 检查跨进程服务方法的参数 / 返回值类型 , 只支持基本类型 , String 和 Bundle
+     */
+    private void checkRemoteType(TypeElement interfaceElement, ExecutableElement method, TypeMirror type) {
+        if (type.getKind().isPrimitive()
+                || isDeclaredType(type, "java.lang.String") || isDeclaredType(type, "android.os.Bundle")) {
+            return;
+        }
+        throw new RuntimeException("跨进程服务接口 " + interfaceElement + " 的方法 " + method
+                + " 使用了不支持的类型 " + type + " , 只支持基本类型 , String 和 Bundle");
+    }
+
+    /**
+     * 判断类型是否是指定的类 , 忽略类型注解
+     */
+    private static boolean isDeclaredType(TypeMirror type, String className) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(className);
+    }
+
+    /**
+     * 生成跨进程服务接口的代理类 , 没有返回值的方法写入批次后立即返回 , 有返回值的方法同步等待返回值
+     * @param proxyName 代理类名
+     * @param interfaceName 接口
+     * @param binaryName 接口的二进制类名 , 与运行时 Class.getName 相同
+     * @param methods 接口的抽象方法
+     * @param remoteChannel RemoteChannel 类
+     */
+    private TypeSpec generateRemoteProxy(String proxyName, ClassName interfaceName, String binaryName,
+                                         List<ExecutableElement> methods, ClassName remoteChannel) {
+        ClassName parcel = ClassName.get("android.os", "Parcel");
+        TypeSpec.Builder proxyBuilder = TypeSpec.classBuilder(proxyName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(interfaceName)
+                .addField(remoteChannel, "mChannel", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(remoteChannel, "channel")
+                        .addStatement("this.mChannel = channel")
+                        .build());
+
+        for (int methodId = 0; methodId < methods.size(); methodId++) {
+            ExecutableElement method = methods.get(methodId);
+            TypeMirror returnType = method.getReturnType();
+            boolean oneway = returnType.getKind() == TypeKind.VOID;
+            MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(method.getSimpleName().toString())
+                    .addAnnotation(Override.class)
+                    .addModifiers(PUBLIC)
+                    .returns(TypeName.get(returnType));
+            if (method.getParameters().isEmpty()) {
+                methodBuilder.addStatement("mChannel.$N($S, $L)", oneway ? "begin" : "beginCall", binaryName, methodId);
+            } else {
+                methodBuilder.addStatement("$T _data = mChannel.$N($S, $L)",
+                        parcel, oneway ? "begin" : "beginCall", binaryName, methodId);
+            }
+            if (!method.getParameters().isEmpty()) {
+                // 写入参数抛出异常时放弃该调用 , 释放通道的批次锁 , 批次中之前的调用不受影响
+                methodBuilder.beginControlFlow("try");
+                for (VariableElement parameter : method.getParameters()) {
+                    String name = parameter.getSimpleName().toString();
+                    methodBuilder.addParameter(TypeName.get(parameter.asType()), name);
+                    methodBuilder.addStatement(writeParcelCode("_data", parameter.asType(), CodeBlock.of("$N", name)));
+                }
+                methodBuilder.nextControlFlow("catch ($T _e)", Throwable.class)
+                        .addStatement("mChannel.abortCall()")
+                        .addStatement("throw _e")
+                        .endControlFlow();
+            }
+            if (oneway) {
+                methodBuilder.addStatement("mChannel.send()");
+            } else {
+                methodBuilder.addStatement("$T _reply = mChannel.call()", parcel)
+                        .beginControlFlow("try")
+                        .addStatement("return $L", readParcelCode("_reply", returnType, interfaceName))
+                        .nextControlFlow("finally")
+                        .addStatement("_reply.recycle()")
+                        .endControlFlow();
+            }
+            proxyBuilder.addMethod(methodBuilder.build());
+        }
+        return proxyBuilder.build();
+    }
+
+    /**
+     * 生成在服务所在进程中调用一个接口的方法 , 按照方法 ID 读取参数 , 调用服务 , 写入返回值
+     */
+    private MethodSpec generateRemoteInvoke(String invokeName, ClassName interfaceName,
+                                            List<ExecutableElement> methods, ClassName parcel) {
+        MethodSpec.Builder invokeBuilder = MethodSpec.methodBuilder(invokeName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(interfaceName, "service")
+                .addParameter(int.class, "method")
+                .addParameter(parcel, "data")
+                .addParameter(parcel, "reply")
+                .beginControlFlow("switch (method)");
+        for (int methodId = 0; methodId < methods.size(); methodId++) {
+            ExecutableElement method = methods.get(methodId);
+            // 参数按照写入顺序从左到右读取
+            List<CodeBlock> arguments = new ArrayList<>();
+            for (VariableElement parameter : method.getParameters()) {
+                arguments.add(readParcelCode("data", parameter.asType(), interfaceName));
+            }
+            CodeBlock call = CodeBlock.of("service.$N($L)", method.getSimpleName().toString(),
+                    CodeBlock.join(arguments, ", "));
+            invokeBuilder.addCode("case $L:\n", methodId).addCode("$>");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                invokeBuilder.addStatement(call);
+            } else {
+                invokeBuilder.addStatement(writeParcelCode("reply", method.getReturnType(), call));
+            }
+            invokeBuilder.addStatement("return").addCode("$<");
+        }
+        invokeBuilder.addStatement("default: throw new $T($S + method)",
+                IllegalArgumentException.class, interfaceName.simpleName() + " : 未知的方法 ID ")
+                .endControlFlow();
+        return invokeBuilder.build();
+    }
+
+    /**
+     * 将值写入 Parcel 的代码 , boolean / char / short 写为 int
+     */
+    private static CodeBlock writeParcelCode(String parcelName, TypeMirror type, CodeBlock value) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("$N.writeInt($L ? 1 : 0)", parcelName, value);
+            case BYTE:
+                return CodeBlock.of("$N.writeByte($L)", parcelName, value);
+            case CHAR:
+            case SHORT:
+            case INT:
+                return CodeBlock.of("$N.writeInt($L)", parcelName, value);
+            case LONG:
+                return CodeBlock.of("$N.writeLong($L)", parcelName, value);
+            case FLOAT:
+                return CodeBlock.of("$N.writeFloat($L)", parcelName, value);
+            case DOUBLE:
+                return CodeBlock.of("$N.writeDouble($L)", parcelName, value);
+            default:
+                return isDeclaredType(type, "android.os.Bundle")
+                        ? CodeBlock.of("$N.writeBundle($L)", parcelName, value)
+                        : CodeBlock.of("$N.writeString($L)", parcelName, value);
+        }
+    }
+
+    /**
+     * 从 Parcel 读取值的代码 , 与 writeParcelCode 对应
+     * @param interfaceName 服务接口 , Bundle 使用接口的类加载器读取
+     */
+    private static CodeBlock readParcelCode(String parcelName, TypeMirror type, ClassName interfaceName) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return CodeBlock.of("$N.readInt() != 0", parcelName);
+            case BYTE:
+                return CodeBlock.of("$N.readByte()", parcelName);
+            case CHAR:
+                return CodeBlock.of("(char) $N.readInt()", parcelName);
+            case SHORT:
+                return CodeBlock.of("(short) $N.readInt()", parcelName);
+            case INT:
+                return CodeBlock.of("$N.readInt()", parcelName);
+            case LONG:
+                return CodeBlock.of("$N.readLong()", parcelName);
+            case FLOAT:
+                return CodeBlock.of("$N.readFloat()", parcelName);
+            case DOUBLE:
+                return CodeBlock.of("$N.readDouble()", parcelName);
+            default:
+                return isDeclaredType(type, "android.os.Bundle")
+                        ? CodeBlock.of("$N.readBundle($T.class.getClassLoader())", parcelName, interfaceName)
+                        : CodeBlock.of("$N.readString()", parcelName);
+        }
+    }
+
+    /**
+     * 收集类型实现的所有 IService 子接口 , 包括父类和父接口实现的子接口 , 不包括 IService 本身
+     * @param type 服务类型
+     * @param iService IService 类型
+     * @param interfaces 收集到的接口
+     */
+    private void collectServiceInterfaces(TypeMirror type, TypeMirror iService, Set<TypeElement> interfaces) {
+        for (TypeMirror superType : mTypeUtils.directSupertypes(type)) {
+            Element superElement = mTypeUtils.asElement(superType);
+            if (superElement == null || !mTypeUtils.isSubtype(mTypeUtils.erasure(superType), iService)) {
+                continue;
+            }
+            if (superElement.getKind() == ElementKind.INTERFACE
+                    && !mTypeUtils.isSameType(mTypeUtils.erasure(superType), iService)) {
+                interfaces.add((TypeElement) superElement);
+            }
+            collectServiceInterfaces(superType, iService, interfaces);
+        }
+    }
+
+    /**
+     * 路由的优先级 , 即 @Route 注解的 priority
+     */
+    private int getPriority(RouteBean routeBean) {
+        return routeBean.getElement().getAnnotation(Route.class).priority();
+    }
+
+    /**
+     * 生成创建运行时路由信息的代码
+     * new RouteMeta(RouteMeta.TYPE_ACTIVITY, MainActivity.class, "/app/MainActivity", "app")
+     * @param routeBean 路由信息
+     * @return
+     */
+    private CodeBlock newRouteMetaCode(RouteBean routeBean) {
+        // $T 表示类
+        // $L 表示字面量 , 原封不动的字符串替换
+        // $S 表示字符串
+        return CodeBlock.of("new $T($T.$L, $T.class, $S, $S)",
+                // $T 类名 : RouteMeta
+                ClassName.get(RouteMeta.class),
+                // $T 类名 : RouteMeta , 引用类型常量
+                ClassName.get(RouteMeta.class),
+                // $L 字面量 : TYPE_ACTIVITY
+                getTypeConstant(routeBean.getType()),
+                // $T 类名 : kim.hsl.component.MainActivity 类
+                ClassName.get((TypeElement) routeBean.getElement()),
+                // $S 字符串 : "/app/MainActivity"
+                routeBean.getRouteAddress(),
+                // $S 字符串 : "app"
+                routeBean.getRouteGroup());
+    }
+
+    /**
+     * 路由类型对应的 RouteMeta 常量名称
+     */
+    private static String getTypeConstant(int type) {
+        switch (type) {
+            case RouteMeta.TYPE_ACTIVITY:
+                return "TYPE_ACTIVITY";
+            case RouteMeta.TYPE_SERVICE:
+                return "TYPE_SERVICE";
+            case RouteMeta.TYPE_FRAGMENT:
+                return "TYPE_FRAGMENT";
+            default:
+                throw new IllegalArgumentException("未知的路由类型 : " + type);
+        }
+    }
+
     /**
      * 生成 路由组件 分组表 对应的 Java 类
      */
@@ -217,14 +1507,14 @@ public class RouterProcessor extends AbstractProcessor {
         // 打印类节点全类名
         //mMessager.printMessage(Diagnostic.Kind.NOTE, "打印 路由表 需要实现的接口节点 iRouteGroup : " + iRouteGroup.getQualifiedName());
 
-        // 生成参数类型 Map<String, RouteBean> atlas
+        // 生成参数类型 Map<String, RouteMeta> atlas
         ParameterizedTypeName atlasType = ParameterizedTypeName.get(
                 ClassName.get(Map.class),
                 ClassName.get(String.class),
-                ClassName.get(RouteBean.class)
+                ClassName.get(RouteMeta.class)
         );
 
-        // 生成参数 Map<String, RouteBean> atlas
+        // 生成参数 Map<String, RouteMeta> atlas
         ParameterSpec atlasValue = ParameterSpec.builder(atlasType, "atlas").build();
 
         // 遍历 HashMap<String, ArrayList<RouteBean>> mGroupMap = new HashMap<>() 路由分组
@@ -244,28 +1534,17 @@ public class RouterProcessor extends AbstractProcessor {
             String groupName = "";
 
             // 生成函数体代码
+            List<CodeBlock> statements = new ArrayList<>();
             for (RouteBean routeBean : groupRoutes){
                 // 获取组名
                 groupName = routeBean.getRouteGroup();
 
-                // $S 表示字符串
-                // $T 表示类
-                // $L 表示字面量 , 原封不动的字符串替换
-                methodBuilder.addStatement("atlas.put($S, new $T($T.$L, $T.class, $S, $S))",
-                        // $S 字符串 : "main"
-                        routeBean.getRouteGroup(),
-                        // $T 类名 : RouteBean
-                        ClassName.get(RouteBean.class),
-                        // $T 类名 : Type
-                        ClassName.get(RouteBean.Type.class),
-                        // $L 字面量 : ACTIVITY
-                        routeBean.getType(),
-                        // $T 类名 : kim.hsl.component.MainActivity 类
-                        ClassName.get((TypeElement) routeBean.getElement()),
+                // 以路由地址为键 , 将路由信息放入路由表中
+                statements.add(CodeBlock.of("atlas.put($S, $L)",
                         // $S 字符串 : "/app/MainActivity"
                         routeBean.getRouteAddress(),
-                        // $S 字符串 : "app"
-                        routeBean.getRouteGroup());
+                        // $L 代码块 : new RouteMeta(...)
+                        newRouteMetaCode(routeBean)));
             }
 
             // 创建类
@@ -274,11 +1553,23 @@ public class RouterProcessor extends AbstractProcessor {
             String groupClassName = "Router_Group_" + groupName;
 
             // 创建类
-            TypeSpec typeSpec = TypeSpec.classBuilder(groupClassName)
+            TypeSpec.Builder typeBuilder = TypeSpec.classBuilder(groupClassName)
                     .addSuperinterface(ClassName.get(iRouteGroup))
+                    .addModifiers(PUBLIC);
+
+            // 路由较多时拆分到多个 loadInto 子方法中
+            addChunkedStatements(typeBuilder, methodBuilder, atlasValue, statements);
+            typeBuilder.addMethod(methodBuilder.build());
+
+            // 分组中的路由个数 , 加载分组时用于预先分配映射表容量
+            typeBuilder.addMethod(MethodSpec.methodBuilder("routeCount")
+                    .addAnnotation(Override.class)
                     .addModifiers(PUBLIC)
-                    .addMethod(methodBuilder.build())
-                    .build();
+                    .returns(int.class)
+                    .addStatement("return $L", groupRoutes.size())
+                    .build());
+            addOriginatingElements(typeBuilder, groupRoutes);
+            TypeSpec typeSpec = typeBuilder.build();
 
             // 生成 Java 源码文件
             JavaFile javaFile = JavaFile.builder("kim.hsl.router", typeSpec).build();
@@ -300,11 +1591,14 @@ public class RouterProcessor extends AbstractProcessor {
     }
 
 
-    private void generateRouteClass(Set<? extends Element> routeElements) {
+    private void generateRouteClass(Collection<? extends Element> routeElements) {
         // 获取 android.app.Activity 类型的注解节点
         TypeElement activityElement = mElementUtils.getTypeElement("android.app.Activity");
         // 获取 组件间共享服务 的接口, 该接口仅用于表示组件类型
         TypeElement iServiceElement = mElementUtils.getTypeElement("kim.hsl.route_core.template.IService");
+        // 获取 Fragment 类型的注解节点 , 模块没有依赖 androidx.fragment 时为 null
+        TypeElement fragmentElement = mElementUtils.getTypeElement("android.app.Fragment");
+        TypeElement androidxFragmentElement = mElementUtils.getTypeElement("androidx.fragment.app.Fragment");
 
         // 处理 @Route(path = "app/MainActivity") 节点
         for (Element element : routeElements) {
@@ -315,19 +1609,48 @@ public class RouterProcessor extends AbstractProcessor {
 
             // 判断 typeMirror 注解节点是否是 Activity 类型
             if (mTypeUtils.isSubtype(element.asType(), activityElement.asType())) {
+                if (route.remote()) {
+                    throw new RuntimeException("@Route(remote = true) 只能用于 IService 服务 : " + element);
+                }
+                if (route.cacheable()) {
+                    throw new RuntimeException("@Route(cacheable = true) 只能用于 Fragment : " + element);
+                }
                 // 该节点是 android.app.Activity 类型的
                 routeBean = new RouteBean(
-                        RouteBean.Type.ACTIVITY,    // 路由对象类型
+                        RouteMeta.TYPE_ACTIVITY,    // 路由对象类型
                         element,         // 路由节点
-                        null,    // 类对象
                         route.path(),   // 路由地址
                         route.group()); // 路由组
             }else if (mTypeUtils.isSubtype(element.asType(), iServiceElement.asType())) {
+                // 服务对象由生成的 Router_Factory_模块名 直接 new 创建 , 服务类必须是 public 的
+                if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                    throw new RuntimeException("@Route 注解的服务类 " + element + " 必须是 public 的");
+                }
+                if (route.cacheable()) {
+                    throw new RuntimeException("@Route(cacheable = true) 只能用于 Fragment : " + element);
+                }
                 // 该节点是 kim.hsl.route_core.template.IService 类型的
                 routeBean = new RouteBean(
-                        RouteBean.Type.ISERVICE,    // 路由对象类型
+                        RouteMeta.TYPE_SERVICE,    // 路由对象类型
+                        element,         // 路由节点
+                        route.path(),   // 路由地址
+                        route.group()); // 路由组
+            }else if (isSubtype(element, androidxFragmentElement) || isSubtype(element, fragmentElement)) {
+                if (route.remote()) {
+                    throw new RuntimeException("@Route(remote = true) 只能用于 IService 服务 : " + element);
+                }
+                // Fragment 由生成的 Router_Factory_模块名 直接 new 创建 , Fragment 类必须是 public 的
+                if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                    throw new RuntimeException("@Route 注解的 Fragment " + element + " 必须是 public 的");
+                }
+                // 缓存的 Fragment 在生命周期 ON_DESTROY 时放回缓存 , android.app.Fragment 没有 Lifecycle
+                if (route.cacheable() && !isSubtype(element, androidxFragmentElement)) {
+                    throw new RuntimeException("@Route(cacheable = true) 只能用于 androidx.fragment.app.Fragment : " + element);
+                }
+                // 该节点是 Fragment 类型的
+                routeBean = new RouteBean(
+                        RouteMeta.TYPE_FRAGMENT,    // 路由对象类型
                         element,         // 路由节点
-                        null,    // 类对象
                         route.path(),   // 路由地址
                         route.group()); // 路由组
             }else{
@@ -346,6 +1669,15 @@ public class RouterProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * 判断注解节点是否是指定类型的子类
+     * @param element 注解节点
+     * @param typeElement 类型节点 , 模块没有依赖该类型时为 null
+     */
+    private boolean isSubtype(Element element, TypeElement typeElement) {
+        return typeElement != null && mTypeUtils.isSubtype(element.asType(), typeElement.asType());
+    }
+
     /**
      * 处理路由信息分组
      * @param routeBean
@@ -383,6 +1715,14 @@ public class RouterProcessor extends AbstractProcessor {
             throw new RuntimeException("路由地址 " + routeAddress + " 格式错误");
         }
 
+        // 验证带参数 / 通配符的路由地址 , 如 /user/{id}/orders/*
+        if (RouteTrie.isPattern(routeAddress)) {
+            String error = RouteTrie.checkPattern(routeAddress);
+            if (error != null) {
+                throw new RuntimeException("路由地址 " + routeAddress + " 格式错误 : " + error);
+            }
+        }
+
         // 如果路由地址的分组为空 ,
         // 则截取第 0 和 第 1 个 "/" 之间的字符串作为分组名称
         if (routeGroup == null || "".equals(routeGroup)){
@@ -0,0 +1,187 @@
+package kim.hsl.router_compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import kim.hsl.router_annotation.model.RouteMeta;
+import kim.hsl.router_annotation.utils.RouteHash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 单个分组中有大量路由时 , 生成的路由表不能超过 JVM 单个方法 64KB 字节码的限制
+ *
+ * route-core 是 Android 库 , 这里以源码形式提供生成代码依赖的接口 , 使用 javac 运行 RouterProcessor
+ */
+public class RouterProcessorTest {
+
+    /**
+     * 同一分组中的路由个数 , 未拆分时生成的 loadInto 方法会超过 64KB
+     */
+    private static final int ROUTE_COUNT = 5000;
+
+    /**
+     * 同一接口的服务个数 , 未拆分时生成的 create 方法和静态数组初始化代码会超过 64KB
+     */
+    private static final int SERVICE_COUNT = 5000;
+
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void largeGroup_compilesAndLoads() throws Exception {
+        File outputDir = mTemporaryFolder.newFolder("classes");
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        sources.add(source("android.app.Activity",
+                "package android.app; public class Activity {}"));
+        sources.add(source("kim.hsl.route_core.template.IService",
+                "package kim.hsl.route_core.template; public interface IService {}"));
+        sources.add(source("kim.hsl.route_core.template.IRouteGroup",
+                "package kim.hsl.route_core.template;"
+                        + " public interface IRouteGroup {"
+                        + " void loadInto(java.util.Map<String, kim.hsl.router_annotation.model.RouteMeta> atlas);"
+                        + " int routeCount(); }"));
+        sources.add(source("kim.hsl.route_core.template.IRouteRoot",
+                "package kim.hsl.route_core.template;"
+                        + " public interface IRouteRoot {"
+                        + " void loadInto(java.util.Map<String, Class<? extends IRouteGroup>> routes); }"));
+        sources.add(source("kim.hsl.route_core.template.IRouteIndex",
+                "package kim.hsl.route_core.template;"
+                        + " public interface IRouteIndex {"
+                        + " int[] seeds(); String[] paths();"
+                        + " kim.hsl.router_annotation.model.RouteMeta route(int id); int[] preloads(); }"));
+        sources.add(source("kim.hsl.route_core.template.IRouteFactory",
+                "package kim.hsl.route_core.template;"
+                        + " public interface IRouteFactory { Class<?>[] classes(); int[] cacheable(); Object create(int id); }"));
+        sources.add(source("kim.hsl.route_core.template.IServiceIndex",
+                "package kim.hsl.route_core.template;"
+                        + " public interface IServiceIndex {"
+                        + " Class<?>[] interfaces(); Class<?>[][] implementations(); int[][] priorities(); }"));
+
+        // 5000 个 Activity 都在 big 分组中 , 每 10 个路由中有一个预加载路由
+        StringBuilder activities = new StringBuilder("package kim.hsl.big; public class Pages {");
+        for (int i = 0; i < ROUTE_COUNT; i++) {
+            activities.append(" @kim.hsl.router_annotation.Route(path = \"/big/Page").append(i).append('"')
+                    .append(i % 10 == 0 ? ", preload = true" : "")
+                    .append(") public static class Page").append(i).append(" extends android.app.Activity {}");
+        }
+        activities.append(" }");
+        sources.add(source("kim.hsl.big.Pages", activities.toString()));
+
+        // 5000 个服务实现同一个接口 , 都在 bigservice 分组中
+        sources.add(source("kim.hsl.big.BigService",
+                "package kim.hsl.big; public interface BigService extends kim.hsl.route_core.template.IService {}"));
+        StringBuilder services = new StringBuilder("package kim.hsl.big; public class Services {");
+        for (int i = 0; i < SERVICE_COUNT; i++) {
+            services.append(" @kim.hsl.router_annotation.Route(path = \"/bigservice/Service").append(i).append('"')
+                    .append(") public static class Service").append(i).append(" implements BigService {}");
+        }
+        services.append(" }");
+        sources.add(source("kim.hsl.big.Services", services.toString()));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", outputDir.getAbsolutePath(),
+                "-AmoduleName=big");
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, sources);
+        task.setProcessors(Collections.singletonList(new RouterProcessor()));
+        boolean success = task.call();
+        StringBuilder errors = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.append(diagnostic).append('\n');
+            }
+        }
+        assertTrue(errors.toString(), success);
+
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()},
+                getClass().getClassLoader());
+
+        // 分组 : 全部路由都能装载 , 且 loadInto 已经拆分为多个子方法
+        Class<?> groupClass = classLoader.loadClass("kim.hsl.router.Router_Group_big");
+        Object group = groupClass.getConstructor().newInstance();
+        assertEquals(ROUTE_COUNT, groupClass.getMethod("routeCount").invoke(group));
+        Map<String, RouteMeta> atlas = new HashMap<>();
+        groupClass.getMethod("loadInto", Map.class).invoke(group, atlas);
+        assertEquals(ROUTE_COUNT, atlas.size());
+        assertNotNull(groupClass.getDeclaredMethod("loadInto0", Map.class));
+
+        // 索引 : 每个路由都能通过最小完美哈希查找到
+        Class<?> indexClass = classLoader.loadClass("kim.hsl.router.Router_Index_big");
+        Object index = indexClass.getConstructor().newInstance();
+        int[] seeds = (int[]) indexClass.getMethod("seeds").invoke(index);
+        String[] paths = (String[]) indexClass.getMethod("paths").invoke(index);
+        int[] preloads = (int[]) indexClass.getMethod("preloads").invoke(index);
+        Method route = indexClass.getMethod("route", int.class);
+        // 索引中包含本模块全部分组的路由
+        assertEquals(ROUTE_COUNT + SERVICE_COUNT, paths.length);
+        assertEquals(ROUTE_COUNT / 10, preloads.length);
+        for (int i = 0; i < ROUTE_COUNT; i++) {
+            String path = "/big/Page" + i;
+            int id = RouteHash.lookup(seeds, path);
+            assertEquals(path, paths[id]);
+            RouteMeta routeMeta = (RouteMeta) route.invoke(index, id);
+            assertEquals(path, routeMeta.getPath());
+            assertSame(atlas.get(path).getClazz(), routeMeta.getClazz());
+        }
+
+        // 工厂 : 每个类 ID 都能创建对应的实例 , 且 create 已经拆分为多个子方法
+        Class<?> factoryClass = classLoader.loadClass("kim.hsl.router.Router_Factory_big");
+        Object factory = factoryClass.getConstructor().newInstance();
+        Class<?>[] classes = (Class<?>[]) factoryClass.getMethod("classes").invoke(factory);
+        Method create = factoryClass.getMethod("create", int.class);
+        // 两个分组类和全部服务
+        assertEquals(SERVICE_COUNT + 2, classes.length);
+        for (int id = 0; id < classes.length; id++) {
+            assertSame(classes[id], create.invoke(factory, id).getClass());
+        }
+        assertNotNull(factoryClass.getDeclaredMethod("create0", int.class));
+
+        // 服务表 : 接口的全部实现类都能装载
+        Class<?> servicesClass = classLoader.loadClass("kim.hsl.router.Router_Services_big");
+        Object serviceIndex = servicesClass.getConstructor().newInstance();
+        Class<?>[] interfaces = (Class<?>[]) servicesClass.getMethod("interfaces").invoke(serviceIndex);
+        Class<?>[][] implementations = (Class<?>[][]) servicesClass.getMethod("implementations").invoke(serviceIndex);
+        int[][] priorities = (int[][]) servicesClass.getMethod("priorities").invoke(serviceIndex);
+        assertEquals(1, interfaces.length);
+        assertEquals("kim.hsl.big.BigService", interfaces[0].getName());
+        assertEquals(SERVICE_COUNT, implementations[0].length);
+        assertEquals(SERVICE_COUNT, priorities[0].length);
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package kim.hsl.router_register;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * 向 kim.hsl.route_core.Router#loadRouterMap 方法中插入注册代码
+ *
+ * 插入后的代码如下 :
+ * private static void loadRouterMap() {
+ *     registerByPlugin = false;
+ *     register(new kim.hsl.router.Router_Root_app());
+ *     register(new kim.hsl.router.Router_Root_library2());
+ * }
+ */
+class RegisterCodeGenerator {
+
+    private static final String ROUTER_INTERNAL_NAME = "kim/hsl/route_core/Router";
+    private static final String LOAD_METHOD = "loadRouterMap";
+    private static final String REGISTER_METHOD = "register";
+    private static final String REGISTER_DESCRIPTOR = "(Ljava/lang/Object;)V";
+
+    /**
+     * 修改 jar 包中的 Router.class
+     */
+    static void insertIntoJar(File jar, Collection<String> registerClasses) throws IOException {
+        File tmp = new File(jar.getParentFile(), jar.getName() + ".tmp");
+        try (JarFile jarFile = new JarFile(jar);
+             JarOutputStream out = new JarOutputStream(Files.newOutputStream(tmp.toPath()))) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                byte[] bytes;
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    bytes = readAll(in);
+                }
+                if (RegisterTransform.ROUTER_CLASS.equals(entry.getName())) {
+                    bytes = generate(bytes, registerClasses);
+                }
+                out.putNextEntry(new JarEntry(entry.getName()));
+                out.write(bytes);
+                out.closeEntry();
+            }
+        }
+        Files.move(tmp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 修改目录中的 Router.class
+     */
+    static void insertIntoClass(File classFile, Collection<String> registerClasses) throws IOException {
+        byte[] bytes = Files.readAllBytes(classFile.toPath());
+        Files.write(classFile.toPath(), generate(bytes, registerClasses));
+    }
+
+    private static byte[] generate(byte[] classBytes, Collection<String> registerClasses) {
+        ClassReader reader = new ClassReader(classBytes);
+        // 插入的代码会增加操作数栈深度 , 由 ASM 重新计算
+        ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+        reader.accept(new RouterClassVisitor(writer, registerClasses), 0);
+        return writer.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+
+    private static class RouterClassVisitor extends ClassVisitor {
+        private final Collection<String> mRegisterClasses;
+
+        RouterClassVisitor(ClassVisitor classVisitor, Collection<String> registerClasses) {
+            super(Opcodes.ASM7, classVisitor);
+            this.mRegisterClasses = registerClasses;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor,
+                                         String signature, String[] exceptions) {
+            MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if (LOAD_METHOD.equals(name)) {
+                return new LoadRouterMapVisitor(mv, mRegisterClasses);
+            }
+            return mv;
+        }
+    }
+
+    private static class LoadRouterMapVisitor extends MethodVisitor {
+        private final Collection<String> mRegisterClasses;
+
+        LoadRouterMapVisitor(MethodVisitor methodVisitor, Collection<String> registerClasses) {
+            super(Opcodes.ASM7, methodVisitor);
+            this.mRegisterClasses = registerClasses;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            // 在方法返回之前插入注册代码
+            if (opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN) {
+                for (String className : mRegisterClasses) {
+                    // register(new Router_Root_xxx());
+                    mv.visitTypeInsn(Opcodes.NEW, className);
+                    mv.visitInsn(Opcodes.DUP);
+                    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, className, "<init>", "()V", false);
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, ROUTER_INTERNAL_NAME,
+                            REGISTER_METHOD, REGISTER_DESCRIPTOR, false);
+                }
+            }
+            super.visitInsn(opcode);
+        }
+    }
+}
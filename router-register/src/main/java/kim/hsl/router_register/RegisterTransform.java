@@ -0,0 +1,196 @@
+package kim.hsl.router_register;
+
+import com.android.build.api.transform.DirectoryInput;
+import com.android.build.api.transform.Format;
+import com.android.build.api.transform.JarInput;
+import com.android.build.api.transform.QualifiedContent;
+import com.android.build.api.transform.Transform;
+import com.android.build.api.transform.TransformException;
+import com.android.build.api.transform.TransformInput;
+import com.android.build.api.transform.TransformInvocation;
+import com.android.build.api.transform.TransformOutputProvider;
+import com.android.build.gradle.internal.pipeline.TransformManager;
+
+import org.gradle.api.Project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * 扫描所有 class , 收集需要注册的路由类 , 并找到 kim.hsl.route_core.Router 类所在的位置
+ * 扫描完成后 , 将注册代码插入到 Router#loadRouterMap 方法中
+ */
+public class RegisterTransform extends Transform {
+
+    /**
+     * 需要插入注册代码的 Router 类
+     */
+    static final String ROUTER_CLASS = "kim/hsl/route_core/Router.class";
+
+    /**
+     * 注解处理器生成的类所在的包
+     */
+    static final String ROUTE_PACKAGE = "kim/hsl/router/";
+
+    /**
+     * 需要注册的生成类的类名前缀
+     */
+    static final String[] REGISTER_PREFIXES = {
+            "Router_Root_",
+            "Router_Index_",
+            "Router_Factory_",
+            "Router_Extra_",
+            "Router_Interceptors_",
+            "Router_Matcher_",
+            "Router_Services_",
+            "Router_Remote_"
+    };
+
+    private final Project mProject;
+
+    public RegisterTransform(Project project) {
+        this.mProject = project;
+    }
+
+    @Override
+    public String getName() {
+        return "routerRegister";
+    }
+
+    @Override
+    public Set<QualifiedContent.ContentType> getInputTypes() {
+        return TransformManager.CONTENT_CLASS;
+    }
+
+    @Override
+    public Set<? super QualifiedContent.Scope> getScopes() {
+        return TransformManager.SCOPE_FULL_PROJECT;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return false;
+    }
+
+    @Override
+    public void transform(TransformInvocation transformInvocation)
+            throws TransformException, InterruptedException, IOException {
+        TransformOutputProvider outputProvider = transformInvocation.getOutputProvider();
+        outputProvider.deleteAll();
+
+        // 需要注册的路由类 , 排序后插入 , 保证每次生成的字节码一致
+        Set<String> registerClasses = new TreeSet<>();
+        // Router.class 所在的 jar 包输出位置
+        File routerJar = null;
+        // Router.class 在目录中的输出位置
+        File routerClassFile = null;
+
+        for (TransformInput input : transformInvocation.getInputs()) {
+            // 处理 jar 包 , 依赖的组件模块都是以 jar 包的形式输入的
+            for (JarInput jarInput : input.getJarInputs()) {
+                File dest = outputProvider.getContentLocation(jarInput.getName(),
+                        jarInput.getContentTypes(), jarInput.getScopes(), Format.JAR);
+                if (scanJar(jarInput.getFile(), registerClasses)) {
+                    routerJar = dest;
+                }
+                dest.getParentFile().mkdirs();
+                Files.copy(jarInput.getFile().toPath(), dest.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // 处理目录 , 应用模块自身的 class 以目录的形式输入
+            for (DirectoryInput directoryInput : input.getDirectoryInputs()) {
+                File dest = outputProvider.getContentLocation(directoryInput.getName(),
+                        directoryInput.getContentTypes(), directoryInput.getScopes(), Format.DIRECTORY);
+                File found = copyDirectory(directoryInput.getFile().toPath(), dest.toPath(),
+                        registerClasses);
+                if (found != null) {
+                    routerClassFile = found;
+                }
+            }
+        }
+
+        mProject.getLogger().info("router-register : 需要注册的路由类 " + registerClasses);
+
+        if (routerJar != null) {
+            RegisterCodeGenerator.insertIntoJar(routerJar, registerClasses);
+        } else if (routerClassFile != null) {
+            RegisterCodeGenerator.insertIntoClass(routerClassFile, registerClasses);
+        } else {
+            mProject.getLogger().warn("router-register : 没有找到 " + ROUTER_CLASS
+                    + " , 运行时将回退到扫描 DEX 的方式加载路由表");
+        }
+    }
+
+    /**
+     * 扫描 jar 包 , 收集需要注册的路由类
+     * @return 该 jar 包中是否包含 Router.class
+     */
+    private boolean scanJar(File jar, Set<String> registerClasses) throws IOException {
+        boolean containsRouter = false;
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (ROUTER_CLASS.equals(name)) {
+                    containsRouter = true;
+                } else {
+                    collect(name, registerClasses);
+                }
+            }
+        }
+        return containsRouter;
+    }
+
+    /**
+     * 拷贝目录 , 拷贝的同时收集需要注册的路由类
+     * @return 输出目录中的 Router.class 文件 , 没有则返回 null
+     */
+    private File copyDirectory(Path from, Path to, Set<String> registerClasses) throws IOException {
+        File routerClassFile = null;
+        try (Stream<Path> paths = Files.walk(from)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path target = to.resolve(from.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+
+                // 统一使用 "/" 作为分隔符 , 与 jar 包中的路径保持一致
+                String name = from.relativize(path).toString().replace(File.separatorChar, '/');
+                if (ROUTER_CLASS.equals(name)) {
+                    routerClassFile = target.toFile();
+                } else {
+                    collect(name, registerClasses);
+                }
+            }
+        }
+        return routerClassFile;
+    }
+
+    /**
+     * 如果是需要注册的路由类 , 将其内部类名 ( 如 kim/hsl/router/Router_Root_app ) 加入集合
+     */
+    private static void collect(String name, Set<String> registerClasses) {
+        if (!name.startsWith(ROUTE_PACKAGE) || !name.endsWith(".class") || name.contains("$")) {
+            return;
+        }
+        String simpleName = name.substring(ROUTE_PACKAGE.length());
+        for (String prefix : REGISTER_PREFIXES) {
+            if (simpleName.startsWith(prefix)) {
+                registerClasses.add(name.substring(0, name.length() - ".class".length()));
+                return;
+            }
+        }
+    }
+}
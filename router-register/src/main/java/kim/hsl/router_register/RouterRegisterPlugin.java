@@ -0,0 +1,32 @@
+package kim.hsl.router_register;
+
+import com.android.build.gradle.AppExtension;
+import com.android.build.gradle.AppPlugin;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+/**
+ * 路由表自动注册插件
+ *
+ * 在编译时找到所有注解处理器生成的 kim.hsl.router.Router_Root_* 类 ,
+ * 并将其注册代码插入到 kim.hsl.route_core.Router#loadRouterMap 方法中 ,
+ * 运行时初始化路由表时不再需要扫描 DEX 文件
+ *
+ * 使用方式 : 在应用模块的 build.gradle 中 apply plugin: 'kim.hsl.router-register'
+ */
+public class RouterRegisterPlugin implements Plugin<Project> {
+
+    @Override
+    public void apply(Project project) {
+        // 只有应用模块才能拿到所有组件的 class , 因此只在应用模块中注册 Transform
+        if (!project.getPlugins().hasPlugin(AppPlugin.class)) {
+            project.getLogger().warn("router-register : " + project.getName()
+                    + " 不是应用模块 , 不进行路由表自动注册");
+            return;
+        }
+
+        AppExtension android = project.getExtensions().getByType(AppExtension.class);
+        android.registerTransform(new RegisterTransform(project));
+    }
+}